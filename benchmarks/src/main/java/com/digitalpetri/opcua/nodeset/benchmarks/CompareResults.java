@@ -0,0 +1,171 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file ({@code -rf csv}) against the checked-in baseline and exits with status 1 if any
+ * benchmark regressed by more than the threshold.
+ * <p>
+ * By default only the normalized allocation rate ({@code gc.alloc.rate.norm}, reported by {@code -prof gc}) of each
+ * benchmark is compared, since it is the same on any machine and JDK build. With {@code --scores} the primary score is
+ * compared as well, which only makes sense against a baseline recorded on the same machine. Every benchmark uses
+ * {@code Mode.AverageTime}, so for both a higher value is worse. Other secondary metrics are ignored.
+ * <pre>
+ * java -cp target/benchmarks.jar com.digitalpetri.opcua.nodeset.benchmarks.CompareResults \
+ *     [--scores] baseline/results.csv target/results.csv [thresholdPercent]
+ * </pre>
+ */
+public final class CompareResults {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private static final String ALLOCATION_SUFFIX = "gc.alloc.rate.norm";
+
+    private CompareResults() {}
+
+    public static void main(String[] args) throws IOException {
+        boolean scores = args.length > 0 && args[0].equals("--scores");
+
+        if (scores) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults [--scores] <baseline.csv> <results.csv> [thresholdPercent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Double> baseline = read(Paths.get(args[0]), scores);
+        Map<String, Double> results = read(Paths.get(args[1]), scores);
+
+        if (baseline.isEmpty()) {
+            System.err.printf("no %s rows in baseline %s; record it with -prof gc%n", ALLOCATION_SUFFIX, args[0]);
+            System.exit(2);
+        }
+
+        int regressions = 0;
+
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            Double expected = baseline.get(result.getKey());
+
+            if (expected == null) {
+                System.out.printf("NEW        %s: %.3f%n", result.getKey(), result.getValue());
+                continue;
+            }
+
+            double change = expected != 0.0 ? (result.getValue() - expected) / expected * 100.0 : 0.0;
+
+            String status;
+            if (change > threshold) {
+                status = "REGRESSION";
+                regressions++;
+            } else if (change < -threshold) {
+                status = "IMPROVED";
+            } else {
+                status = "OK";
+            }
+
+            System.out.printf(
+                "%-10s %s: %.3f -> %.3f (%+.1f%%)%n",
+                status, result.getKey(), expected, result.getValue(), change
+            );
+        }
+
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.printf("MISSING    %s%n", key);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read the compared rows of a JMH CSV file, keyed by benchmark name and parameter values.
+     *
+     * @param scores {@code true} to read the primary scores as well as the allocation rates.
+     */
+    private static Map<String, Double> read(Path path, boolean scores) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+
+        if (lines.isEmpty()) {
+            throw new IOException("empty result file: " + path);
+        }
+
+        List<String> header = split(lines.get(0));
+        int benchmarkColumn = header.indexOf("Benchmark");
+        int scoreColumn = header.indexOf("Score");
+
+        if (benchmarkColumn < 0 || scoreColumn < 0) {
+            throw new IOException("not a JMH CSV result file: " + path);
+        }
+
+        Map<String, Double> rows = new LinkedHashMap<>();
+
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isEmpty()) continue;
+
+            List<String> row = split(line);
+            String benchmark = row.get(benchmarkColumn);
+
+            // secondary metrics are reported as "<benchmark>:<metric>"
+            if (benchmark.contains(":") ? !benchmark.endsWith(ALLOCATION_SUFFIX) : !scores) continue;
+
+            StringBuilder key = new StringBuilder(benchmark);
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && i < row.size() && !row.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(row.get(i));
+                }
+            }
+
+            rows.put(key.toString(), Double.parseDouble(row.get(scoreColumn)));
+        }
+
+        return rows;
+    }
+
+    /**
+     * Split a CSV line, removing the quotes JMH puts around text fields.
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+import com.digitalpetri.opcua.nodeset.MergeOptions;
+import com.digitalpetri.opcua.nodeset.UaNodeSet;
+import com.digitalpetri.opcua.nodeset.UaNodeSetMerger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merges a companion specification into the Core NodeSet.
+ * <p>
+ * ADI and AutoID both depend on DI, so they are merged as Core + DI + companion; DI alone is merged as Core + DI.
+ * The inputs are parsed once during setup and are not modified by merging; {@link #mergeShared()} shares the Core
+ * NodeSet with the result rather than copying it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MergeBenchmark {
+
+    private static final MergeOptions SHARE_FIRST = MergeOptions.builder().setShareFirstNodeSet(true).build();
+
+    @Param({"di", "adi", "autoid"})
+    public String companion;
+
+    private List<UaNodeSet> nodeSets;
+
+    @Setup
+    public void setup() throws JAXBException {
+        nodeSets = new ArrayList<>();
+        nodeSets.add(Resources.parse("Opc.Ua.NodeSet2.xml"));
+        nodeSets.add(Resources.parse("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        switch (companion) {
+            case "di":
+                break;
+            case "adi":
+                nodeSets.add(Resources.parse("adi/Opc.Ua.Adi.NodeSet2.xml"));
+                break;
+            case "autoid":
+                nodeSets.add(Resources.parse("autoid/Opc.Ua.AutoID.NodeSet2.xml"));
+                break;
+            default:
+                throw new IllegalArgumentException("companion: " + companion);
+        }
+    }
+
+    @Benchmark
+    public UaNodeSet merge() {
+        return UaNodeSetMerger.mergeAll(nodeSets);
+    }
+
+    @Benchmark
+    public UaNodeSet mergeShared() {
+        return UaNodeSetMerger.mergeAll(nodeSets, SHARE_FIRST);
+    }
+
+}
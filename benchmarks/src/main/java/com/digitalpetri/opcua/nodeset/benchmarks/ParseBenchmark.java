@@ -0,0 +1,68 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+import com.digitalpetri.opcua.nodeset.UaNodeSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses each of the test NodeSets with {@link UaNodeSet#parse} and {@link UaNodeSet#parseStreaming}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParseBenchmark {
+
+    @Param({
+        "Opc.Ua.NodeSet2.xml",
+        "Opc.Ua.NodeSet2.Part3.xml",
+        "Opc.Ua.NodeSet2.Part4.xml",
+        "Opc.Ua.NodeSet2.Part5.xml",
+        "Opc.Ua.NodeSet2.Part8.xml",
+        "Opc.Ua.NodeSet2.Part9.xml",
+        "Opc.Ua.NodeSet2.Part10.xml",
+        "Opc.Ua.NodeSet2.Part11.xml",
+        "Opc.Ua.NodeSet2.Part13.xml",
+        "adi/Opc.Ua.Adi.NodeSet2.xml",
+        "aml/Opc.Ua.AMLBaseTypes.NodeSet2.xml",
+        "aml/Opc.Ua.AMLLibraries.NodeSet2.xml",
+        "autoid/Opc.Ua.AutoID.NodeSet2.xml",
+        "di/Opc.Ua.Di.NodeSet2.xml",
+        "mdis/OPC.MDIS.NodeSet2.xml",
+        "plc/Opc.Ua.Plc.NodeSet2.xml"
+    })
+    public String resource;
+
+    private byte[] nodeSetXml;
+
+    @Setup
+    public void setup() {
+        nodeSetXml = Resources.read(resource);
+    }
+
+    @Benchmark
+    public UaNodeSet parse() throws JAXBException {
+        return UaNodeSet.parse(new ByteArrayInputStream(nodeSetXml));
+    }
+
+    @Benchmark
+    public UaNodeSet parseStreaming() throws JAXBException {
+        return UaNodeSet.parseStreaming(new ByteArrayInputStream(nodeSetXml));
+    }
+
+}
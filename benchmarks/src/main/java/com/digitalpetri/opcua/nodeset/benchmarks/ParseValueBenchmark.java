@@ -0,0 +1,131 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.Marshaller;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import com.digitalpetri.opcua.nodeset.util.AttributeUtil;
+import com.digitalpetri.opcua.nodeset.util.JaxbUtil;
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * Decodes a single UAVariable {@code <Value>} of each type with {@link AttributeUtil#parseValue}.
+ * <p>
+ * The values are DOM {@link Element}s, as JAXB produces them for the {@code xs:any} content of {@code <Value>}, so the
+ * built-in types measure the DOM fast path and the ExtensionObjects measure the fallback to the XML decoder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseValueBenchmark {
+
+    private static final String UA_TYPES_NAMESPACE = "http://opcfoundation.org/UA/2008/02/Types.xsd";
+
+    private static final Map<String, String> VALUES = ImmutableMap.<String, String>builder()
+        .put("Boolean", "<Boolean>true</Boolean>")
+        .put("Int32", "<Int32>-42</Int32>")
+        .put("UInt32", "<UInt32>42</UInt32>")
+        .put("Double", "<Double>3.14159</Double>")
+        .put("String", "<String>The quick brown fox</String>")
+        .put("DateTime", "<DateTime>2019-06-01T12:00:00Z</DateTime>")
+        .put("Guid", "<Guid><String>72962b91-fa75-4ae6-8d28-b404dc7daf63</String></Guid>")
+        .put("ByteString", "<ByteString>AAECAwQFBgcICQ==</ByteString>")
+        .put("NodeId", "<NodeId><Identifier>ns=1;i=15000</Identifier></NodeId>")
+        .put("QualifiedName", "<QualifiedName><NamespaceIndex>1</NamespaceIndex><Name>Name</Name></QualifiedName>")
+        .put("LocalizedText", "<LocalizedText><Locale>en</Locale><Text>Text</Text></LocalizedText>")
+        .put("ListOfInt32", "<ListOfInt32><Int32>1</Int32><Int32>2</Int32><Int32>3</Int32><Int32>4</Int32></ListOfInt32>")
+        .put("ListOfString", "<ListOfString><String>a</String><String>b</String><String>c</String></ListOfString>")
+        .put("ListOfLocalizedText", "<ListOfLocalizedText>" +
+            "<LocalizedText><Locale>en</Locale><Text>One</Text></LocalizedText>" +
+            "<LocalizedText><Locale>en</Locale><Text>Two</Text></LocalizedText>" +
+            "</ListOfLocalizedText>")
+        .put("ExtensionObject", "<ExtensionObject>" +
+            "<TypeId><Identifier>i=297</Identifier></TypeId>" +
+            "<Body><Argument>" +
+            "<Name>Input</Name><DataType><Identifier>i=12</Identifier></DataType><ValueRank>-1</ValueRank>" +
+            "<ArrayDimensions/><Description/>" +
+            "</Argument></Body>" +
+            "</ExtensionObject>")
+        .put("ListOfExtensionObject", "<ListOfExtensionObject>" +
+            "<ExtensionObject><TypeId><Identifier>i=7616</Identifier></TypeId>" +
+            "<Body><EnumValueType><Value>0</Value><DisplayName><Text>Off</Text></DisplayName></EnumValueType></Body>" +
+            "</ExtensionObject>" +
+            "<ExtensionObject><TypeId><Identifier>i=7616</Identifier></TypeId>" +
+            "<Body><EnumValueType><Value>1</Value><DisplayName><Text>On</Text></DisplayName></EnumValueType></Body>" +
+            "</ExtensionObject>" +
+            "</ListOfExtensionObject>")
+        .build();
+
+    @Param({
+        "Boolean",
+        "Int32",
+        "UInt32",
+        "Double",
+        "String",
+        "DateTime",
+        "Guid",
+        "ByteString",
+        "NodeId",
+        "QualifiedName",
+        "LocalizedText",
+        "ListOfInt32",
+        "ListOfString",
+        "ListOfLocalizedText",
+        "ExtensionObject",
+        "ListOfExtensionObject"
+    })
+    public String type;
+
+    private final NodeId nodeId = new NodeId(1, "Value");
+    private final Map<NodeId, String> rawXmlValues = new HashMap<>();
+
+    private Element value;
+    private Marshaller marshaller;
+
+    @Setup
+    public void setup() throws Exception {
+        String xml = VALUES.get(type);
+        if (xml == null) {
+            throw new IllegalArgumentException("type: " + type);
+        }
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        String document = "<Value xmlns=\"" + UA_TYPES_NAMESPACE + "\">" + xml + "</Value>";
+
+        Element root = factory.newDocumentBuilder()
+            .parse(new InputSource(new StringReader(document)))
+            .getDocumentElement();
+
+        value = (Element) root.getFirstChild();
+        marshaller = JaxbUtil.getContext().createMarshaller();
+    }
+
+    @Benchmark
+    public DataValue parseValue() {
+        return AttributeUtil.parseValue(value, marshaller, nodeId, rawXmlValues);
+    }
+
+}
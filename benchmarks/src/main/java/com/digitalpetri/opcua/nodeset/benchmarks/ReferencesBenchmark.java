@@ -0,0 +1,68 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+import com.digitalpetri.opcua.nodeset.UaNodeSet;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Visits the references of every node in the Core NodeSet, the way a server does when it builds its address space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReferencesBenchmark {
+
+    private UaNodeSet nodeSet;
+
+    @Setup
+    public void setup() throws JAXBException {
+        nodeSet = Resources.parse("Opc.Ua.NodeSet2.xml");
+    }
+
+    @Benchmark
+    public void getCombinedReferences(Blackhole blackhole) {
+        for (NodeId nodeId : nodeSet.getNodes().keySet()) {
+            List<Reference> references = nodeSet.getCombinedReferences().get(nodeId);
+
+            for (Reference reference : references) {
+                blackhole.consume(reference);
+            }
+        }
+    }
+
+    @Benchmark
+    public void getCombinedReferencesEntries(Blackhole blackhole) {
+        for (Map.Entry<NodeId, Reference> entry : nodeSet.getCombinedReferences().entries()) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void getReferences(Blackhole blackhole) {
+        for (NodeId nodeId : nodeSet.getNodes().keySet()) {
+            for (Reference reference : nodeSet.getReferences(nodeId)) {
+                blackhole.consume(reference);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.digitalpetri.opcua.nodeset.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import javax.xml.bind.JAXBException;
+
+import com.digitalpetri.opcua.nodeset.UaNodeSet;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Loads the NodeSets under {@code src/test/resources}, which the benchmark build copies onto its classpath.
+ * <p>
+ * Benchmarks read the files into memory during setup so that the measurements don't include any I/O.
+ */
+final class Resources {
+
+    private Resources() {}
+
+    static byte[] read(String name) {
+        try (InputStream in = Resources.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("resource not found: " + name);
+            }
+
+            return ByteStreams.toByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static UaNodeSet parse(String name) throws JAXBException {
+        return UaNodeSet.parse(new ByteArrayInputStream(read(name)));
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import com.digitalpetri.opcua.nodeset.util.JaxbUtil;
+
+/**
+ * Pools of {@link Marshaller}s and {@link Unmarshaller}s created from the shared {@link JaxbUtil#getContext()}.
+ * <p>
+ * Marshallers and Unmarshallers are not thread-safe; borrow one for the duration of an operation and release it when
+ * done:
+ * <pre>{@code
+ * Unmarshaller unmarshaller = JaxbPool.borrowUnmarshaller();
+ * try {
+ *     ...
+ * } finally {
+ *     JaxbPool.releaseUnmarshaller(unmarshaller);
+ * }
+ * }</pre>
+ * Released instances are handed to the next borrower as they are, so borrowers must not set properties, listeners,
+ * event handlers or schemas on them. Each pool keeps at most one instance per available processor; instances released
+ * to a full pool are dropped.
+ */
+final class JaxbPool {
+
+    private static final int CAPACITY = Runtime.getRuntime().availableProcessors();
+
+    private static final Queue<Marshaller> MARSHALLERS = new ArrayBlockingQueue<>(CAPACITY);
+    private static final Queue<Unmarshaller> UNMARSHALLERS = new ArrayBlockingQueue<>(CAPACITY);
+
+    private JaxbPool() {}
+
+    /**
+     * Borrow a {@link Marshaller} from the pool, creating a new one if none are available.
+     *
+     * @return a {@link Marshaller} that must be returned with {@link #releaseMarshaller(Marshaller)}.
+     * @throws JAXBException if a new Marshaller could not be created.
+     */
+    static Marshaller borrowMarshaller() throws JAXBException {
+        Marshaller marshaller = MARSHALLERS.poll();
+
+        return marshaller != null ? marshaller : JaxbUtil.getContext().createMarshaller();
+    }
+
+    /**
+     * Return a {@link Marshaller} obtained from {@link #borrowMarshaller()} to the pool.
+     *
+     * @param marshaller the {@link Marshaller} to return.
+     */
+    static void releaseMarshaller(Marshaller marshaller) {
+        if (marshaller != null) {
+            MARSHALLERS.offer(marshaller);
+        }
+    }
+
+    /**
+     * Borrow an {@link Unmarshaller} from the pool, creating a new one if none are available.
+     *
+     * @return an {@link Unmarshaller} that must be returned with {@link #releaseUnmarshaller(Unmarshaller)}.
+     * @throws JAXBException if a new Unmarshaller could not be created.
+     */
+    static Unmarshaller borrowUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.poll();
+
+        return unmarshaller != null ? unmarshaller : JaxbUtil.getContext().createUnmarshaller();
+    }
+
+    /**
+     * Return an {@link Unmarshaller} obtained from {@link #borrowUnmarshaller()} to the pool.
+     *
+     * @param unmarshaller the {@link Unmarshaller} to return.
+     */
+    static void releaseUnmarshaller(Unmarshaller unmarshaller) {
+        if (unmarshaller != null) {
+            UNMARSHALLERS.offer(unmarshaller);
+        }
+    }
+
+}
@@ -0,0 +1,346 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.IdentifierPool;
+import com.digitalpetri.opcua.nodeset.util.ReadOnlyListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.UaSerializationException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.opcfoundation.ua.generated.DataTypeDefinition;
+
+/**
+ * A {@link UaNodeSet} backed by a memory-mapped snapshot file.
+ * <p>
+ * Opening the snapshot scans it once to build an index from NodeId to the offset of each node, reference and raw XML
+ * value record. Only the index, the namespace table, the aliases and the DataTypeDefinitions are held on the heap;
+ * {@link NodeAttributes}, {@link Reference}s and raw XML values are decoded from the mapped file each time they are
+ * accessed and are not retained, so heap use follows the working set of the caller. The mapped pages live in the OS
+ * page cache and are shared by every process that maps the same file.
+ * <p>
+ * {@link #unmap(UaNodeSet)} releases the mapping: later accesses fail, and the pages are unmapped once the last
+ * access in progress completes and the buffer is garbage collected.
+ *
+ * @see UaNodeSetSnapshot#map(Path)
+ */
+final class MappedSnapshot {
+
+    /**
+     * The mapped file, or {@code null} once it has been released.
+     */
+    private volatile ByteBuf buffer;
+
+    private final NamespaceTable namespaceTable;
+    private final Map<String, NodeId> aliasTable;
+    private final Map<NodeId, DataTypeDefinition> dataTypeDefinitions;
+
+    private final Map<NodeId, Integer> nodeOffsets;
+    private final Map<NodeId, ReferenceRecord> referenceRecords;
+    private final Map<NodeId, Integer> rawXmlValueOffsets;
+
+    private MappedSnapshot(ByteBuf buffer) throws IOException {
+        this.buffer = buffer;
+
+        // identifiers are only interned while building the index, where the keys are retained
+        UaNodeSetSnapshot.Decoder decoder = new UaNodeSetSnapshot.Decoder(buffer.duplicate(), new IdentifierPool());
+        ByteBuf in = decoder.getBuffer();
+
+        decoder.readHeader();
+
+        namespaceTable = decoder.readNamespaceTable();
+        aliasTable = decoder.readAliasTable();
+
+        int nodeCount = in.readIntLE();
+        nodeOffsets = Maps.newHashMapWithExpectedSize(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            int length = in.readIntLE();
+            int offset = in.readerIndex();
+
+            in.skipBytes(4); // NodeClass
+            nodeOffsets.put(decoder.readNodeId(), offset);
+
+            in.readerIndex(offset + length);
+        }
+
+        int sourceCount = in.readIntLE();
+        referenceRecords = Maps.newHashMapWithExpectedSize(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            int length = in.readIntLE();
+            int offset = in.readerIndex();
+
+            NodeId sourceNodeId = decoder.readNodeId();
+            int explicitCount = in.readIntLE();
+            int implicitCount = in.readIntLE();
+            referenceRecords.put(sourceNodeId, new ReferenceRecord(offset, explicitCount, implicitCount));
+
+            in.readerIndex(offset + length);
+        }
+
+        dataTypeDefinitions = decoder.readDataTypeDefinitions();
+
+        int rawXmlValueCount = in.readIntLE();
+        rawXmlValueOffsets = Maps.newHashMapWithExpectedSize(rawXmlValueCount);
+        for (int i = 0; i < rawXmlValueCount; i++) {
+            NodeId nodeId = decoder.readNodeId();
+            int offset = in.readerIndex();
+
+            int length = in.readIntLE();
+            if (length > 0) in.skipBytes(length);
+
+            rawXmlValueOffsets.put(nodeId, offset);
+        }
+    }
+
+    /**
+     * Map the snapshot file at {@code path} and build a {@link UaNodeSet} over it.
+     *
+     * @param path the snapshot file.
+     * @return a {@link UaNodeSet} backed by the mapped file.
+     * @throws IOException if the file can't be mapped or doesn't contain a snapshot of the current version.
+     */
+    static UaNodeSet map(Path path) throws IOException {
+        MappedByteBuffer mapped;
+
+        // the mapping remains valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("snapshot too large to map: " + size + " bytes");
+            }
+
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        try {
+            return new MappedSnapshot(Unpooled.wrappedBuffer(mapped)).new MappedNodeSet();
+        } catch (UaSerializationException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("corrupt snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Release the mapping of {@code nodeSet}, a node set returned by {@link #map(Path)}.
+     * <p>
+     * Afterwards decoding nodes, references or raw XML values of {@code nodeSet} throws
+     * {@link IllegalStateException}; keys, sizes, aliases and DataTypeDefinitions are still available.
+     *
+     * @param nodeSet the mapped {@link UaNodeSet}.
+     * @throws IllegalArgumentException if {@code nodeSet} isn't backed by a mapped snapshot.
+     */
+    static void unmap(UaNodeSet nodeSet) {
+        if (!(nodeSet instanceof MappedNodeSet)) {
+            throw new IllegalArgumentException("not a mapped snapshot");
+        }
+
+        ((MappedNodeSet) nodeSet).getSnapshot().buffer = null;
+    }
+
+    /**
+     * @return a {@link UaNodeSetSnapshot.Decoder} positioned at {@code offset}; decoders are cheap and not
+     * thread-safe, so each access gets its own.
+     * @throws IllegalStateException if the snapshot has been unmapped.
+     */
+    private UaNodeSetSnapshot.Decoder decoder(int offset) {
+        ByteBuf buffer = this.buffer;
+
+        if (buffer == null) {
+            throw new IllegalStateException("snapshot has been unmapped");
+        }
+
+        return new UaNodeSetSnapshot.Decoder(buffer.duplicate().readerIndex(offset), null);
+    }
+
+    /**
+     * The {@link UaNodeSet} over a {@link MappedSnapshot}, so it can be found again to be unmapped.
+     */
+    private final class MappedNodeSet extends UaNodeSet {
+
+        MappedNodeSet() {
+            super(
+                new RecordMap<>(nodeOffsets, offset -> decoder(offset).readNode()),
+                new ReferenceView(true, false),
+                new ReferenceView(false, true),
+                new ReferenceView(true, true),
+                namespaceTable,
+                aliasTable,
+                dataTypeDefinitions,
+                new RecordMap<>(rawXmlValueOffsets, offset -> decoder(offset).readString())
+            );
+        }
+
+        MappedSnapshot getSnapshot() {
+            return MappedSnapshot.this;
+        }
+
+    }
+
+    private static final class ReferenceRecord {
+
+        final int offset;
+        final int explicitCount;
+        final int implicitCount;
+
+        ReferenceRecord(int offset, int explicitCount, int implicitCount) {
+            this.offset = offset;
+            this.explicitCount = explicitCount;
+            this.implicitCount = implicitCount;
+        }
+
+    }
+
+    /**
+     * A read-only {@link Map} whose values are decoded from the record at each key's offset on access.
+     */
+    private static final class RecordMap<V> extends AbstractMap<NodeId, V> {
+
+        private final Map<NodeId, Integer> offsets;
+        private final IntFunction<V> decode;
+
+        private final Set<Entry<NodeId, V>> entrySet = new AbstractSet<Entry<NodeId, V>>() {
+            @Override
+            public Iterator<Entry<NodeId, V>> iterator() {
+                return Iterators.transform(
+                    offsets.entrySet().iterator(),
+                    e -> Maps.immutableEntry(e.getKey(), decode.apply(e.getValue()))
+                );
+            }
+
+            @Override
+            public int size() {
+                return offsets.size();
+            }
+        };
+
+        RecordMap(Map<NodeId, Integer> offsets, IntFunction<V> decode) {
+            this.offsets = offsets;
+            this.decode = decode;
+        }
+
+        @Override
+        public V get(Object key) {
+            Integer offset = offsets.get(key);
+
+            return offset != null ? decode.apply(offset) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return offsets.containsKey(key);
+        }
+
+        @Override
+        public Set<NodeId> keySet() {
+            return Collections.unmodifiableSet(offsets.keySet());
+        }
+
+        @Override
+        public int size() {
+            return offsets.size();
+        }
+
+        @Override
+        public Set<Entry<NodeId, V>> entrySet() {
+            return entrySet;
+        }
+
+    }
+
+    /**
+     * A read-only {@link ListMultimap} of the explicit, implicit or combined references, decoded on access.
+     */
+    private final class ReferenceView extends ReadOnlyListMultimap<NodeId, Reference> {
+
+        private final boolean includeExplicit;
+        private final boolean includeImplicit;
+
+        private final Set<NodeId> keySet;
+        private final int size;
+
+        ReferenceView(boolean includeExplicit, boolean includeImplicit) {
+            this.includeExplicit = includeExplicit;
+            this.includeImplicit = includeImplicit;
+
+            int size = 0;
+            boolean allSources = true;
+            for (ReferenceRecord record : referenceRecords.values()) {
+                int count = count(record);
+                size += count;
+                allSources &= count > 0;
+            }
+            this.size = size;
+
+            // the key set is computed once so its size is constant time; the combined view has every source
+            if (allSources) {
+                keySet = Collections.unmodifiableSet(referenceRecords.keySet());
+            } else {
+                keySet = ImmutableSet.copyOf(
+                    Sets.filter(referenceRecords.keySet(), k -> count(referenceRecords.get(k)) > 0)
+                );
+            }
+        }
+
+        private int count(ReferenceRecord record) {
+            return (includeExplicit ? record.explicitCount : 0) + (includeImplicit ? record.implicitCount : 0);
+        }
+
+        @Override
+        public Set<NodeId> keySet() {
+            return keySet;
+        }
+
+        @Override
+        protected List<Reference> getValues(Object key) {
+            ReferenceRecord record = referenceRecords.get(key);
+
+            if (record == null || count(record) == 0) {
+                return Collections.emptyList();
+            }
+
+            UaNodeSetSnapshot.Decoder decoder = decoder(record.offset);
+            NodeId sourceNodeId = decoder.readNodeId();
+            decoder.getBuffer().skipBytes(8); // explicit and implicit counts
+
+            // implicit references follow the explicit ones, which have to be decoded to be skipped
+            List<Reference> explicit = decoder.readReferences(sourceNodeId, record.explicitCount);
+            if (!includeImplicit) {
+                return Collections.unmodifiableList(explicit);
+            }
+
+            List<Reference> implicit = decoder.readReferences(sourceNodeId, record.implicitCount);
+            if (!includeExplicit) {
+                return Collections.unmodifiableList(implicit);
+            }
+
+            explicit.addAll(implicit);
+            return Collections.unmodifiableList(explicit);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+}
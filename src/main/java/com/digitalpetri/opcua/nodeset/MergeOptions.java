@@ -0,0 +1,159 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.concurrent.Executor;
+
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+
+/**
+ * Options that control how {@link UaNodeSet}s are merged.
+ *
+ * @see UaNodeSetMerger#mergeAll(java.util.List, MergeOptions)
+ */
+public final class MergeOptions {
+
+    /**
+     * The options used by {@link UaNodeSetMerger#mergeAll(java.util.List)}.
+     */
+    public static final MergeOptions DEFAULT = builder().build();
+
+    private final Executor executor;
+    private final int chunkSize;
+    private final StructReindexers structReindexers;
+    private final NodeSetListener listener;
+    private final boolean shareFirstNodeSet;
+
+    private MergeOptions(Builder builder) {
+        this.executor = builder.executor;
+        this.chunkSize = builder.chunkSize;
+        this.structReindexers = builder.structReindexers != null ?
+            builder.structReindexers : StructReindexers.createDefault();
+        this.listener = builder.listener;
+        this.shareFirstNodeSet = builder.shareFirstNodeSet;
+    }
+
+    /**
+     * @return the {@link Executor} node sets are re-indexed on, or {@code null} if they are re-indexed on the calling
+     * thread.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of elements re-indexed per task when an {@link Executor} is configured.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the {@link StructReindexers} ExtensionObject values are re-indexed with.
+     */
+    public StructReindexers getStructReindexers() {
+        return structReindexers;
+    }
+
+    /**
+     * @return the {@link NodeSetListener} merging is reported to.
+     */
+    public NodeSetListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return {@code true} if the collections of the first node set are shared with the merge result rather than
+     * copied.
+     */
+    public boolean isShareFirstNodeSet() {
+        return shareFirstNodeSet;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private Executor executor = null;
+        private int chunkSize = 4096;
+        private StructReindexers structReindexers = null;
+        private NodeSetListener listener = NodeSetListener.NONE;
+        private boolean shareFirstNodeSet = false;
+
+        private Builder() {}
+
+        /**
+         * Re-index node sets in parallel on {@code executor}, e.g. {@link java.util.concurrent.ForkJoinPool}.
+         * <p>
+         * Nodes, explicit references, implicit references, DataTypeDefinitions and raw XML values are re-indexed as
+         * independent phases, each split into chunks of {@link #setChunkSize(int)} elements. The results are added to
+         * the merged node set in the same order as a sequential merge.
+         *
+         * @param executor the {@link Executor} to re-index on, or {@code null} to re-index on the calling thread.
+         * @return this {@link Builder}.
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param chunkSize the number of elements re-indexed per task when an {@link Executor} is configured.
+         * @return this {@link Builder}.
+         */
+        public Builder setChunkSize(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("chunkSize: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param structReindexers the {@link StructReindexers} to re-index ExtensionObject values with, or
+         *                         {@code null} for {@link StructReindexers#createDefault()}. Registries are immutable,
+         *                         so the options can be shared.
+         * @return this {@link Builder}.
+         */
+        public Builder setStructReindexers(StructReindexers structReindexers) {
+            this.structReindexers = structReindexers;
+            return this;
+        }
+
+        /**
+         * Report the duration of re-indexing to {@code listener}, e.g. a
+         * {@link com.digitalpetri.opcua.nodeset.util.NodeSetMetrics}.
+         *
+         * @param listener the {@link NodeSetListener} to report to, or {@code null} for none.
+         * @return this {@link Builder}.
+         */
+        public Builder setListener(NodeSetListener listener) {
+            this.listener = listener != null ? listener : NodeSetListener.NONE;
+            return this;
+        }
+
+        /**
+         * Share the collections of the first node set with the merge result instead of copying them, when its
+         * namespace indices are unchanged in the merged namespace table.
+         * <p>
+         * This lets many variants be merged cheaply on top of one parsed base node set, e.g. the Core node set. The
+         * shared node set is frozen: its collections become read-only, so it can't change underneath its merge
+         * results. A merge result built this way is a view over it; merging on top of such a result again shares the
+         * same frozen node set rather than nesting views. Applying changes to such a result copies the shared
+         * collections first.
+         *
+         * @param shareFirstNodeSet {@code true} to share the first node set rather than copy it.
+         * @return this {@link Builder}.
+         */
+        public Builder setShareFirstNodeSet(boolean shareFirstNodeSet) {
+            this.shareFirstNodeSet = shareFirstNodeSet;
+            return this;
+        }
+
+        public MergeOptions build() {
+            return new MergeOptions(this);
+        }
+
+    }
+
+}
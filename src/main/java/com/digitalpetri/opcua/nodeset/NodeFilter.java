@@ -0,0 +1,123 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.IdType;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+
+/**
+ * Selects the nodes of a UANodeSet document that are parsed.
+ * <p>
+ * A filter is applied to each node element before anything else is done with it: rejected nodes have no attributes
+ * or values decoded and no references added, and {@link UaNodeSet#parseStreaming(java.io.InputStream, ParseOptions)}
+ * skips them without unmarshalling them at all. References from accepted nodes to rejected nodes are handled as set
+ * by {@link ParseOptions.Builder#setDanglingReferences(ParseOptions.DanglingReferences)}.
+ * <p>
+ * Filters are called on the parsing thread, once per node element. Node elements whose NodeId can't be resolved are
+ * rejected without calling the filter.
+ *
+ * @see ParseOptions.Builder#setNodeFilter(NodeFilter)
+ */
+@FunctionalInterface
+public interface NodeFilter {
+
+    /**
+     * @param nodeId         the {@link NodeId} of the node, with its namespace index in {@code namespaceTable}.
+     * @param nodeClass      the {@link NodeClass} of the node.
+     * @param namespaceTable the namespace table of the document being parsed.
+     * @return {@code true} if the node should be parsed.
+     */
+    boolean accept(NodeId nodeId, NodeClass nodeClass, NamespaceTable namespaceTable);
+
+    /**
+     * @param other another {@link NodeFilter}.
+     * @return a {@link NodeFilter} that accepts nodes accepted by both this filter and {@code other}.
+     */
+    default NodeFilter and(NodeFilter other) {
+        return (nodeId, nodeClass, namespaceTable) ->
+            accept(nodeId, nodeClass, namespaceTable) && other.accept(nodeId, nodeClass, namespaceTable);
+    }
+
+    /**
+     * @param other another {@link NodeFilter}.
+     * @return a {@link NodeFilter} that accepts nodes accepted by either this filter or {@code other}.
+     */
+    default NodeFilter or(NodeFilter other) {
+        return (nodeId, nodeClass, namespaceTable) ->
+            accept(nodeId, nodeClass, namespaceTable) || other.accept(nodeId, nodeClass, namespaceTable);
+    }
+
+    /**
+     * @return a {@link NodeFilter} that accepts the nodes this filter rejects.
+     */
+    default NodeFilter negate() {
+        return (nodeId, nodeClass, namespaceTable) -> !accept(nodeId, nodeClass, namespaceTable);
+    }
+
+    /**
+     * Accept nodes of the given classes.
+     * <p>
+     * Note that the instance declarations of a type, e.g. the Properties of an ObjectType, are Variable, Object and
+     * Method nodes; a filter that only accepts type node classes removes them too.
+     *
+     * @param nodeClasses the {@link NodeClass}es to accept.
+     * @return a {@link NodeFilter} accepting nodes of {@code nodeClasses}.
+     */
+    static NodeFilter nodeClasses(NodeClass... nodeClasses) {
+        Set<NodeClass> accepted = EnumSet.noneOf(NodeClass.class);
+        accepted.addAll(Arrays.asList(nodeClasses));
+
+        return (nodeId, nodeClass, namespaceTable) -> accepted.contains(nodeClass);
+    }
+
+    /**
+     * Accept nodes in the given namespaces.
+     *
+     * @param namespaceUris the URIs of the namespaces to accept.
+     * @return a {@link NodeFilter} accepting nodes whose namespace is one of {@code namespaceUris}.
+     */
+    static NodeFilter namespaces(String... namespaceUris) {
+        return (nodeId, nodeClass, namespaceTable) -> {
+            for (String namespaceUri : namespaceUris) {
+                UShort namespaceIndex = namespaceTable.getIndex(namespaceUri);
+
+                if (nodeId.getNamespaceIndex().equals(namespaceIndex)) {
+                    return true;
+                }
+            }
+
+            return false;
+        };
+    }
+
+    /**
+     * Accept nodes with a numeric identifier between {@code first} and {@code last}, inclusive, in the given
+     * namespace.
+     *
+     * @param namespaceUri the URI of the namespace.
+     * @param first        the first identifier accepted.
+     * @param last         the last identifier accepted.
+     * @return a {@link NodeFilter} accepting nodes in the identifier range.
+     */
+    static NodeFilter numericRange(String namespaceUri, long first, long last) {
+        if (first > last) {
+            throw new IllegalArgumentException("first > last: " + first + " > " + last);
+        }
+
+        return (nodeId, nodeClass, namespaceTable) -> {
+            if (nodeId.getType() != IdType.Numeric) return false;
+            if (!nodeId.getNamespaceIndex().equals(namespaceTable.getIndex(namespaceUri))) return false;
+
+            long identifier = ((UInteger) nodeId.getIdentifier()).longValue();
+
+            return identifier >= first && identifier <= last;
+        };
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.concurrent.Executor;
+
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+
+/**
+ * Options that control how a UANodeSet document is parsed into a {@link UaNodeSet}.
+ *
+ * @see UaNodeSet#parse(java.io.InputStream, ParseOptions)
+ * @see UaNodeSet#parseStreaming(java.io.InputStream, ParseOptions)
+ */
+public final class ParseOptions {
+
+    /**
+     * The options used by {@link UaNodeSet#parse(java.io.InputStream)}.
+     */
+    public static final ParseOptions DEFAULT = builder().build();
+
+    private final boolean lazyValues;
+    private final Executor executor;
+    private final int chunkSize;
+    private final boolean compactReferences;
+    private final NodeSetListener listener;
+    private final NodeFilter nodeFilter;
+    private final DanglingReferences danglingReferences;
+
+    private ParseOptions(Builder builder) {
+        this.lazyValues = builder.lazyValues;
+        this.executor = builder.executor;
+        this.chunkSize = builder.chunkSize;
+        this.compactReferences = builder.compactReferences;
+        this.listener = builder.listener;
+        this.nodeFilter = builder.nodeFilter;
+        this.danglingReferences = builder.danglingReferences;
+    }
+
+    /**
+     * @return {@code true} if Variable and VariableType values are kept in their undecoded XML form until first
+     * accessed.
+     */
+    public boolean isLazyValues() {
+        return lazyValues;
+    }
+
+    /**
+     * @return the {@link Executor} node elements are converted on, or {@code null} if they are converted on the
+     * calling thread.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of node elements converted per task when an {@link Executor} is configured.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return {@code true} if the parsed references are held in a
+     * {@link com.digitalpetri.opcua.nodeset.util.CompactReferenceStore}.
+     */
+    public boolean isCompactReferences() {
+        return compactReferences;
+    }
+
+    /**
+     * @return the {@link NodeSetListener} parsing is reported to.
+     */
+    public NodeSetListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return the {@link NodeFilter} selecting the nodes that are parsed, or {@code null} if all nodes are parsed.
+     */
+    public NodeFilter getNodeFilter() {
+        return nodeFilter;
+    }
+
+    /**
+     * @return what is done with references to nodes rejected by the {@link NodeFilter}.
+     */
+    public DanglingReferences getDanglingReferences() {
+        return danglingReferences;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private boolean lazyValues = false;
+        private Executor executor = null;
+        private int chunkSize = 1024;
+        private boolean compactReferences = false;
+        private NodeSetListener listener = NodeSetListener.NONE;
+        private NodeFilter nodeFilter = null;
+        private DanglingReferences danglingReferences = DanglingReferences.DROP;
+
+        private Builder() {}
+
+        /**
+         * Keep Variable and VariableType values in their undecoded XML form and decode them into a
+         * {@link org.eclipse.milo.opcua.stack.core.types.builtin.DataValue} the first time they are accessed.
+         * <p>
+         * Values that fail to decode are only detected, and logged, on first access. The raw XML of a lazy value is
+         * resolved by decoding it, so that, as with eagerly decoded values, only values that decode have an entry in
+         * {@link UaNodeSet#getRawXmlValues()}.
+         *
+         * @param lazyValues {@code true} to decode values lazily.
+         * @return this {@link Builder}.
+         */
+        public Builder setLazyValues(boolean lazyValues) {
+            this.lazyValues = lazyValues;
+            return this;
+        }
+
+        /**
+         * Convert node elements in parallel on {@code executor}, e.g. {@link java.util.concurrent.ForkJoinPool}.
+         * <p>
+         * The nodes are split into chunks of {@link #setChunkSize(int)} elements; each chunk is converted into its own
+         * maps and multimaps by a separate task, and the results are combined in document order.
+         *
+         * @param executor the {@link Executor} to convert nodes on, or {@code null} to convert them on the calling
+         *                 thread.
+         * @return this {@link Builder}.
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param chunkSize the number of node elements converted per task when an {@link Executor} is configured.
+         * @return this {@link Builder}.
+         */
+        public Builder setChunkSize(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("chunkSize: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Hold the parsed references in a {@link com.digitalpetri.opcua.nodeset.util.CompactReferenceStore} rather
+         * than in {@link com.google.common.collect.ArrayListMultimap}s.
+         * <p>
+         * The reference multimaps of the resulting {@link UaNodeSet} are read-only.
+         *
+         * @param compactReferences {@code true} to hold references in a compact store.
+         * @return this {@link Builder}.
+         * @see UaNodeSet#compact()
+         */
+        public Builder setCompactReferences(boolean compactReferences) {
+            this.compactReferences = compactReferences;
+            return this;
+        }
+
+        /**
+         * Report phase durations, node counts and value decoding to {@code listener}, e.g. a
+         * {@link com.digitalpetri.opcua.nodeset.util.NodeSetMetrics}.
+         *
+         * @param listener the {@link NodeSetListener} to report to, or {@code null} for none.
+         * @return this {@link Builder}.
+         */
+        public Builder setListener(NodeSetListener listener) {
+            this.listener = listener != null ? listener : NodeSetListener.NONE;
+            return this;
+        }
+
+        /**
+         * Only parse the nodes accepted by {@code nodeFilter}.
+         *
+         * @param nodeFilter the {@link NodeFilter} selecting the nodes to parse, or {@code null} to parse all nodes.
+         * @return this {@link Builder}.
+         * @see NodeFilter
+         */
+        public Builder setNodeFilter(NodeFilter nodeFilter) {
+            this.nodeFilter = nodeFilter;
+            return this;
+        }
+
+        /**
+         * @param danglingReferences what to do with references to nodes rejected by the {@link NodeFilter}.
+         *                           Defaults to {@link DanglingReferences#DROP}.
+         * @return this {@link Builder}.
+         */
+        public Builder setDanglingReferences(DanglingReferences danglingReferences) {
+            this.danglingReferences = danglingReferences;
+            return this;
+        }
+
+        public ParseOptions build() {
+            return new ParseOptions(this);
+        }
+
+    }
+
+    /**
+     * What to do with references between accepted nodes and nodes of the same document rejected by a
+     * {@link NodeFilter}. References to nodes defined by other documents are always kept.
+     */
+    public enum DanglingReferences {
+
+        /**
+         * Keep references from accepted nodes to rejected nodes, e.g. so they can be resolved against a node set
+         * that defines the rejected nodes.
+         */
+        KEEP,
+
+        /**
+         * Drop references to rejected nodes, along with the inverse references derived from them.
+         */
+        DROP
+
+    }
+
+}
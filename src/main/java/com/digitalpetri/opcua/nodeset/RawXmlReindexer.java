@@ -0,0 +1,202 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * Re-indexes the raw XML of a UAVariable or UAVariableType value without decoding it.
+ * <p>
+ * The XML is streamed once and the {@code ns=} prefix of the {@code <Identifier>} of every {@code <NodeId>},
+ * {@code <ExpandedNodeId>} and {@code <TypeId>} element, and the {@code <NamespaceIndex>} of every
+ * {@code <QualifiedName>} element, is translated; everything else is copied through. ExpandedNodeIds that identify
+ * their namespace by URI ({@code nsu=}) are left as-is.
+ * <p>
+ * NodeId fields of structures are elements named after the field rather than the type, so only the NodeId fields of
+ * known built-in structures are translated, e.g. the DataType of an Argument.
+ */
+final class RawXmlReindexer {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final XMLEventFactory XML_EVENT_FACTORY = XMLEventFactory.newFactory();
+
+    /**
+     * The NodeId fields of built-in structures that appear in values, as {@code Structure/Field}.
+     */
+    private static final Set<String> NODE_ID_FIELDS = ImmutableSet.of(
+        "Argument/DataType",
+        "StructureField/DataType",
+        "StructureDefinition/DefaultEncodingId",
+        "StructureDefinition/BaseDataType",
+        "RolePermissionType/RoleId"
+    );
+
+    private RawXmlReindexer() {}
+
+    /**
+     * Re-index the namespace indices in {@code xml}.
+     *
+     * @param xml         the raw XML value.
+     * @param translation the {@link NamespaceTranslation} from the node set {@code xml} came from.
+     * @return the re-indexed XML, or {@code xml} if it contains nothing that could change.
+     * @throws XMLStreamException if {@code xml} is not well-formed.
+     */
+    static String reindex(String xml, NamespaceTranslation translation) throws XMLStreamException {
+        if (translation.isIdentity() || (!xml.contains("ns=") && !xml.contains("NamespaceIndex"))) {
+            return xml;
+        }
+
+        StringWriter sw = new StringWriter(xml.length());
+
+        XMLEventReader reader = XML_INPUT_FACTORY.createXMLEventReader(new StringReader(xml));
+        XMLEventWriter writer = XML_OUTPUT_FACTORY.createXMLEventWriter(sw);
+
+        try {
+            // local names of the enclosing elements, innermost first
+            Deque<String> elements = new ArrayDeque<>();
+            boolean declaration = xml.startsWith("<?xml");
+
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+
+                switch (event.getEventType()) {
+                    case XMLEvent.START_DOCUMENT:
+                    case XMLEvent.END_DOCUMENT:
+                        if (declaration) writer.add(event);
+                        break;
+
+                    case XMLEvent.START_ELEMENT:
+                        elements.push(event.asStartElement().getName().getLocalPart());
+                        writer.add(event);
+                        break;
+
+                    case XMLEvent.END_ELEMENT:
+                        elements.pop();
+                        writer.add(event);
+                        break;
+
+                    case XMLEvent.CHARACTERS:
+                        String text = event.asCharacters().getData();
+                        String newText = reindexText(elements, text, translation);
+
+                        writer.add(newText == text ? event : XML_EVENT_FACTORY.createCharacters(newText));
+                        break;
+
+                    default:
+                        writer.add(event);
+                        break;
+                }
+            }
+
+            writer.flush();
+        } finally {
+            reader.close();
+            writer.close();
+        }
+
+        return sw.toString();
+    }
+
+    private static String reindexText(Deque<String> elements, String text, NamespaceTranslation translation) {
+        if (elements.size() < 2) return text;
+
+        Iterator<String> enclosing = elements.iterator();
+        String element = enclosing.next();
+        String parent = enclosing.next();
+
+        if ("Identifier".equals(element)) {
+            if ("NodeId".equals(parent) || "ExpandedNodeId".equals(parent) || "TypeId".equals(parent)) {
+                return reindexNodeId(text, translation);
+            } else if (enclosing.hasNext() && NODE_ID_FIELDS.contains(enclosing.next() + "/" + parent)) {
+                return reindexNodeId(text, translation);
+            }
+        } else if ("NamespaceIndex".equals(element) && "QualifiedName".equals(parent)) {
+            return reindexNamespaceIndex(text, translation);
+        }
+
+        return text;
+    }
+
+    /**
+     * Translate the {@code ns=} prefix of a NodeId or ExpandedNodeId string, which may be preceded by a {@code svr=}
+     * prefix.
+     */
+    static String reindexNodeId(String text, NamespaceTranslation translation) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) start++;
+
+        if (text.startsWith("svr=", start)) {
+            start = text.indexOf(';', start) + 1;
+            if (start == 0) return text;
+        }
+
+        if (!text.startsWith("ns=", start)) {
+            // namespace 0 or a namespace URI; neither is translated
+            return text;
+        }
+
+        int indexStart = start + 3;
+        int indexEnd = text.indexOf(';', indexStart);
+        if (indexEnd < 0) return text;
+
+        String newIndex = translate(text.substring(indexStart, indexEnd), translation);
+
+        if (newIndex == null) {
+            return text;
+        } else {
+            return text.substring(0, indexStart) + newIndex + text.substring(indexEnd);
+        }
+    }
+
+    static String reindexNamespaceIndex(String text, NamespaceTranslation translation) {
+        String trimmed = text.trim();
+        String newIndex = translate(trimmed, translation);
+
+        return newIndex == null ? text : text.replace(trimmed, newIndex);
+    }
+
+    /**
+     * @return the translated index, or {@code null} if {@code index} is not a namespace index or didn't change.
+     */
+    private static String translate(String index, NamespaceTranslation translation) {
+        UShort namespaceIndex;
+        try {
+            namespaceIndex = ushort(Integer.parseInt(index));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        UShort newNamespaceIndex = translation.translate(namespaceIndex);
+
+        if (newNamespaceIndex.intValue() == namespaceIndex.intValue()) {
+            return null;
+        } else {
+            return String.valueOf(newNamespaceIndex.intValue());
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = UaNodeSetStreamParser.createXmlInputFactory();
+        // deliver each text node as a single event so identifiers are never split
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.digitalpetri.opcua.nodeset;
+
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+
+/**
+ * Re-indexes the NodeId, ExpandedNodeId and QualifiedName fields of a structure decoded from a Variable or
+ * VariableType value while merging.
+ *
+ * @param <T> the structure type.
+ * @see StructReindexers
+ */
+@FunctionalInterface
+public interface StructReindexer<T extends UaStructure> {
+
+    /**
+     * @param struct      the decoded structure.
+     * @param translation the {@link NamespaceTranslation} from the node set {@code struct} came from to the merged
+     *                    node set.
+     * @return a copy of {@code struct} with its namespace indices translated, or {@code struct} if none change.
+     */
+    T reindex(T struct, NamespaceTranslation translation);
+
+}
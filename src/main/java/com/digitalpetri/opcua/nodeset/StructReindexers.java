@@ -0,0 +1,273 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.SerializationContext;
+import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+import org.eclipse.milo.opcua.stack.core.types.DataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable registry of {@link StructReindexer}s by encoding id, used to re-index ExtensionObject values while
+ * merging.
+ * <p>
+ * Only ExtensionObjects whose encoding id has a registered {@link StructReindexer} are decoded; all others keep their
+ * body as-is and only have their encoding id re-indexed.
+ * <p>
+ * Registries are created with a {@link Builder}, so one can be shared by concurrent merges; use
+ * {@link #toBuilder()} to extend an existing registry, e.g. {@link #createDefault()}.
+ *
+ * @see MergeOptions.Builder#setStructReindexers(StructReindexers)
+ */
+public final class StructReindexers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StructReindexers.class);
+
+    private static final String OPC_UA_NAMESPACE = "http://opcfoundation.org/UA/";
+
+    /**
+     * A default {@link SerializationContext} that can be used to decode OPC UA built-in types.
+     */
+    private static final SerializationContext SERIALIZATION_CONTEXT = new SerializationContext() {
+
+        private final NamespaceTable namespaceTable = new NamespaceTable();
+
+        @Override
+        public EncodingLimits getEncodingLimits() {
+            return EncodingLimits.DEFAULT;
+        }
+
+        @Override
+        public NamespaceTable getNamespaceTable() {
+            return namespaceTable;
+        }
+
+        @Override
+        public DataTypeManager getDataTypeManager() {
+            return OpcUaDataTypeManager.getInstance();
+        }
+
+    };
+
+    private static final StructReindexers DEFAULT = builder()
+        .register(Identifiers.Argument_Encoding_DefaultBinary.expanded(), Argument.class,
+            StructReindexers::reindexArgument)
+        .register(Identifiers.Argument_Encoding_DefaultXml.expanded(), Argument.class,
+            StructReindexers::reindexArgument)
+        .build();
+
+    private final ImmutableMap<EncodingKey, Registration<?>> registrations;
+
+    private final SerializationContext serializationContext;
+
+    private StructReindexers(Builder builder) {
+        this.registrations = ImmutableMap.copyOf(builder.registrations);
+        this.serializationContext = builder.serializationContext;
+    }
+
+    /**
+     * Get the registry with reindexers for the OPC UA built-in structures that have NodeId fields, i.e.
+     * {@link Argument}.
+     *
+     * @return the shared registry with the default reindexers registered.
+     */
+    public static StructReindexers createDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return a new {@link Builder} with no reindexers, decoding with a {@link SerializationContext} for the OPC UA
+     * built-in types.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a new {@link Builder} with this registry's reindexers and {@link SerializationContext}; registering on
+     * it does not change this registry.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.registrations.putAll(registrations);
+        builder.serializationContext = serializationContext;
+        return builder;
+    }
+
+    /**
+     * Re-index the encoding id of {@code xo} and, if a {@link StructReindexer} is registered for it, its body.
+     *
+     * @param xo          the {@link ExtensionObject} to re-index.
+     * @param translation the {@link NamespaceTranslation} from the node set {@code xo} came from.
+     * @return the re-indexed {@link ExtensionObject}, or {@code xo} if nothing changed.
+     */
+    ExtensionObject reindex(ExtensionObject xo, NamespaceTranslation translation) {
+        NodeId encodingId = xo.getEncodingId();
+        NodeId newEncodingId = translation.translate(encodingId);
+
+        if (newEncodingId != encodingId) {
+            if (xo.getBodyType() == ExtensionObject.BodyType.ByteString) {
+                xo = new ExtensionObject((ByteString) xo.getBody(), newEncodingId);
+            } else if (xo.getBodyType() == ExtensionObject.BodyType.XmlElement) {
+                xo = new ExtensionObject((XmlElement) xo.getBody(), newEncodingId);
+            }
+        }
+
+        Registration<?> registration = registrations.get(new EncodingKey(
+            translation.getOriginalNamespaceUri(encodingId.getNamespaceIndex()),
+            encodingId.getIdentifier()
+        ));
+
+        return registration != null ? registration.reindex(xo, translation, serializationContext) : xo;
+    }
+
+    private static Argument reindexArgument(Argument argument, NamespaceTranslation translation) {
+        NodeId dataType = argument.getDataType();
+        NodeId newDataType = translation.translate(dataType);
+
+        if (newDataType == dataType) {
+            return argument;
+        } else {
+            return new Argument(
+                argument.getName(),
+                newDataType,
+                argument.getValueRank(),
+                argument.getArrayDimensions(),
+                argument.getDescription()
+            );
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<EncodingKey, Registration<?>> registrations = new LinkedHashMap<>();
+        private SerializationContext serializationContext = SERIALIZATION_CONTEXT;
+
+        private Builder() {}
+
+        /**
+         * Structures are decoded after their encoding id has been re-indexed, so {@code serializationContext} must be
+         * able to decode them by their encoding ids in the merged node set.
+         *
+         * @param serializationContext the {@link SerializationContext} to decode and encode structures with.
+         * @return this {@link Builder}.
+         */
+        public Builder setSerializationContext(SerializationContext serializationContext) {
+            this.serializationContext = serializationContext != null ? serializationContext : SERIALIZATION_CONTEXT;
+            return this;
+        }
+
+        /**
+         * Register {@code reindexer} for structures encoded with {@code encodingId}, replacing any reindexer already
+         * registered for it.
+         *
+         * @param encodingId the encoding id; either absolute or in namespace 0.
+         * @param type       the type structures with this encoding decode to.
+         * @param reindexer  the {@link StructReindexer} to re-index decoded structures with.
+         * @return this {@link Builder}.
+         */
+        public <T extends UaStructure> Builder register(
+            ExpandedNodeId encodingId,
+            Class<T> type,
+            StructReindexer<T> reindexer
+        ) {
+
+            String namespaceUri;
+            if (encodingId.isAbsolute()) {
+                namespaceUri = encodingId.getNamespaceUri();
+            } else if (encodingId.getNamespaceIndex().intValue() == 0) {
+                namespaceUri = OPC_UA_NAMESPACE;
+            } else {
+                throw new IllegalArgumentException("encodingId must be absolute or in namespace 0: " + encodingId);
+            }
+
+            registrations.put(
+                new EncodingKey(namespaceUri, encodingId.getIdentifier()),
+                new Registration<>(type, reindexer)
+            );
+
+            return this;
+        }
+
+        public StructReindexers build() {
+            return new StructReindexers(this);
+        }
+
+    }
+
+    private static final class Registration<T extends UaStructure> {
+
+        private final Class<T> type;
+        private final StructReindexer<T> reindexer;
+
+        Registration(Class<T> type, StructReindexer<T> reindexer) {
+            this.type = type;
+            this.reindexer = reindexer;
+        }
+
+        ExtensionObject reindex(
+            ExtensionObject xo,
+            NamespaceTranslation translation,
+            SerializationContext serializationContext
+        ) {
+
+            try {
+                Object struct = xo.decode(serializationContext);
+
+                if (!type.isInstance(struct)) {
+                    return xo;
+                }
+
+                T reindexed = reindexer.reindex(type.cast(struct), translation);
+
+                return reindexed == struct ? xo : ExtensionObject.encode(serializationContext, reindexed);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Re-indexing {} failed: {}", xo.getEncodingId(), e.getMessage());
+                return xo;
+            }
+        }
+
+    }
+
+    private static final class EncodingKey {
+
+        private final String namespaceUri;
+        private final Object identifier;
+
+        EncodingKey(String namespaceUri, Object identifier) {
+            this.namespaceUri = namespaceUri;
+            this.identifier = identifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            EncodingKey that = (EncodingKey) o;
+            return Objects.equals(namespaceUri, that.namespaceUri) &&
+                Objects.equals(identifier, that.identifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespaceUri, identifier);
+        }
+
+    }
+
+}
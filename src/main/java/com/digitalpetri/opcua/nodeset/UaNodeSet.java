@@ -1,54 +1,52 @@
 package com.digitalpetri.opcua.nodeset;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 
-import com.digitalpetri.opcua.nodeset.attributes.DataTypeNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.MethodNodeAttributes;
 import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.ObjectNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.ObjectTypeNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.ReferenceTypeNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.VariableNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.VariableTypeNodeAttributes;
-import com.digitalpetri.opcua.nodeset.attributes.ViewNodeAttributes;
-import com.digitalpetri.opcua.nodeset.util.AttributeUtil;
+import com.digitalpetri.opcua.nodeset.util.CompactReferenceStore;
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import com.digitalpetri.opcua.nodeset.util.OverlayMap;
+import com.digitalpetri.opcua.nodeset.util.RawXmlValues;
+import com.digitalpetri.opcua.nodeset.util.ReadOnlyListMultimap;
+import com.digitalpetri.opcua.nodeset.util.UnionListMultimap;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 import org.eclipse.milo.opcua.stack.core.NamespaceTable;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
-import org.opcfoundation.ua.generated.AliasTable;
 import org.opcfoundation.ua.generated.DataTypeDefinition;
-import org.opcfoundation.ua.generated.NodeIdAlias;
-import org.opcfoundation.ua.generated.ObjectFactory;
 import org.opcfoundation.ua.generated.Reference;
-import org.opcfoundation.ua.generated.UADataType;
-import org.opcfoundation.ua.generated.UAMethod;
+import org.opcfoundation.ua.generated.UANode;
 import org.opcfoundation.ua.generated.UANodeSet;
-import org.opcfoundation.ua.generated.UAObject;
-import org.opcfoundation.ua.generated.UAObjectType;
-import org.opcfoundation.ua.generated.UAReferenceType;
-import org.opcfoundation.ua.generated.UAVariable;
-import org.opcfoundation.ua.generated.UAVariableType;
-import org.opcfoundation.ua.generated.UAView;
+import org.opcfoundation.ua.generated.UANodeSetChangesStatus;
 
 public class UaNodeSet {
 
+    // not final: a merge result that is a view over a shared base replaces them with copies when it's modified
+    private Map<NodeId, NodeAttributes> nodes;
+    private ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> explicitReferences;
+    private ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> implicitReferences;
     private ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> combinedReferences;
-
-    private final Map<NodeId, NodeAttributes> nodes;
-    private final ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> explicitReferences;
-    private final ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> implicitReferences;
     private final NamespaceTable namespaceTable;
-    private final Map<String, NodeId> aliasTable;
-    private final Map<NodeId, DataTypeDefinition> dataTypeDefinitions;
-    private final Map<NodeId, String> rawXmlValues;
+    private Map<String, NodeId> aliasTable;
+    private Map<NodeId, DataTypeDefinition> dataTypeDefinitions;
+    private Map<NodeId, String> rawXmlValues;
+
+    /**
+     * Set once this node set is shared by merge results; its collections are read-only from then on.
+     */
+    private volatile boolean frozen = false;
 
     public UaNodeSet(
         Map<NodeId, NodeAttributes> nodes,
@@ -60,9 +58,33 @@ public class UaNodeSet {
         Map<NodeId, String> rawXmlValues
     ) {
 
+        this(
+            nodes,
+            explicitReferences,
+            implicitReferences,
+            new UnionListMultimap<>(explicitReferences, implicitReferences),
+            namespaceTable,
+            aliasTable,
+            dataTypeDefinitions,
+            rawXmlValues
+        );
+    }
+
+    UaNodeSet(
+        Map<NodeId, NodeAttributes> nodes,
+        ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> explicitReferences,
+        ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> implicitReferences,
+        ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> combinedReferences,
+        NamespaceTable namespaceTable,
+        Map<String, NodeId> aliasTable,
+        Map<NodeId, DataTypeDefinition> dataTypeDefinitions,
+        Map<NodeId, String> rawXmlValues
+    ) {
+
         this.nodes = nodes;
         this.explicitReferences = explicitReferences;
         this.implicitReferences = implicitReferences;
+        this.combinedReferences = combinedReferences;
         this.namespaceTable = namespaceTable;
         this.aliasTable = aliasTable;
         this.dataTypeDefinitions = dataTypeDefinitions;
@@ -70,93 +92,44 @@ public class UaNodeSet {
     }
 
     UaNodeSet(UANodeSet nodeSet) throws JAXBException {
-        aliasTable = new HashMap<>();
-        namespaceTable = new NamespaceTable();
-        explicitReferences = ArrayListMultimap.create();
-        implicitReferences = ArrayListMultimap.create();
-        nodes = new HashMap<>();
-        dataTypeDefinitions = new HashMap<>();
-        rawXmlValues = new HashMap<>();
-
-        JAXBContext jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
-        Marshaller marshaller = jaxbContext.createMarshaller();
-
-        // Alias Map
-        AliasTable aliasTable = nodeSet.getAliases();
-        if (aliasTable != null) {
-            List<NodeIdAlias> aliases = aliasTable.getAlias();
-            if (aliases != null) {
-                aliases.forEach(a -> this.aliasTable.put(a.getAlias(), NodeId.parse(a.getValue())));
-            }
-        }
+        this(nodeSet, ParseOptions.DEFAULT);
+    }
 
-        // Namespace URI List
-        if (nodeSet.getNamespaceUris() != null) {
-            List<String> uris = nodeSet.getNamespaceUris().getUri();
-            uris.forEach(namespaceTable::addUri);
-        }
+    UaNodeSet(UANodeSet nodeSet, ParseOptions options) throws JAXBException {
+        this(fromGenerated(nodeSet, options));
+    }
 
-        // Reference Details
-        nodeSet.getUAObjectOrUAVariableOrUAMethod().forEach(gNode -> {
-            NodeId sourceNodeId = AttributeUtil.tryParseNodeId(gNode.getNodeId(), this.aliasTable);
-
-            Optional.ofNullable(gNode.getReferences()).ifPresent(gReferences -> gReferences.getReference().forEach(
-                gReference -> {
-                    org.eclipse.milo.opcua.sdk.core.Reference reference =
-                        referenceFromGenerated(sourceNodeId, gReference);
-
-                    explicitReferences.put(sourceNodeId, reference);
-
-                    reference.invert(namespaceTable).ifPresent(
-                        inverseReference ->
-                            implicitReferences.put(inverseReference.getSourceNodeId(), inverseReference)
-                    );
-                }
-            ));
-        });
-
-        // Node Attributes
-        nodeSet.getUAObjectOrUAVariableOrUAMethod().forEach(gNode -> {
-            NodeAttributes attributes = null;
-
-            if (gNode instanceof UADataType) {
-                UADataType gDataTypeNode = (UADataType) gNode;
-
-                attributes = DataTypeNodeAttributes.fromGenerated(gDataTypeNode);
-
-                DataTypeDefinition definition = gDataTypeNode.getDefinition();
-
-                if (definition != null) {
-                    dataTypeDefinitions.put(attributes.getNodeId(), definition);
-                }
-            } else if (gNode instanceof UAMethod) {
-                attributes = MethodNodeAttributes.fromGenerated((UAMethod) gNode);
-            } else if (gNode instanceof UAObject) {
-                attributes = ObjectNodeAttributes.fromGenerated((UAObject) gNode);
-            } else if (gNode instanceof UAObjectType) {
-                attributes = ObjectTypeNodeAttributes.fromGenerated((UAObjectType) gNode);
-            } else if (gNode instanceof UAReferenceType) {
-                attributes = ReferenceTypeNodeAttributes.fromGenerated((UAReferenceType) gNode);
-            } else if (gNode instanceof UAVariable) {
-                attributes = VariableNodeAttributes.fromGenerated(
-                    (UAVariable) gNode, marshaller, this.aliasTable, rawXmlValues
-                );
-            } else if (gNode instanceof UAVariableType) {
-                attributes = VariableTypeNodeAttributes.fromGenerated(
-                    (UAVariableType) gNode, marshaller, this.aliasTable, rawXmlValues
-                );
-            } else if (gNode instanceof UAView) {
-                attributes = ViewNodeAttributes.fromGenerated((UAView) gNode);
-            }
-
-            if (attributes != null) {
-                nodes.put(attributes.getNodeId(), attributes);
-            }
-        });
+    private UaNodeSet(UaNodeSet nodeSet) {
+        this(
+            nodeSet.nodes,
+            nodeSet.explicitReferences,
+            nodeSet.implicitReferences,
+            nodeSet.combinedReferences,
+            nodeSet.namespaceTable,
+            nodeSet.aliasTable,
+            nodeSet.dataTypeDefinitions,
+            nodeSet.rawXmlValues
+        );
+    }
+
+    private UaNodeSet(UaNodeSet nodeSet, CompactReferenceStore referenceStore) {
+        this(
+            nodeSet.nodes,
+            referenceStore.getExplicitReferences(),
+            referenceStore.getImplicitReferences(),
+            referenceStore.getCombinedReferences(),
+            nodeSet.namespaceTable,
+            nodeSet.aliasTable,
+            nodeSet.dataTypeDefinitions,
+            nodeSet.rawXmlValues
+        );
+
+        // the compacted node set shares every other collection
+        this.frozen = nodeSet.frozen;
     }
 
     public Map<String, NodeId> getAliasTable() {
-        return aliasTable;
+        return frozen ? Collections.unmodifiableMap(aliasTable) : aliasTable;
     }
 
     public NamespaceTable getNamespaceTable() {
@@ -164,7 +137,7 @@ public class UaNodeSet {
     }
 
     public Map<NodeId, NodeAttributes> getNodes() {
-        return nodes;
+        return frozen ? Collections.unmodifiableMap(nodes) : nodes;
     }
 
     /**
@@ -173,7 +146,7 @@ public class UaNodeSet {
      * @return the {@link Reference}s that were explicitly defined by the NodeSet.
      */
     public ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> getExplicitReferences() {
-        return explicitReferences;
+        return frozen ? Multimaps.unmodifiableListMultimap(explicitReferences) : explicitReferences;
     }
 
     /**
@@ -183,33 +156,71 @@ public class UaNodeSet {
      * @return the {@link Reference}s that were implicitly defined by the NodeSet
      */
     public ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> getImplicitReferences() {
-        return implicitReferences;
+        return frozen ? Multimaps.unmodifiableListMultimap(implicitReferences) : implicitReferences;
     }
 
     /**
      * Get all {@link Reference}s defined by the NodeSet, i.e. both explicit and implicit
      * references.
+     * <p>
+     * The result is a read-only view; the references of each node are its explicit references followed by its
+     * implicit references, and nothing is copied.
      *
      * @return all {@link Reference}s defined by the NodeSet.
      * @see #getExplicitReferences()
      * @see #getImplicitReferences()
      */
-    public synchronized ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> getCombinedReferences() {
-        if (combinedReferences == null) {
-            combinedReferences = ArrayListMultimap.create();
-            combinedReferences.putAll(explicitReferences);
-            combinedReferences.putAll(implicitReferences);
-        }
-
+    public ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> getCombinedReferences() {
         return combinedReferences;
     }
 
+    /**
+     * Get the explicit followed by the implicit {@link Reference}s of the node identified by {@code nodeId}.
+     * <p>
+     * Unlike {@code getCombinedReferences().get(nodeId)}, no {@link java.util.List} is created.
+     *
+     * @param nodeId the {@link NodeId} of the source node.
+     * @return the {@link Reference}s whose source is {@code nodeId}.
+     */
+    public Iterable<org.eclipse.milo.opcua.sdk.core.Reference> getReferences(NodeId nodeId) {
+        Iterable<org.eclipse.milo.opcua.sdk.core.Reference> references =
+            Iterables.concat(explicitReferences.get(nodeId), implicitReferences.get(nodeId));
+
+        return frozen ? Iterables.unmodifiableIterable(references) : references;
+    }
+
     public Map<NodeId, DataTypeDefinition> getDataTypeDefinitions() {
-        return dataTypeDefinitions;
+        return frozen ? Collections.unmodifiableMap(dataTypeDefinitions) : dataTypeDefinitions;
     }
 
     public Map<NodeId, String> getRawXmlValues() {
-        return rawXmlValues;
+        return frozen ? Collections.unmodifiableMap(rawXmlValues) : rawXmlValues;
+    }
+
+    /**
+     * Get a {@link UaNodeSet} with the same contents as this one but with its references held in a
+     * {@link CompactReferenceStore}.
+     * <p>
+     * The explicit, implicit and combined references of the returned {@link UaNodeSet} are read-only views over the
+     * same primitive arrays, and {@link org.eclipse.milo.opcua.sdk.core.Reference} objects are created on access
+     * rather than retained.
+     *
+     * @return a {@link UaNodeSet} with its references held in a {@link CompactReferenceStore}.
+     * @see ParseOptions.Builder#setCompactReferences(boolean)
+     */
+    public UaNodeSet compact() {
+        return new UaNodeSet(this, CompactReferenceStore.create(explicitReferences, implicitReferences));
+    }
+
+    /**
+     * Write a binary snapshot of this {@link UaNodeSet} to {@code out}.
+     *
+     * @param out the {@link OutputStream} to write to; it is not closed.
+     * @throws IOException if writing fails.
+     * @see UaNodeSetSnapshot
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        UaNodeSetSnapshot.write(this, out);
     }
 
     /**
@@ -223,29 +234,214 @@ public class UaNodeSet {
         return UaNodeSetMerger.merge(this, other);
     }
 
-    private org.eclipse.milo.opcua.sdk.core.Reference referenceFromGenerated(
-        NodeId sourceNodeId,
-        Reference gReference
-    ) {
+    /**
+     * Compute the differences between a previous version of this node set and this one.
+     *
+     * @param previous the previous version of this node set.
+     * @return a {@link UaNodeSetDiff} from {@code previous} to this.
+     * @see UaNodeSetDiff#compute(UaNodeSet, UaNodeSet)
+     */
+    public UaNodeSetDiff diff(UaNodeSet previous) {
+        return UaNodeSetDiff.compute(previous, this);
+    }
 
-        NodeId targetNodeId = AttributeUtil.tryParseNodeId(gReference.getValue(), aliasTable);
-        NodeId referenceTypeId = AttributeUtil.parseReferenceTypeId(gReference, aliasTable);
-        boolean isForward = gReference.isIsForward();
+    /**
+     * Apply a UANodeSetChanges document to this node set, modifying it in place.
+     *
+     * @param changes the {@link UaNodeSetChanges} to apply.
+     * @return the status of each change.
+     * @see UaNodeSetChanges#applyTo(UaNodeSet)
+     */
+    public UANodeSetChangesStatus apply(UaNodeSetChanges changes) {
+        return changes.applyTo(this);
+    }
 
-        return new org.eclipse.milo.opcua.sdk.core.Reference(
-            sourceNodeId,
-            referenceTypeId,
-            targetNodeId.expanded(),
-            isForward
-        );
+    /**
+     * Make the collections of this node set read-only because merge results share them.
+     * <p>
+     * A merge result that is itself a view over a shared node set is already read-only and is left as-is, so its
+     * views can still be flattened by later merges.
+     *
+     * @see MergeOptions.Builder#setShareFirstNodeSet(boolean)
+     */
+    void freeze() {
+        if (!(nodes instanceof OverlayMap)) {
+            frozen = true;
+        }
+    }
+
+    /**
+     * @return {@code true} if this node set is shared by merge results and can no longer be modified.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Replace the collections of a merge result that is a view over a shared base with plain copies, so it can be
+     * modified without touching the base. Any other node set is left as-is.
+     * <p>
+     * Like modifying the collections themselves, this must not race with readers of this node set.
+     *
+     * @see MergeOptions.Builder#setShareFirstNodeSet(boolean)
+     */
+    void unshare() {
+        if (!(nodes instanceof OverlayMap) || !(explicitReferences instanceof UnionListMultimap)) return;
+
+        nodes = new HashMap<>(nodes);
+        explicitReferences = ArrayListMultimap.create(explicitReferences);
+        implicitReferences = ArrayListMultimap.create(implicitReferences);
+        combinedReferences = new UnionListMultimap<>(explicitReferences, implicitReferences);
+        aliasTable = new HashMap<>(aliasTable);
+        dataTypeDefinitions = new HashMap<>(dataTypeDefinitions);
+        rawXmlValues = copyRawXmlValues(rawXmlValues);
+    }
+
+    /**
+     * Copy the raw XML values of a view over a shared base without resolving deferred entries.
+     */
+    private static Map<NodeId, String> copyRawXmlValues(Map<NodeId, String> rawXmlValues) {
+        RawXmlValues copy = new RawXmlValues(RawXmlValues.entryCount(rawXmlValues));
+
+        if (rawXmlValues instanceof OverlayMap) {
+            copy.putAll(((OverlayMap<NodeId, String>) rawXmlValues).getBase());
+            copy.putAll(((OverlayMap<NodeId, String>) rawXmlValues).getOverlay());
+        } else {
+            copy.putAll(rawXmlValues);
+        }
+
+        return copy;
+    }
+
+    /**
+     * @return {@code true} if the collections of this node set can be modified, i.e. it isn't frozen and wasn't
+     * compacted, mapped or built as a view over a merge base.
+     * @see #unshare()
+     */
+    boolean isModifiable() {
+        return !frozen &&
+            !(nodes instanceof OverlayMap) &&
+            !(explicitReferences instanceof ReadOnlyListMultimap) &&
+            !(implicitReferences instanceof ReadOnlyListMultimap);
+    }
+
+    private static UaNodeSet fromGenerated(UANodeSet nodeSet, ParseOptions options) throws JAXBException {
+        Marshaller marshaller = JaxbPool.borrowMarshaller();
+
+        try {
+            UaNodeSetBuilder builder = new UaNodeSetBuilder(marshaller, options);
+
+            builder.addAliases(nodeSet.getAliases());
+            builder.addNamespaceUris(nodeSet.getNamespaceUris());
+
+            List<? extends UANode> gNodes = nodeSet.getUAObjectOrUAVariableOrUAMethod();
+
+            builder.addNodes(options.getNodeFilter() != null ? builder.filterNodes(gNodes) : gNodes);
+
+            return builder.build();
+        } finally {
+            JaxbPool.releaseMarshaller(marshaller);
+        }
+    }
+
+    /**
+     * Read a binary snapshot written by {@link #writeSnapshot(OutputStream)}.
+     * <p>
+     * This is much faster than parsing the UANodeSet XML the snapshot was created from.
+     *
+     * @param snapshot an {@link InputStream} containing the snapshot.
+     * @return the {@link UaNodeSet} in the snapshot.
+     * @throws IOException if reading fails or {@code snapshot} isn't a snapshot of the current version.
+     * @see UaNodeSetSnapshot
+     */
+    public static UaNodeSet readSnapshot(InputStream snapshot) throws IOException {
+        return UaNodeSetSnapshot.read(snapshot);
+    }
+
+    /**
+     * Memory-map a binary snapshot file written by {@link #writeSnapshot(OutputStream)}.
+     * <p>
+     * Nodes, references and raw XML values are decoded from the mapped file on access rather than held on the heap;
+     * see {@link UaNodeSetSnapshot#map(Path)}. Release the mapping with {@link UaNodeSetSnapshot#unmap(UaNodeSet)}.
+     *
+     * @param snapshot the snapshot file.
+     * @return a read-only {@link UaNodeSet} backed by the mapped file.
+     * @throws IOException if the file can't be mapped or isn't a snapshot of the current version.
+     */
+    public static UaNodeSet mapSnapshot(Path snapshot) throws IOException {
+        return UaNodeSetSnapshot.map(snapshot);
+    }
+
+    /**
+     * Read only the header of a UANodeSet document: its namespace URIs, model table and aliases.
+     * <p>
+     * No nodes are read or unmarshalled, so this is much cheaper than {@link #parse(InputStream)} when only the
+     * metadata is needed.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML; it is not closed.
+     * @return the {@link UaNodeSetHeader} of the document.
+     * @throws IOException if the document could not be read or isn't well-formed XML.
+     * @see UaNodeSetHeader#scan(InputStream)
+     */
+    public static UaNodeSetHeader scanHeader(InputStream nodeSetXml) throws IOException {
+        return UaNodeSetHeader.scan(nodeSetXml);
     }
 
     public static UaNodeSet parse(InputStream nodeSetXml) throws JAXBException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
+        return parse(nodeSetXml, ParseOptions.DEFAULT);
+    }
 
-        UANodeSet nodeSet = (UANodeSet) jaxbContext.createUnmarshaller().unmarshal(nodeSetXml);
+    /**
+     * Parse a UANodeSet document.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML.
+     * @param options    the {@link ParseOptions} to parse with.
+     * @return the parsed {@link UaNodeSet}.
+     * @throws JAXBException if the document could not be read or unmarshalled.
+     */
+    public static UaNodeSet parse(InputStream nodeSetXml, ParseOptions options) throws JAXBException {
+        Unmarshaller unmarshaller = JaxbPool.borrowUnmarshaller();
 
-        return new UaNodeSet(nodeSet);
+        long start = System.nanoTime();
+
+        UANodeSet nodeSet;
+        try {
+            nodeSet = (UANodeSet) unmarshaller.unmarshal(nodeSetXml);
+        } finally {
+            JaxbPool.releaseUnmarshaller(unmarshaller);
+        }
+
+        options.getListener().onPhaseCompleted(NodeSetListener.Phase.UNMARSHAL, System.nanoTime() - start);
+
+        return new UaNodeSet(nodeSet, options);
+    }
+
+    /**
+     * Parse a UANodeSet document using a pull parser.
+     * <p>
+     * Unlike {@link #parse(InputStream)}, node elements are unmarshalled and converted one at a time, so peak memory
+     * use is proportional to the resulting {@link UaNodeSet} rather than to the JAXB object graph of the whole
+     * document.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML.
+     * @return the parsed {@link UaNodeSet}.
+     * @throws JAXBException if the document could not be read or unmarshalled.
+     */
+    public static UaNodeSet parseStreaming(InputStream nodeSetXml) throws JAXBException {
+        return parseStreaming(nodeSetXml, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a UANodeSet document using a pull parser.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML.
+     * @param options    the {@link ParseOptions} to parse with.
+     * @return the parsed {@link UaNodeSet}.
+     * @throws JAXBException if the document could not be read or unmarshalled.
+     * @see #parseStreaming(InputStream)
+     */
+    public static UaNodeSet parseStreaming(InputStream nodeSetXml, ParseOptions options) throws JAXBException {
+        return UaNodeSetStreamParser.parse(nodeSetXml, options);
     }
 
 }
@@ -0,0 +1,376 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import com.digitalpetri.opcua.nodeset.attributes.DataTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.MethodNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ObjectNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ObjectTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ReferenceTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ViewNodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import com.digitalpetri.opcua.nodeset.util.ParseContext;
+import com.digitalpetri.opcua.nodeset.util.RawXmlValues;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.opcfoundation.ua.generated.AliasTable;
+import org.opcfoundation.ua.generated.DataTypeDefinition;
+import org.opcfoundation.ua.generated.NodeIdAlias;
+import org.opcfoundation.ua.generated.Reference;
+import org.opcfoundation.ua.generated.UADataType;
+import org.opcfoundation.ua.generated.UAMethod;
+import org.opcfoundation.ua.generated.UANode;
+import org.opcfoundation.ua.generated.UAObject;
+import org.opcfoundation.ua.generated.UAObjectType;
+import org.opcfoundation.ua.generated.UAReferenceType;
+import org.opcfoundation.ua.generated.UAVariable;
+import org.opcfoundation.ua.generated.UAVariableType;
+import org.opcfoundation.ua.generated.UAView;
+import org.opcfoundation.ua.generated.UriTable;
+
+/**
+ * Accumulates the contents of a UANodeSet document one element at a time.
+ * <p>
+ * The alias table and namespace URIs must be added before any nodes, which is also the order they appear in in a
+ * document conforming to the UANodeSet schema.
+ */
+final class UaNodeSetBuilder {
+
+    private final Map<NodeId, NodeAttributes> nodes = new HashMap<>();
+    private final ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> explicitReferences =
+        ArrayListMultimap.create();
+    private final ListMultimap<NodeId, org.eclipse.milo.opcua.sdk.core.Reference> implicitReferences =
+        ArrayListMultimap.create();
+    private final Map<NodeId, DataTypeDefinition> dataTypeDefinitions = new HashMap<>();
+    private final RawXmlValues rawXmlValues = new RawXmlValues();
+
+    /**
+     * Nodes rejected by {@link ParseOptions#getNodeFilter()}.
+     */
+    private final Set<NodeId> rejected = new HashSet<>();
+
+    /**
+     * Chunks of nodes being converted on {@link ParseOptions#getExecutor()}, in document order.
+     */
+    private final List<CompletableFuture<UaNodeSetBuilder>> chunks = new ArrayList<>();
+
+    private final Map<String, NodeId> aliasTable;
+    private final NamespaceTable namespaceTable;
+    private final Marshaller marshaller;
+    private final ParseOptions options;
+    private final ParseContext context;
+
+    /**
+     * Time spent in {@link #addReferences(UANode)} and {@link #addAttributes(UANode)} by this builder, reported to the
+     * listener by {@link #build()}.
+     */
+    private long referencesNanos;
+    private long attributesNanos;
+
+    UaNodeSetBuilder(Marshaller marshaller, ParseOptions options) {
+        this.marshaller = marshaller;
+        this.options = options;
+
+        aliasTable = new HashMap<>();
+        namespaceTable = new NamespaceTable();
+        context = new ParseContext(aliasTable, options.isLazyValues(), options.getListener());
+    }
+
+    /**
+     * Create a builder for a chunk of nodes that shares the alias table, namespace table and context of
+     * {@code parent} but collects its results separately.
+     */
+    private UaNodeSetBuilder(UaNodeSetBuilder parent, Marshaller marshaller) {
+        this.marshaller = marshaller;
+
+        options = parent.options;
+        aliasTable = parent.aliasTable;
+        namespaceTable = parent.namespaceTable;
+        context = parent.context;
+    }
+
+    void addAliases(AliasTable aliasTable) {
+        if (aliasTable != null) {
+            List<NodeIdAlias> aliases = aliasTable.getAlias();
+            if (aliases != null) {
+                aliases.forEach(a -> this.aliasTable.put(a.getAlias(), NodeId.parse(a.getValue())));
+            }
+        }
+    }
+
+    void addNamespaceUris(UriTable uriTable) {
+        if (uriTable != null) {
+            List<String> uris = uriTable.getUri();
+            uris.forEach(namespaceTable::addUri);
+        }
+    }
+
+    /**
+     * Resolve a NodeId or alias against the alias table added so far.
+     *
+     * @param id a NodeId or alias.
+     * @return the resolved {@link NodeId}.
+     * @throws IllegalArgumentException if {@code id} is neither.
+     */
+    NodeId resolveNodeId(String id) {
+        return context.resolveNodeId(id);
+    }
+
+    /**
+     * Test a node element against {@link ParseOptions#getNodeFilter()}, remembering it if it's rejected.
+     * <p>
+     * When a filter is configured, a node whose NodeId can't be resolved is rejected without consulting it.
+     * <p>
+     * Must be called on the parsing thread, after the alias and namespace tables have been added.
+     *
+     * @param nodeId    the NodeId attribute of the element, possibly an alias.
+     * @param nodeClass the {@link NodeClass} of the element.
+     * @return {@code true} if the node should be added.
+     */
+    boolean acceptNode(String nodeId, NodeClass nodeClass) {
+        NodeFilter filter = options.getNodeFilter();
+
+        if (filter == null) return true;
+
+        NodeId resolved = context.tryResolveNodeId(nodeId).orElse(null);
+
+        if (resolved == null) {
+            return false;
+        } else if (filter.accept(resolved, nodeClass, namespaceTable)) {
+            return true;
+        } else {
+            rejected.add(resolved);
+            return false;
+        }
+    }
+
+    /**
+     * @return the nodes in {@code gNodes} accepted by {@link #acceptNode(String, NodeClass)}.
+     */
+    List<UANode> filterNodes(List<? extends UANode> gNodes) {
+        return gNodes.stream()
+            .filter(gNode -> acceptNode(gNode.getNodeId(), nodeClass(gNode)))
+            .collect(Collectors.toList());
+    }
+
+    void addNode(UANode gNode) {
+        long start = System.nanoTime();
+        addReferences(gNode);
+        long referencesDone = System.nanoTime();
+        addAttributes(gNode);
+        long attributesDone = System.nanoTime();
+
+        referencesNanos += referencesDone - start;
+        attributesNanos += attributesDone - referencesDone;
+    }
+
+    /**
+     * Add {@code gNodes}, converting them on {@link ParseOptions#getExecutor()} if one is configured.
+     * <p>
+     * The alias and namespace tables must not be modified after this has been called.
+     */
+    void addNodes(List<? extends UANode> gNodes) {
+        Executor executor = options.getExecutor();
+
+        if (executor == null) {
+            gNodes.forEach(this::addNode);
+        } else {
+            int chunkSize = options.getChunkSize();
+
+            for (int i = 0; i < gNodes.size(); i += chunkSize) {
+                List<? extends UANode> chunk = gNodes.subList(i, Math.min(i + chunkSize, gNodes.size()));
+
+                chunks.add(CompletableFuture.supplyAsync(() -> buildChunk(chunk), executor));
+            }
+        }
+    }
+
+    private UaNodeSetBuilder buildChunk(List<? extends UANode> gNodes) {
+        Marshaller chunkMarshaller;
+        try {
+            chunkMarshaller = JaxbPool.borrowMarshaller();
+        } catch (JAXBException e) {
+            throw new CompletionException(e);
+        }
+
+        try {
+            UaNodeSetBuilder chunkBuilder = new UaNodeSetBuilder(this, chunkMarshaller);
+
+            gNodes.forEach(chunkBuilder::addNode);
+
+            return chunkBuilder;
+        } finally {
+            JaxbPool.releaseMarshaller(chunkMarshaller);
+        }
+    }
+
+    void addReferences(UANode gNode) {
+        NodeId sourceNodeId = context.resolveNodeId(gNode.getNodeId());
+
+        Optional.ofNullable(gNode.getReferences()).ifPresent(gReferences -> gReferences.getReference().forEach(
+            gReference -> {
+                org.eclipse.milo.opcua.sdk.core.Reference reference =
+                    referenceFromGenerated(sourceNodeId, gReference);
+
+                explicitReferences.put(sourceNodeId, reference);
+
+                reference.invert(namespaceTable).ifPresent(inverseReference -> {
+                    inverseReference = context.getIdentifierPool().intern(inverseReference);
+
+                    implicitReferences.put(inverseReference.getSourceNodeId(), inverseReference);
+                });
+            }
+        ));
+    }
+
+    void addAttributes(UANode gNode) {
+        NodeAttributes attributes = null;
+
+        if (gNode instanceof UADataType) {
+            UADataType gDataTypeNode = (UADataType) gNode;
+
+            attributes = DataTypeNodeAttributes.fromGenerated(gDataTypeNode, context);
+
+            DataTypeDefinition definition = gDataTypeNode.getDefinition();
+
+            if (definition != null) {
+                dataTypeDefinitions.put(attributes.getNodeId(), definition);
+            }
+        } else if (gNode instanceof UAMethod) {
+            attributes = MethodNodeAttributes.fromGenerated((UAMethod) gNode, context);
+        } else if (gNode instanceof UAObject) {
+            attributes = ObjectNodeAttributes.fromGenerated((UAObject) gNode, context);
+        } else if (gNode instanceof UAObjectType) {
+            attributes = ObjectTypeNodeAttributes.fromGenerated((UAObjectType) gNode, context);
+        } else if (gNode instanceof UAReferenceType) {
+            attributes = ReferenceTypeNodeAttributes.fromGenerated((UAReferenceType) gNode, context);
+        } else if (gNode instanceof UAVariable) {
+            attributes = VariableNodeAttributes.fromGenerated(
+                (UAVariable) gNode, marshaller, context, rawXmlValues
+            );
+        } else if (gNode instanceof UAVariableType) {
+            attributes = VariableTypeNodeAttributes.fromGenerated(
+                (UAVariableType) gNode, marshaller, context, rawXmlValues
+            );
+        } else if (gNode instanceof UAView) {
+            attributes = ViewNodeAttributes.fromGenerated((UAView) gNode, context);
+        }
+
+        if (attributes != null) {
+            nodes.put(attributes.getNodeId(), attributes);
+
+            context.getListener().onNodeParsed(attributes.getNodeId(), attributes.getNodeClass());
+        }
+    }
+
+    UaNodeSet build() throws JAXBException {
+        for (CompletableFuture<UaNodeSetBuilder> chunk : chunks) {
+            UaNodeSetBuilder chunkBuilder;
+            try {
+                chunkBuilder = chunk.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof JAXBException) {
+                    throw (JAXBException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else {
+                    throw e;
+                }
+            }
+
+            nodes.putAll(chunkBuilder.nodes);
+            explicitReferences.putAll(chunkBuilder.explicitReferences);
+            implicitReferences.putAll(chunkBuilder.implicitReferences);
+            dataTypeDefinitions.putAll(chunkBuilder.dataTypeDefinitions);
+            rawXmlValues.putAll(chunkBuilder.rawXmlValues);
+
+            referencesNanos += chunkBuilder.referencesNanos;
+            attributesNanos += chunkBuilder.attributesNanos;
+        }
+        chunks.clear();
+
+        if (!rejected.isEmpty() && options.getDanglingReferences() == ParseOptions.DanglingReferences.DROP) {
+            // rejected nodes added no references of their own; drop the ones accepted nodes have to them
+            explicitReferences.entries().removeIf(e ->
+                e.getValue().getTargetNodeId().local(namespaceTable).map(rejected::contains).orElse(false)
+            );
+            implicitReferences.keySet().removeAll(rejected);
+        }
+
+        NodeSetListener listener = context.getListener();
+        listener.onPhaseCompleted(NodeSetListener.Phase.REFERENCES, referencesNanos);
+        listener.onPhaseCompleted(NodeSetListener.Phase.ATTRIBUTES, attributesNanos);
+
+        UaNodeSet nodeSet = new UaNodeSet(
+            nodes,
+            explicitReferences,
+            implicitReferences,
+            namespaceTable,
+            aliasTable,
+            dataTypeDefinitions,
+            rawXmlValues
+        );
+
+        return options.isCompactReferences() ? nodeSet.compact() : nodeSet;
+    }
+
+    private static NodeClass nodeClass(UANode gNode) {
+        if (gNode instanceof UADataType) {
+            return NodeClass.DataType;
+        } else if (gNode instanceof UAMethod) {
+            return NodeClass.Method;
+        } else if (gNode instanceof UAObject) {
+            return NodeClass.Object;
+        } else if (gNode instanceof UAObjectType) {
+            return NodeClass.ObjectType;
+        } else if (gNode instanceof UAReferenceType) {
+            return NodeClass.ReferenceType;
+        } else if (gNode instanceof UAVariable) {
+            return NodeClass.Variable;
+        } else if (gNode instanceof UAVariableType) {
+            return NodeClass.VariableType;
+        } else if (gNode instanceof UAView) {
+            return NodeClass.View;
+        } else {
+            return NodeClass.Unspecified;
+        }
+    }
+
+    private org.eclipse.milo.opcua.sdk.core.Reference referenceFromGenerated(
+        NodeId sourceNodeId,
+        Reference gReference
+    ) {
+
+        NodeId targetNodeId = context.resolveNodeId(gReference.getValue());
+        NodeId referenceTypeId = context.resolveNodeId(gReference.getReferenceType());
+        boolean isForward = gReference.isIsForward();
+
+        return new org.eclipse.milo.opcua.sdk.core.Reference(
+            sourceNodeId,
+            referenceTypeId,
+            context.getIdentifierPool().intern(targetNodeId.expanded()),
+            isForward
+        );
+    }
+
+}
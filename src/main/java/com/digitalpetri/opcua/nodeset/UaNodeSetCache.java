@@ -0,0 +1,277 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.xml.bind.JAXBException;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of parsed {@link UaNodeSet}s in a local directory, keyed by a hash of the UANodeSet XML.
+ * <p>
+ * Entries are binary snapshots (see {@link UaNodeSetSnapshot}) named by the SHA-256 of the input bytes together with
+ * {@link #PARSER_VERSION} and the snapshot format version, so a change to either invalidates every existing entry. On
+ * a hit the snapshot is loaded and the XML is never parsed; on a miss the XML is parsed and a new entry is written.
+ * <p>
+ * After each new entry, entries that haven't been used for longer than the maximum age are deleted, then the least
+ * recently used entries are deleted until the directory is no larger than the maximum size. Entries are written to a
+ * temporary file and moved into place, so a directory can be shared by several processes.
+ */
+public final class UaNodeSetCache {
+
+    /**
+     * The version of the parsing behaviour; incremented whenever a change to parsing would produce a different
+     * {@link UaNodeSet} from the same XML.
+     */
+    public static final int PARSER_VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UaNodeSetCache.class);
+
+    private static final String ENTRY_SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final long maxSize;
+    private final Duration maxAge;
+
+    private UaNodeSetCache(Builder builder) {
+        this.directory = builder.directory;
+        this.maxSize = builder.maxSize;
+        this.maxAge = builder.maxAge;
+    }
+
+    /**
+     * @return the directory entries are stored in.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Parse a UANodeSet document with {@link ParseOptions#DEFAULT}, or load it from the cache if the same document has
+     * been parsed before.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML.
+     * @return the parsed {@link UaNodeSet}.
+     * @throws JAXBException if the document could not be unmarshalled.
+     * @throws IOException   if the document could not be read or the cache directory could not be written.
+     * @see #parse(InputStream, ParseOptions)
+     */
+    public UaNodeSet parse(InputStream nodeSetXml) throws JAXBException, IOException {
+        return parse(nodeSetXml, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a UANodeSet document, or load it from the cache if the same document has been parsed before.
+     * <p>
+     * Entries always hold the complete node set, so if {@code options} has a {@link NodeFilter} the document is parsed
+     * without consulting or updating the cache.
+     * <p>
+     * Most options only apply to parsing. On a hit the snapshot is loaded on the calling thread with its values
+     * already decoded, so the executor, chunk size and lazy values options have no effect. Only compact references is
+     * applied to the loaded node set. The listener receives a single
+     * {@link com.digitalpetri.opcua.nodeset.util.NodeSetListener#onSnapshotLoaded(Path, int, long)} call instead of
+     * phase, node and value callbacks.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML.
+     * @param options    the {@link ParseOptions} to parse with on a miss.
+     * @return the parsed {@link UaNodeSet}.
+     * @throws JAXBException if the document could not be unmarshalled.
+     * @throws IOException   if the document could not be read or the cache directory could not be written.
+     */
+    public UaNodeSet parse(InputStream nodeSetXml, ParseOptions options) throws JAXBException, IOException {
+        if (options.getNodeFilter() != null) {
+            return UaNodeSet.parse(nodeSetXml, options);
+        }
+
+        byte[] bytes = ByteStreams.toByteArray(nodeSetXml);
+
+        Path entry = directory.resolve(key(bytes) + ENTRY_SUFFIX);
+
+        long start = System.nanoTime();
+
+        UaNodeSet nodeSet = load(entry);
+
+        if (nodeSet == null) {
+            nodeSet = UaNodeSet.parse(new ByteArrayInputStream(bytes), options);
+
+            store(entry, nodeSet);
+            evict();
+        } else {
+            options.getListener().onSnapshotLoaded(entry, nodeSet.getNodes().size(), System.nanoTime() - start);
+
+            if (options.isCompactReferences()) {
+                nodeSet = nodeSet.compact();
+            }
+        }
+
+        return nodeSet;
+    }
+
+    /**
+     * Delete entries that are older than the maximum age, then the least recently used entries until the cache is no
+     * larger than the maximum size.
+     *
+     * @throws IOException if the cache directory could not be listed.
+     */
+    public void evict() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+                    entries.add(new Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                } catch (NoSuchFileException e) {
+                    // evicted concurrently
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(e -> e.lastUsed));
+
+        long oldest = System.currentTimeMillis() - maxAge.toMillis();
+
+        long size = 0L;
+        for (Entry entry : entries) {
+            size += entry.size;
+        }
+
+        for (Entry entry : entries) {
+            if (entry.lastUsed >= oldest && size <= maxSize) break;
+
+            if (Files.deleteIfExists(entry.path)) {
+                LOGGER.debug("Evicted {}", entry.path);
+            }
+            size -= entry.size;
+        }
+    }
+
+    private UaNodeSet load(Path entry) {
+        try (InputStream in = Files.newInputStream(entry)) {
+            UaNodeSet nodeSet = UaNodeSetSnapshot.read(in);
+
+            // the modification time doubles as the last use time for eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return nodeSet;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Discarding unreadable cache entry {}: {}", entry, e.getMessage());
+
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException ignored) {
+                // it will be replaced
+            }
+
+            return null;
+        }
+    }
+
+    private void store(Path entry, UaNodeSet nodeSet) throws IOException {
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                UaNodeSetSnapshot.write(nodeSet, out);
+            }
+
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String key(byte[] nodeSetXml) {
+        return Hashing.sha256().newHasher()
+            .putInt(PARSER_VERSION)
+            .putInt(UaNodeSetSnapshot.VERSION)
+            .putBytes(nodeSetXml)
+            .hash()
+            .toString();
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    private static final class Entry {
+
+        final Path path;
+        final long size;
+        final long lastUsed;
+
+        Entry(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+
+    }
+
+    public static final class Builder {
+
+        private final Path directory;
+        private long maxSize = 1024L * 1024L * 1024L;
+        private Duration maxAge = Duration.ofDays(30);
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @param maxSize the maximum total size of the cache, in bytes. Defaults to 1 GiB.
+         * @return this {@link Builder}.
+         */
+        public Builder setMaxSize(long maxSize) {
+            if (maxSize < 0) {
+                throw new IllegalArgumentException("maxSize: " + maxSize);
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param maxAge how long an entry is kept after it was last used. Defaults to 30 days.
+         * @return this {@link Builder}.
+         */
+        public Builder setMaxAge(Duration maxAge) {
+            if (maxAge.isNegative()) {
+                throw new IllegalArgumentException("maxAge: " + maxAge);
+            }
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public UaNodeSetCache build() {
+            return new UaNodeSetCache(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,566 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.Unmarshaller;
+
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import com.google.common.collect.ListMultimap;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.opcfoundation.ua.generated.NodeSetStatus;
+import org.opcfoundation.ua.generated.NodeSetStatusList;
+import org.opcfoundation.ua.generated.ReferenceChange;
+import org.opcfoundation.ua.generated.ReferencesToChange;
+import org.opcfoundation.ua.generated.UANode;
+import org.opcfoundation.ua.generated.UANodeSetChanges;
+import org.opcfoundation.ua.generated.UANodeSetChangesStatus;
+
+/**
+ * A parsed UANodeSetChanges document: nodes and references to add to, and delete from, a {@link UaNodeSet}.
+ * <p>
+ * Identifiers are kept as they appear in the document and translated into the namespace table of the node set the
+ * changes are applied to when {@link #applyTo(UaNodeSet)} is called, so one document can be applied to any node set
+ * that contains its namespaces.
+ */
+public final class UaNodeSetChanges {
+
+    private final String transactionId;
+    private final boolean acceptAllOrNothing;
+    private final DateTime lastModified;
+
+    private final UaNodeSet nodesToAdd;
+    private final List<NodeId> nodeIdsToAdd;
+    private final List<Reference> referencesToAdd;
+    private final List<NodeToDelete> nodesToDelete;
+    private final List<Reference> referencesToDelete;
+
+    private UaNodeSetChanges(
+        String transactionId,
+        boolean acceptAllOrNothing,
+        DateTime lastModified,
+        UaNodeSet nodesToAdd,
+        List<NodeId> nodeIdsToAdd,
+        List<Reference> referencesToAdd,
+        List<NodeToDelete> nodesToDelete,
+        List<Reference> referencesToDelete
+    ) {
+
+        this.transactionId = transactionId;
+        this.acceptAllOrNothing = acceptAllOrNothing;
+        this.lastModified = lastModified;
+        this.nodesToAdd = nodesToAdd;
+        this.nodeIdsToAdd = Collections.unmodifiableList(nodeIdsToAdd);
+        this.referencesToAdd = Collections.unmodifiableList(referencesToAdd);
+        this.nodesToDelete = Collections.unmodifiableList(nodesToDelete);
+        this.referencesToDelete = Collections.unmodifiableList(referencesToDelete);
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * @return {@code true} if no change should be applied unless all of them can be.
+     */
+    public boolean isAcceptAllOrNothing() {
+        return acceptAllOrNothing;
+    }
+
+    /**
+     * @return the {@code LastModified} attribute of the document, or {@code null} if it doesn't have one.
+     */
+    public DateTime getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the nodes to add and their references, indexed against the namespace table of the document.
+     */
+    public UaNodeSet getNodesToAdd() {
+        return nodesToAdd;
+    }
+
+    /**
+     * @return the {@link NodeId}s of the nodes to add, in document order.
+     */
+    public List<NodeId> getNodeIdsToAdd() {
+        return nodeIdsToAdd;
+    }
+
+    public List<Reference> getReferencesToAdd() {
+        return referencesToAdd;
+    }
+
+    public List<NodeToDelete> getNodesToDelete() {
+        return nodesToDelete;
+    }
+
+    public List<Reference> getReferencesToDelete() {
+        return referencesToDelete;
+    }
+
+    /**
+     * Apply these changes to {@code nodeSet}, modifying its nodes and its explicit and implicit references in place.
+     * <p>
+     * Nodes are added first, then references are added, then nodes are deleted and finally references are deleted,
+     * each in document order. Namespaces of the document that {@code nodeSet} doesn't have are added to its
+     * namespace table, and are kept even if the changes are undone. A reference is added along with its inverse on
+     * the target node, and deleting a reference deletes its inverse as well.
+     * <p>
+     * A change that can't be applied is skipped and its status says why. If {@link #isAcceptAllOrNothing()} is set
+     * and any change fails, every change already made is undone, and the changes that succeeded are reported as
+     * {@link StatusCodes#Bad_InvalidState}.
+     * <p>
+     * A merge result that is a view over a shared base node set is first given its own copies of the shared
+     * collections, leaving the base untouched. Node sets that are frozen, compacted or memory-mapped can't be
+     * modified.
+     *
+     * @param nodeSet the {@link UaNodeSet} to modify.
+     * @return the status of each change, in document order.
+     * @throws UnsupportedOperationException if {@code nodeSet} can't be modified.
+     */
+    public UANodeSetChangesStatus applyTo(UaNodeSet nodeSet) {
+        nodeSet.unshare();
+
+        if (!nodeSet.isModifiable()) {
+            throw new UnsupportedOperationException("node set is read-only");
+        }
+
+        NamespaceTable namespaceTable = nodeSet.getNamespaceTable();
+
+        for (String uri : nodesToAdd.getNamespaceTable().toArray()) {
+            if (uri != null && namespaceTable.getIndex(uri) == null) {
+                namespaceTable.addUri(uri);
+            }
+        }
+
+        NamespaceTranslation translation = NamespaceTranslation.create(
+            nodesToAdd.getNamespaceTable(),
+            namespaceTable
+        );
+
+        UaNodeSet added = translation.isIdentity() ? nodesToAdd : UaNodeSetMerger.reindex(
+            nodesToAdd,
+            namespaceTable,
+            MergeOptions.DEFAULT.getStructReindexers()
+        );
+
+        Transaction transaction = new Transaction(nodeSet);
+
+        NodeSetStatusList nodesToAddStatus = new NodeSetStatusList();
+        for (NodeId nodeId : nodeIdsToAdd) {
+            nodesToAddStatus.getStatus().add(transaction.addNode(translation.translate(nodeId), added));
+        }
+
+        NodeSetStatusList referencesToAddStatus = new NodeSetStatusList();
+        for (Reference reference : referencesToAdd) {
+            referencesToAddStatus.getStatus().add(transaction.addReference(translation.translate(reference)));
+        }
+
+        NodeSetStatusList nodesToDeleteStatus = new NodeSetStatusList();
+        for (NodeToDelete nodeToDelete : nodesToDelete) {
+            nodesToDeleteStatus.getStatus().add(transaction.deleteNode(
+                translation.translate(nodeToDelete.getNodeId()),
+                nodeToDelete.isDeleteReverseReferences()
+            ));
+        }
+
+        NodeSetStatusList referencesToDeleteStatus = new NodeSetStatusList();
+        for (Reference reference : referencesToDelete) {
+            referencesToDeleteStatus.getStatus().add(transaction.deleteReference(translation.translate(reference)));
+        }
+
+        if (acceptAllOrNothing && transaction.failed) {
+            transaction.rollback();
+
+            for (NodeSetStatusList statusList : new NodeSetStatusList[]{
+                nodesToAddStatus, referencesToAddStatus, nodesToDeleteStatus, referencesToDeleteStatus}) {
+
+                for (NodeSetStatus status : statusList.getStatus()) {
+                    if (status.getCode() == StatusCodes.Good) {
+                        status.setCode(StatusCodes.Bad_InvalidState);
+                        status.setValue(status.getValue() + ": not applied, transaction rejected");
+                    }
+                }
+            }
+        }
+
+        UANodeSetChangesStatus status = new UANodeSetChangesStatus();
+        status.setTransactionId(transactionId);
+        status.setNodesToAdd(nodesToAddStatus);
+        status.setReferencesToAdd(referencesToAddStatus);
+        status.setNodesToDelete(nodesToDeleteStatus);
+        status.setReferencesToDelete(referencesToDeleteStatus);
+
+        return status;
+    }
+
+    public static UaNodeSetChanges parse(InputStream nodeSetChangesXml) throws JAXBException {
+        return parse(nodeSetChangesXml, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a UANodeSetChanges document.
+     * <p>
+     * Nodes to add are converted as {@link UaNodeSet#parse(InputStream, ParseOptions)} converts nodes; the
+     * {@link NodeFilter} of {@code options} is not applied.
+     *
+     * @param nodeSetChangesXml an {@link InputStream} containing the UANodeSetChanges XML.
+     * @param options           the {@link ParseOptions} to convert nodes with.
+     * @return the parsed {@link UaNodeSetChanges}.
+     * @throws JAXBException if the document could not be read or unmarshalled, or a reference to add or delete
+     *                       has an invalid NodeId.
+     */
+    public static UaNodeSetChanges parse(InputStream nodeSetChangesXml, ParseOptions options) throws JAXBException {
+        Unmarshaller unmarshaller = JaxbPool.borrowUnmarshaller();
+
+        Object document;
+        try {
+            document = unmarshaller.unmarshal(nodeSetChangesXml);
+        } finally {
+            JaxbPool.releaseUnmarshaller(unmarshaller);
+        }
+
+        if (!(document instanceof UANodeSetChanges)) {
+            throw new UnmarshalException("not a UANodeSetChanges document: " + document.getClass().getSimpleName());
+        }
+
+        return fromGenerated((UANodeSetChanges) document, options);
+    }
+
+    private static UaNodeSetChanges fromGenerated(UANodeSetChanges gChanges, ParseOptions options)
+        throws JAXBException {
+
+        Marshaller marshaller = JaxbPool.borrowMarshaller();
+
+        try {
+            UaNodeSetBuilder builder = new UaNodeSetBuilder(marshaller, options);
+
+            builder.addAliases(gChanges.getAliases());
+            builder.addNamespaceUris(gChanges.getNamespaceUris());
+
+            List<UANode> gNodes = gChanges.getNodesToAdd() != null ?
+                gChanges.getNodesToAdd().getUAObjectOrUAVariableOrUAMethod() :
+                Collections.emptyList();
+
+            List<NodeId> nodeIdsToAdd = new ArrayList<>(gNodes.size());
+            for (UANode gNode : gNodes) {
+                nodeIdsToAdd.add(resolveNodeId(builder, gNode.getNodeId()));
+            }
+
+            builder.addNodes(gNodes);
+
+            List<NodeToDelete> nodesToDelete = new ArrayList<>();
+            if (gChanges.getNodesToDelete() != null) {
+                for (org.opcfoundation.ua.generated.NodeToDelete gNode : gChanges.getNodesToDelete().getNode()) {
+                    nodesToDelete.add(new NodeToDelete(
+                        resolveNodeId(builder, gNode.getValue()),
+                        gNode.isDeleteReverseReferences()
+                    ));
+                }
+            }
+
+            DateTime lastModified = gChanges.getLastModified() != null ?
+                new DateTime(gChanges.getLastModified().toGregorianCalendar().getTime()) :
+                null;
+
+            return new UaNodeSetChanges(
+                gChanges.getTransactionId(),
+                gChanges.isAcceptAllOrNothing(),
+                lastModified,
+                builder.build(),
+                nodeIdsToAdd,
+                references(gChanges.getReferencesToAdd(), builder),
+                nodesToDelete,
+                references(gChanges.getReferencesToDelete(), builder)
+            );
+        } finally {
+            JaxbPool.releaseMarshaller(marshaller);
+        }
+    }
+
+    private static List<Reference> references(ReferencesToChange gReferences, UaNodeSetBuilder builder)
+        throws JAXBException {
+
+        if (gReferences == null) return Collections.emptyList();
+
+        List<Reference> references = new ArrayList<>(gReferences.getReference().size());
+
+        for (ReferenceChange gReference : gReferences.getReference()) {
+            references.add(new Reference(
+                resolveNodeId(builder, gReference.getSource()),
+                resolveNodeId(builder, gReference.getReferenceType()),
+                resolveNodeId(builder, gReference.getValue()).expanded(),
+                gReference.isIsForward()
+            ));
+        }
+
+        return references;
+    }
+
+    private static NodeId resolveNodeId(UaNodeSetBuilder builder, String id) throws JAXBException {
+        if (id == null) {
+            throw new UnmarshalException("missing NodeId");
+        }
+
+        try {
+            return builder.resolveNodeId(id.trim());
+        } catch (IllegalArgumentException e) {
+            throw new UnmarshalException("invalid NodeId: " + id, e);
+        }
+    }
+
+    /**
+     * A node to delete.
+     */
+    public static final class NodeToDelete {
+
+        private final NodeId nodeId;
+        private final boolean deleteReverseReferences;
+
+        NodeToDelete(NodeId nodeId, boolean deleteReverseReferences) {
+            this.nodeId = nodeId;
+            this.deleteReverseReferences = deleteReverseReferences;
+        }
+
+        public NodeId getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * @return {@code true} if references from other nodes to this node are deleted along with it.
+         */
+        public boolean isDeleteReverseReferences() {
+            return deleteReverseReferences;
+        }
+
+    }
+
+    /**
+     * The modifications made to a {@link UaNodeSet}, recorded so they can be undone.
+     */
+    private static final class Transaction {
+
+        private final Deque<Runnable> undo = new ArrayDeque<>();
+
+        private final UaNodeSet nodeSet;
+        private final Map<NodeId, NodeAttributes> nodes;
+        private final ListMultimap<NodeId, Reference> explicitReferences;
+        private final ListMultimap<NodeId, Reference> implicitReferences;
+        private final NamespaceTable namespaceTable;
+
+        private boolean failed;
+
+        Transaction(UaNodeSet nodeSet) {
+            this.nodeSet = nodeSet;
+
+            nodes = nodeSet.getNodes();
+            explicitReferences = nodeSet.getExplicitReferences();
+            implicitReferences = nodeSet.getImplicitReferences();
+            namespaceTable = nodeSet.getNamespaceTable();
+        }
+
+        NodeSetStatus addNode(NodeId nodeId, UaNodeSet added) {
+            if (nodes.containsKey(nodeId)) {
+                return bad(StatusCodes.Bad_NodeIdExists, nodeId, "node already exists");
+            }
+
+            put(nodes, nodeId, added.getNodes().get(nodeId));
+            put(nodeSet.getDataTypeDefinitions(), nodeId, added.getDataTypeDefinitions().get(nodeId));
+            put(nodeSet.getRawXmlValues(), nodeId, added.getRawXmlValues().get(nodeId));
+
+            // references of a new node may already be present as inverses of references to it
+            for (Reference reference : added.getExplicitReferences().get(nodeId)) {
+                if (!containsReference(reference)) {
+                    putReference(explicitReferences, reference);
+                }
+
+                reference.invert(namespaceTable).ifPresent(inverse -> {
+                    if (!containsReference(inverse)) {
+                        putReference(implicitReferences, inverse);
+                    }
+                });
+            }
+
+            return good(nodeId.toParseableString());
+        }
+
+        NodeSetStatus addReference(Reference reference) {
+            NodeId sourceNodeId = reference.getSourceNodeId();
+
+            if (!nodes.containsKey(sourceNodeId)) {
+                return bad(StatusCodes.Bad_SourceNodeIdInvalid, reference, "source node doesn't exist");
+            }
+            if (containsReference(reference)) {
+                return bad(StatusCodes.Bad_DuplicateReferenceNotAllowed, reference, "reference already exists");
+            }
+
+            putReference(explicitReferences, reference);
+
+            reference.invert(namespaceTable).ifPresent(inverse -> {
+                if (!containsReference(inverse)) {
+                    putReference(implicitReferences, inverse);
+                }
+            });
+
+            return good(describe(reference));
+        }
+
+        NodeSetStatus deleteNode(NodeId nodeId, boolean deleteReverseReferences) {
+            if (!nodes.containsKey(nodeId)) {
+                return bad(StatusCodes.Bad_NodeIdUnknown, nodeId, "node doesn't exist");
+            }
+
+            remove(nodes, nodeId);
+            remove(nodeSet.getDataTypeDefinitions(), nodeId);
+            remove(nodeSet.getRawXmlValues(), nodeId);
+
+            List<Reference> references = new ArrayList<>(explicitReferences.get(nodeId));
+            references.addAll(implicitReferences.get(nodeId));
+
+            for (Reference reference : references) {
+                removeReference(explicitReferences, reference);
+                removeReference(implicitReferences, reference);
+
+                // inverses derived from this node's references go with it; those defined by other nodes only if asked
+                reference.invert(namespaceTable).ifPresent(inverse -> {
+                    removeReference(implicitReferences, inverse);
+
+                    if (deleteReverseReferences) {
+                        removeReference(explicitReferences, inverse);
+                    }
+                });
+            }
+
+            return good(nodeId.toParseableString());
+        }
+
+        NodeSetStatus deleteReference(Reference reference) {
+            if (!nodes.containsKey(reference.getSourceNodeId())) {
+                return bad(StatusCodes.Bad_SourceNodeIdInvalid, reference, "source node doesn't exist");
+            }
+
+            boolean removed = removeReference(explicitReferences, reference);
+            removed |= removeReference(implicitReferences, reference);
+
+            if (!removed) {
+                return bad(StatusCodes.Bad_NotFound, reference, "reference doesn't exist");
+            }
+
+            reference.invert(namespaceTable).ifPresent(inverse -> {
+                removeReference(explicitReferences, inverse);
+                removeReference(implicitReferences, inverse);
+            });
+
+            return good(describe(reference));
+        }
+
+        /**
+         * Undo every modification, most recent first.
+         */
+        void rollback() {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+        }
+
+        private boolean containsReference(Reference reference) {
+            NodeId sourceNodeId = reference.getSourceNodeId();
+
+            return explicitReferences.containsEntry(sourceNodeId, reference) ||
+                implicitReferences.containsEntry(sourceNodeId, reference);
+        }
+
+        private <V> void put(Map<NodeId, V> map, NodeId key, V value) {
+            if (value == null) return;
+
+            V previous = map.put(key, value);
+
+            undo.push(() -> {
+                if (previous == null) {
+                    map.remove(key);
+                } else {
+                    map.put(key, previous);
+                }
+            });
+        }
+
+        private <V> void remove(Map<NodeId, V> map, NodeId key) {
+            V previous = map.remove(key);
+
+            if (previous != null) {
+                undo.push(() -> map.put(key, previous));
+            }
+        }
+
+        private void putReference(ListMultimap<NodeId, Reference> references, Reference reference) {
+            NodeId sourceNodeId = reference.getSourceNodeId();
+
+            references.put(sourceNodeId, reference);
+
+            undo.push(() -> {
+                List<Reference> list = references.get(sourceNodeId);
+                list.remove(list.lastIndexOf(reference));
+            });
+        }
+
+        private boolean removeReference(ListMultimap<NodeId, Reference> references, Reference reference) {
+            NodeId sourceNodeId = reference.getSourceNodeId();
+            List<Reference> list = references.get(sourceNodeId);
+
+            int index = list.indexOf(reference);
+            if (index < 0) return false;
+
+            list.remove(index);
+
+            // restored at the same position so the order of references is unchanged by a rollback
+            undo.push(() -> references.get(sourceNodeId).add(index, reference));
+
+            return true;
+        }
+
+        private NodeSetStatus bad(long code, Object subject, String reason) {
+            failed = true;
+
+            String description = subject instanceof Reference ?
+                describe((Reference) subject) :
+                ((NodeId) subject).toParseableString();
+
+            return status(code, description + ": " + reason);
+        }
+
+        private static NodeSetStatus good(String description) {
+            return status(StatusCodes.Good, description);
+        }
+
+        private static NodeSetStatus status(long code, String value) {
+            NodeSetStatus status = new NodeSetStatus();
+            status.setCode(code);
+            status.setValue(value);
+            return status;
+        }
+
+        private static String describe(Reference reference) {
+            return reference.getSourceNodeId().toParseableString() +
+                (reference.isForward() ? " -[" : " <-[") +
+                reference.getReferenceTypeId().toParseableString() +
+                (reference.isForward() ? "]-> " : "]- ") +
+                reference.getTargetNodeId().toParseableString();
+        }
+
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * The differences between two versions of a node set, e.g. a previously parsed document and a newer release of it.
+ * <p>
+ * Nodes are compared by a hash of their content: every attribute, their DataTypeDefinition and their raw XML value.
+ * Value timestamps are not part of the content. References are compared per source node, with explicit and implicit
+ * references combined as in {@link UaNodeSet#getCombinedReferences()}, which is what an address space built from a
+ * node set holds.
+ * <p>
+ * A server can bring an address space built from the previous node set up to date by removing
+ * {@link #getRemovedNodes()}, adding {@link #getAddedNodes()}, replacing the attributes of
+ * {@link #getChangedNodes()}, then removing and adding the references in {@link #getRemovedReferences()} and
+ * {@link #getAddedReferences()}.
+ */
+public final class UaNodeSetDiff {
+
+    private static final HashFunction CONTENT_HASH = Hashing.murmur3_128();
+
+    private final Map<NodeId, NodeAttributes> addedNodes;
+    private final Map<NodeId, NodeAttributes> removedNodes;
+    private final Map<NodeId, NodeAttributes> changedNodes;
+    private final ListMultimap<NodeId, Reference> addedReferences;
+    private final ListMultimap<NodeId, Reference> removedReferences;
+
+    private UaNodeSetDiff(
+        Map<NodeId, NodeAttributes> addedNodes,
+        Map<NodeId, NodeAttributes> removedNodes,
+        Map<NodeId, NodeAttributes> changedNodes,
+        ListMultimap<NodeId, Reference> addedReferences,
+        ListMultimap<NodeId, Reference> removedReferences
+    ) {
+
+        this.addedNodes = Collections.unmodifiableMap(addedNodes);
+        this.removedNodes = Collections.unmodifiableMap(removedNodes);
+        this.changedNodes = Collections.unmodifiableMap(changedNodes);
+        this.addedReferences = Multimaps.unmodifiableListMultimap(addedReferences);
+        this.removedReferences = Multimaps.unmodifiableListMultimap(removedReferences);
+    }
+
+    /**
+     * @return the nodes only in the current node set.
+     */
+    public Map<NodeId, NodeAttributes> getAddedNodes() {
+        return addedNodes;
+    }
+
+    /**
+     * @return the nodes only in the previous node set, with their previous attributes.
+     */
+    public Map<NodeId, NodeAttributes> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    /**
+     * @return the nodes in both node sets whose content differs, with their current attributes.
+     */
+    public Map<NodeId, NodeAttributes> getChangedNodes() {
+        return changedNodes;
+    }
+
+    /**
+     * @return the references only in the current node set, keyed by source node.
+     */
+    public ListMultimap<NodeId, Reference> getAddedReferences() {
+        return addedReferences;
+    }
+
+    /**
+     * @return the references only in the previous node set, keyed by source node.
+     */
+    public ListMultimap<NodeId, Reference> getRemovedReferences() {
+        return removedReferences;
+    }
+
+    /**
+     * @return {@code true} if the node sets have the same nodes and references.
+     */
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() &&
+            removedNodes.isEmpty() &&
+            changedNodes.isEmpty() &&
+            addedReferences.isEmpty() &&
+            removedReferences.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "UaNodeSetDiff{" +
+            "addedNodes=" + addedNodes.size() +
+            ", removedNodes=" + removedNodes.size() +
+            ", changedNodes=" + changedNodes.size() +
+            ", addedReferences=" + addedReferences.size() +
+            ", removedReferences=" + removedReferences.size() +
+            '}';
+    }
+
+    /**
+     * Compute the differences from {@code previous} to {@code current}.
+     * <p>
+     * Namespace indices of {@code previous} must mean the same in {@code current}; {@code current} may add namespaces
+     * after them. This is the case for two versions of the same document, or for two merges of node sets in the same
+     * order. Lazily parsed values of nodes in both node sets are decoded in order to be compared.
+     *
+     * @param previous the previous version of the node set.
+     * @param current  the current version of the node set.
+     * @return a {@link UaNodeSetDiff} from {@code previous} to {@code current}.
+     * @throws IllegalArgumentException if the namespace table of {@code previous} isn't a prefix of the namespace table
+     *                                  of {@code current}.
+     */
+    public static UaNodeSetDiff compute(UaNodeSet previous, UaNodeSet current) {
+        String[] previousUris = previous.getNamespaceTable().toArray();
+        String[] currentUris = current.getNamespaceTable().toArray();
+
+        // a namespace missing from current would translate to nothing and so look unchanged; require a prefix instead
+        if (previousUris.length > currentUris.length ||
+            !Arrays.equals(previousUris, Arrays.copyOf(currentUris, previousUris.length))) {
+
+            throw new IllegalArgumentException("namespace indices of previous node set changed in current node set");
+        }
+
+        Map<NodeId, NodeAttributes> addedNodes = new HashMap<>();
+        Map<NodeId, NodeAttributes> removedNodes = new HashMap<>();
+        Map<NodeId, NodeAttributes> changedNodes = new HashMap<>();
+
+        ByteBuf buffer = Unpooled.buffer();
+        UaNodeSetSnapshot.Encoder encoder = new UaNodeSetSnapshot.Encoder(buffer, false);
+
+        try {
+            current.getNodes().forEach((nodeId, attributes) -> {
+                NodeAttributes previousAttributes = previous.getNodes().get(nodeId);
+
+                if (previousAttributes == null) {
+                    addedNodes.put(nodeId, attributes);
+                } else if (!hashContent(previous, previousAttributes, encoder, buffer)
+                    .equals(hashContent(current, attributes, encoder, buffer))) {
+
+                    changedNodes.put(nodeId, attributes);
+                }
+            });
+        } finally {
+            buffer.release();
+        }
+
+        previous.getNodes().forEach((nodeId, attributes) -> {
+            if (!current.getNodes().containsKey(nodeId)) {
+                removedNodes.put(nodeId, attributes);
+            }
+        });
+
+        ListMultimap<NodeId, Reference> addedReferences = ArrayListMultimap.create();
+        ListMultimap<NodeId, Reference> removedReferences = ArrayListMultimap.create();
+
+        ListMultimap<NodeId, Reference> previousReferences = previous.getCombinedReferences();
+        ListMultimap<NodeId, Reference> currentReferences = current.getCombinedReferences();
+
+        for (NodeId sourceNodeId : currentReferences.keySet()) {
+            List<Reference> references = currentReferences.get(sourceNodeId);
+            List<Reference> previousList = previousReferences.get(sourceNodeId);
+
+            // most nodes' references are unchanged, and in the same order
+            if (references.equals(previousList)) continue;
+
+            Set<Reference> before = new LinkedHashSet<>(previousList);
+            Set<Reference> after = new LinkedHashSet<>(references);
+
+            for (Reference reference : after) {
+                if (!before.contains(reference)) addedReferences.put(sourceNodeId, reference);
+            }
+            for (Reference reference : before) {
+                if (!after.contains(reference)) removedReferences.put(sourceNodeId, reference);
+            }
+        }
+
+        for (NodeId sourceNodeId : previousReferences.keySet()) {
+            if (!currentReferences.containsKey(sourceNodeId)) {
+                removedReferences.putAll(sourceNodeId, new LinkedHashSet<>(previousReferences.get(sourceNodeId)));
+            }
+        }
+
+        return new UaNodeSetDiff(addedNodes, removedNodes, changedNodes, addedReferences, removedReferences);
+    }
+
+    /**
+     * Hash the content of a node, encoded into {@code buffer} by {@code encoder} as a snapshot would encode it.
+     */
+    private static HashCode hashContent(
+        UaNodeSet nodeSet,
+        NodeAttributes attributes,
+        UaNodeSetSnapshot.Encoder encoder,
+        ByteBuf buffer
+    ) {
+
+        NodeId nodeId = attributes.getNodeId();
+
+        buffer.clear();
+
+        encoder.writeNodeContent(
+            attributes,
+            nodeSet.getDataTypeDefinitions().get(nodeId),
+            nodeSet.getRawXmlValues().get(nodeId)
+        );
+
+        return CONTENT_HASH.hashBytes(buffer.array(), buffer.arrayOffset(), buffer.readableBytes());
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * The header of a UANodeSet document: its namespace URIs, model table and aliases.
+ * <p>
+ * {@link #scan(InputStream)} reads the header with a pull parser and stops at the first node element, without
+ * unmarshalling anything, so scanning a file costs about the same however many nodes it contains. Use it to take an
+ * inventory of nodeset files before deciding which to parse.
+ */
+public final class UaNodeSetHeader {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = UaNodeSetStreamParser.createXmlInputFactory();
+
+    private final List<String> namespaceUris;
+    private final List<Model> models;
+    private final Map<String, NodeId> aliases;
+    private final DateTime lastModified;
+    private final NodeId firstNodeId;
+
+    private UaNodeSetHeader(
+        List<String> namespaceUris,
+        List<Model> models,
+        Map<String, NodeId> aliases,
+        DateTime lastModified,
+        NodeId firstNodeId
+    ) {
+
+        this.namespaceUris = Collections.unmodifiableList(namespaceUris);
+        this.models = Collections.unmodifiableList(models);
+        this.aliases = Collections.unmodifiableMap(aliases);
+        this.lastModified = lastModified;
+        this.firstNodeId = firstNodeId;
+    }
+
+    /**
+     * @return the URIs in the {@code NamespaceUris} table; the first is namespace index 1.
+     */
+    public List<String> getNamespaceUris() {
+        return namespaceUris;
+    }
+
+    /**
+     * @return the entries of the {@code Models} table, empty if the document doesn't have one.
+     */
+    public List<Model> getModels() {
+        return models;
+    }
+
+    /**
+     * @return the {@code Aliases} table; aliases whose value isn't a valid NodeId are left out.
+     */
+    public Map<String, NodeId> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * @return the {@code LastModified} attribute of the document, or {@code null} if it doesn't have one.
+     */
+    public DateTime getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the NodeId of the first node in the document, resolved against the aliases, or {@code null} if the
+     * document has no nodes or it could not be resolved.
+     */
+    public NodeId getFirstNodeId() {
+        return firstNodeId;
+    }
+
+    @Override
+    public String toString() {
+        return "UaNodeSetHeader{" +
+            "namespaceUris=" + namespaceUris +
+            ", models=" + models +
+            ", aliases=" + aliases.size() +
+            ", lastModified=" + lastModified +
+            ", firstNodeId=" + firstNodeId +
+            '}';
+    }
+
+    /**
+     * Read the header of the UANodeSet document in {@code file}.
+     *
+     * @param file the UANodeSet file.
+     * @return the {@link UaNodeSetHeader} of the document.
+     * @throws IOException if the file could not be read or isn't well-formed XML.
+     * @see #scan(InputStream)
+     */
+    public static UaNodeSetHeader scan(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return scan(in);
+        }
+    }
+
+    /**
+     * Read the header of a UANodeSet document, stopping at its first node element.
+     *
+     * @param nodeSetXml an {@link InputStream} containing the UANodeSet XML; it is not closed.
+     * @return the {@link UaNodeSetHeader} of the document.
+     * @throws IOException if the document could not be read or isn't well-formed XML.
+     */
+    public static UaNodeSetHeader scan(InputStream nodeSetXml) throws IOException {
+        List<String> namespaceUris = new ArrayList<>();
+        List<Model> models = new ArrayList<>();
+        Map<String, NodeId> aliases = new LinkedHashMap<>();
+        DateTime lastModified = null;
+        String firstNodeId = null;
+
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(nodeSetXml);
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+
+                    String localName = reader.getLocalName();
+
+                    if ("UANodeSet".equals(localName)) {
+                        lastModified = parseDateTime(reader.getAttributeValue(null, "LastModified"));
+                    } else if ("NamespaceUris".equals(localName)) {
+                        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                            namespaceUris.add(reader.getElementText().trim());
+                        }
+                    } else if ("Models".equals(localName)) {
+                        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                            models.add(readModel(reader));
+                        }
+                    } else if ("Aliases".equals(localName)) {
+                        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                            String alias = reader.getAttributeValue(null, "Alias");
+
+                            NodeId.parseSafe(reader.getElementText().trim())
+                                .ifPresent(nodeId -> aliases.put(alias, nodeId));
+                        }
+                    } else if (localName.startsWith("UA")) {
+                        firstNodeId = reader.getAttributeValue(null, "NodeId");
+                        break;
+                    } else {
+                        skipChildren(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("unable to scan UANodeSet header", e);
+        }
+
+        return new UaNodeSetHeader(
+            namespaceUris,
+            models,
+            aliases,
+            lastModified,
+            resolveNodeId(firstNodeId, aliases)
+        );
+    }
+
+    /**
+     * Read the ModelTableEntry {@code reader} is positioned on, leaving it on the entry's end element. Children other
+     * than {@code RequiredModel}, e.g. {@code RolePermissions}, are skipped.
+     */
+    private static Model readModel(XMLStreamReader reader) throws XMLStreamException {
+        String modelUri = reader.getAttributeValue(null, "ModelUri");
+        String version = reader.getAttributeValue(null, "Version");
+        DateTime publicationDate = parseDateTime(reader.getAttributeValue(null, "PublicationDate"));
+
+        List<Model> requiredModels = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("RequiredModel".equals(reader.getLocalName())) {
+                requiredModels.add(readModel(reader));
+            } else {
+                skipChildren(reader);
+            }
+        }
+
+        return new Model(modelUri, version, publicationDate, requiredModels);
+    }
+
+    /**
+     * Skip the children of the element {@code reader} is positioned on, leaving it on the element's end element.
+     */
+    private static void skipChildren(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 0;
+
+        while (true) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT && depth-- == 0) {
+                return;
+            }
+        }
+    }
+
+    private static DateTime parseDateTime(String dateTime) {
+        if (dateTime == null) return null;
+
+        try {
+            return new DateTime(DatatypeConverter.parseDateTime(dateTime.trim()).getTime());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static NodeId resolveNodeId(String id, Map<String, NodeId> aliases) {
+        if (id == null) return null;
+
+        return NodeId.parseSafe(id).orElse(aliases.get(id));
+    }
+
+    /**
+     * An entry of the {@code Models} table, or a model it requires.
+     */
+    public static final class Model {
+
+        private final String modelUri;
+        private final String version;
+        private final DateTime publicationDate;
+        private final List<Model> requiredModels;
+
+        Model(String modelUri, String version, DateTime publicationDate, List<Model> requiredModels) {
+            this.modelUri = modelUri;
+            this.version = version;
+            this.publicationDate = publicationDate;
+            this.requiredModels = Collections.unmodifiableList(requiredModels);
+        }
+
+        public String getModelUri() {
+            return modelUri;
+        }
+
+        /**
+         * @return the version of the model, or {@code null} if not specified.
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the publication date of the model, or {@code null} if not specified.
+         */
+        public DateTime getPublicationDate() {
+            return publicationDate;
+        }
+
+        /**
+         * @return the models this model requires.
+         */
+        public List<Model> getRequiredModels() {
+            return requiredModels;
+        }
+
+        @Override
+        public String toString() {
+            return "Model{" +
+                "modelUri='" + modelUri + '\'' +
+                ", version='" + version + '\'' +
+                ", publicationDate=" + publicationDate +
+                ", requiredModels=" + requiredModels +
+                '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,451 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a set of UANodeSet files into a single {@link UaNodeSet}, merging them in the order their models depend on
+ * each other.
+ * <p>
+ * Only the header of each file is read, with {@link UaNodeSetHeader#scan(Path)}, to learn the models it defines and
+ * requires. The {@code Models} table is used when present. Otherwise the file is assumed to define the model of the
+ * namespace its first node belongs to and to require the Core model. Each other namespace in its
+ * {@code NamespaceUris} is required if another file defines it, and otherwise taken to be defined by the file itself.
+ * <p>
+ * When several files define the same model only the one with the latest publication date is loaded, so a shared
+ * dependency such as Core or DI is parsed once no matter how many models require it. The selected files are parsed
+ * independently, in parallel if an {@link Executor} is configured, and merged with a single
+ * {@link UaNodeSetMerger#mergeAll(List, MergeOptions)} in dependency order.
+ * <pre>{@code
+ * UaNodeSet nodeSet = UaNodeSetLoader.builder()
+ *     .setExecutor(ForkJoinPool.commonPool())
+ *     .build()
+ *     .load(Paths.get("nodesets"));
+ * }</pre>
+ */
+public final class UaNodeSetLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UaNodeSetLoader.class);
+
+    private static final String CORE_MODEL_URI = "http://opcfoundation.org/UA/";
+
+    private final ParseOptions parseOptions;
+    private final MergeOptions mergeOptions;
+    private final Executor executor;
+    private final UaNodeSetCache cache;
+
+    private UaNodeSetLoader(Builder builder) {
+        this.parseOptions = builder.parseOptions;
+        this.mergeOptions = builder.mergeOptions;
+        this.executor = builder.executor;
+        this.cache = builder.cache;
+    }
+
+    /**
+     * Load every {@code .xml} file in {@code directory} and its subdirectories.
+     *
+     * @param directory the directory containing the UANodeSet files.
+     * @return the merged {@link UaNodeSet}.
+     * @throws IOException              if a file could not be read.
+     * @throws JAXBException            if a file could not be unmarshalled.
+     * @throws IllegalArgumentException if a required model isn't defined by any file or the models depend on each
+     *                                  other cyclically.
+     * @see #load(List)
+     */
+    public UaNodeSet load(Path directory) throws IOException, JAXBException {
+        return load(listFiles(directory));
+    }
+
+    /**
+     * Load {@code files}, in dependency order.
+     *
+     * @param files the UANodeSet files, in any order.
+     * @return the merged {@link UaNodeSet}.
+     * @throws IOException              if a file could not be read.
+     * @throws JAXBException            if a file could not be unmarshalled.
+     * @throws IllegalArgumentException if {@code files} is empty, a required model isn't defined by any file, or the
+     *                                  models depend on each other cyclically.
+     */
+    public UaNodeSet load(List<Path> files) throws IOException, JAXBException {
+        List<Path> loadOrder = resolveLoadOrder(files);
+
+        List<CompletableFuture<UaNodeSet>> parsed = new ArrayList<>(loadOrder.size());
+
+        for (Path file : loadOrder) {
+            if (executor != null) {
+                parsed.add(CompletableFuture.supplyAsync(() -> parseUnchecked(file), executor));
+            } else {
+                parsed.add(CompletableFuture.completedFuture(parse(file)));
+            }
+        }
+
+        List<UaNodeSet> nodeSets = new ArrayList<>(parsed.size());
+
+        for (CompletableFuture<UaNodeSet> nodeSet : parsed) {
+            try {
+                nodeSets.add(nodeSet.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof JaxbCompletionException) {
+                    throw ((JaxbCompletionException) cause).getCause();
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        return UaNodeSetMerger.mergeAll(nodeSets, mergeOptions);
+    }
+
+    /**
+     * Determine which of {@code files} would be loaded and in what order, without parsing them.
+     * <p>
+     * Files that define the same model as a file with a later publication date are left out. Every file comes after
+     * the files defining the models it requires; otherwise files keep their order in {@code files}.
+     *
+     * @param files the UANodeSet files, in any order.
+     * @return the files to load, in dependency order.
+     * @throws IOException              if a file header could not be read.
+     * @throws IllegalArgumentException if {@code files} is empty, a required model isn't defined by any file, or the
+     *                                  models depend on each other cyclically.
+     */
+    public List<Path> resolveLoadOrder(List<Path> files) throws IOException {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("files must not be empty");
+        }
+
+        List<ModelFile> modelFiles = new ArrayList<>(files.size());
+        for (Path file : files) {
+            modelFiles.add(ModelFile.create(file, UaNodeSetHeader.scan(file)));
+        }
+
+        // the file each model is taken from; a model defined by several files is taken from the newest
+        Map<String, ModelFile> selected = new LinkedHashMap<>();
+
+        for (ModelFile modelFile : modelFiles) {
+            ModelFile existing = selected.get(modelFile.modelUri);
+
+            if (existing == null) {
+                selected.put(modelFile.modelUri, modelFile);
+            } else if (modelFile.publicationDate > existing.publicationDate) {
+                LOGGER.debug("{} supersedes {} for model {}", modelFile.path, existing.path, modelFile.modelUri);
+                selected.put(modelFile.modelUri, modelFile);
+            } else {
+                LOGGER.debug("{} superseded by {} for model {}", modelFile.path, existing.path, modelFile.modelUri);
+            }
+        }
+
+        Map<String, ModelFile> byModelUri = new HashMap<>(selected);
+        for (ModelFile modelFile : selected.values()) {
+            for (String modelUri : modelFile.modelUris) {
+                byModelUri.putIfAbsent(modelUri, modelFile);
+            }
+        }
+
+        // keep the input order among files that are free to load
+        List<ModelFile> candidates = modelFiles.stream()
+            .filter(f -> selected.get(f.modelUri) == f)
+            .collect(Collectors.toList());
+
+        // a namespace no file defines belongs to the first file without a Models table that uses it
+        Map<ModelFile, Set<String>> requiredModelUris = new HashMap<>();
+
+        for (ModelFile modelFile : candidates) {
+            Set<String> required = new LinkedHashSet<>(modelFile.requiredModelUris);
+
+            for (String namespaceUri : modelFile.namespaceUris) {
+                ModelFile owner = byModelUri.putIfAbsent(namespaceUri, modelFile);
+
+                if (owner != null && owner != modelFile) {
+                    required.add(namespaceUri);
+                }
+            }
+
+            requiredModelUris.put(modelFile, required);
+        }
+
+        Map<ModelFile, Set<ModelFile>> dependencies = new HashMap<>();
+
+        for (ModelFile modelFile : candidates) {
+            Set<ModelFile> required = new LinkedHashSet<>();
+
+            for (String requiredModelUri : requiredModelUris.get(modelFile)) {
+                ModelFile dependency = byModelUri.get(requiredModelUri);
+
+                if (dependency == null) {
+                    throw new IllegalArgumentException(String.format(
+                        "%s requires model %s, which is not defined by any of the files",
+                        modelFile.path, requiredModelUri
+                    ));
+                }
+
+                if (dependency != modelFile) {
+                    required.add(dependency);
+                }
+            }
+
+            dependencies.put(modelFile, required);
+        }
+
+        return sort(candidates, dependencies);
+    }
+
+    private UaNodeSet parse(Path file) throws IOException, JAXBException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return cache != null ? cache.parse(in, parseOptions) : UaNodeSet.parse(in, parseOptions);
+        }
+    }
+
+    private UaNodeSet parseUnchecked(Path file) {
+        try {
+            return parse(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (JAXBException e) {
+            throw new JaxbCompletionException(e);
+        }
+    }
+
+    /**
+     * Order {@code modelFiles} so that each comes after its dependencies, preferring the order of
+     * {@code modelFiles} among files that are free to load.
+     */
+    private static List<Path> sort(List<ModelFile> modelFiles, Map<ModelFile, Set<ModelFile>> dependencies) {
+        List<Path> sorted = new ArrayList<>(modelFiles.size());
+        Set<ModelFile> loaded = new LinkedHashSet<>();
+        Deque<ModelFile> remaining = new ArrayDeque<>(modelFiles);
+
+        while (!remaining.isEmpty()) {
+            ModelFile next = null;
+
+            for (ModelFile modelFile : remaining) {
+                if (loaded.containsAll(dependencies.get(modelFile))) {
+                    next = modelFile;
+                    break;
+                }
+            }
+
+            if (next == null) {
+                throw new IllegalArgumentException("cyclic model dependencies: " + remaining.stream()
+                    .map(f -> f.modelUri)
+                    .collect(Collectors.joining(", ")));
+            }
+
+            remaining.remove(next);
+            loaded.add(next);
+            sorted.add(next.path);
+        }
+
+        return sorted;
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(p -> p.getFileName().toString().endsWith(".xml"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The models a file defines and requires.
+     * <p>
+     * {@code namespaceUris} are the namespaces of a file without a {@code Models} table that may belong either to a
+     * model it requires or to the file itself; which one is only known once every file has been scanned.
+     */
+    private static final class ModelFile {
+
+        final Path path;
+        final String modelUri;
+        final Set<String> modelUris;
+        final Set<String> requiredModelUris;
+        final Set<String> namespaceUris;
+        final long publicationDate;
+
+        private ModelFile(
+            Path path,
+            String modelUri,
+            Set<String> modelUris,
+            Set<String> requiredModelUris,
+            Set<String> namespaceUris,
+            long publicationDate
+        ) {
+
+            this.path = path;
+            this.modelUri = modelUri;
+            this.modelUris = modelUris;
+            this.requiredModelUris = requiredModelUris;
+            this.namespaceUris = namespaceUris;
+            this.publicationDate = publicationDate;
+        }
+
+        static ModelFile create(Path path, UaNodeSetHeader header) {
+            Set<String> modelUris = new LinkedHashSet<>();
+            Set<String> requiredModelUris = new LinkedHashSet<>();
+            Set<String> namespaceUris = new LinkedHashSet<>();
+            long publicationDate = header.getLastModified() != null ?
+                header.getLastModified().getJavaTime() : Long.MIN_VALUE;
+
+            for (UaNodeSetHeader.Model model : header.getModels()) {
+                if (model.getModelUri() == null) continue;
+
+                if (modelUris.isEmpty() && model.getPublicationDate() != null) {
+                    publicationDate = model.getPublicationDate().getJavaTime();
+                }
+
+                modelUris.add(model.getModelUri());
+
+                for (UaNodeSetHeader.Model requiredModel : model.getRequiredModels()) {
+                    if (requiredModel.getModelUri() != null) {
+                        requiredModelUris.add(requiredModel.getModelUri());
+                    }
+                }
+            }
+
+            if (modelUris.isEmpty()) {
+                modelUris.add(inferModelUri(header));
+
+                requiredModelUris.add(CORE_MODEL_URI);
+                namespaceUris.addAll(header.getNamespaceUris());
+            }
+
+            requiredModelUris.removeAll(modelUris);
+            namespaceUris.removeAll(modelUris);
+
+            return new ModelFile(
+                path,
+                modelUris.iterator().next(),
+                modelUris,
+                requiredModelUris,
+                namespaceUris,
+                publicationDate
+            );
+        }
+
+        /**
+         * Infer the model a file without a {@code Models} table defines from the namespace of its first node, or
+         * failing that its first namespace URI.
+         */
+        private static String inferModelUri(UaNodeSetHeader header) {
+            List<String> namespaceUris = header.getNamespaceUris();
+            NodeId firstNodeId = header.getFirstNodeId();
+
+            if (firstNodeId != null) {
+                int namespaceIndex = firstNodeId.getNamespaceIndex().intValue();
+
+                if (namespaceIndex == 0) {
+                    return CORE_MODEL_URI;
+                } else if (namespaceIndex <= namespaceUris.size()) {
+                    return namespaceUris.get(namespaceIndex - 1);
+                }
+            }
+
+            return namespaceUris.isEmpty() ? CORE_MODEL_URI : namespaceUris.get(0);
+        }
+
+    }
+
+    /**
+     * Carries a {@link JAXBException} out of a parse task.
+     */
+    private static final class JaxbCompletionException extends RuntimeException {
+
+        JaxbCompletionException(JAXBException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JAXBException getCause() {
+            return (JAXBException) super.getCause();
+        }
+
+    }
+
+    public static final class Builder {
+
+        private ParseOptions parseOptions = ParseOptions.DEFAULT;
+        private MergeOptions mergeOptions = MergeOptions.DEFAULT;
+        private Executor executor = null;
+        private UaNodeSetCache cache = null;
+
+        private Builder() {}
+
+        /**
+         * @param parseOptions the {@link ParseOptions} each file is parsed with.
+         * @return this {@link Builder}.
+         */
+        public Builder setParseOptions(ParseOptions parseOptions) {
+            this.parseOptions = parseOptions;
+            return this;
+        }
+
+        /**
+         * @param mergeOptions the {@link MergeOptions} the parsed files are merged with.
+         * @return this {@link Builder}.
+         */
+        public Builder setMergeOptions(MergeOptions mergeOptions) {
+            this.mergeOptions = mergeOptions;
+            return this;
+        }
+
+        /**
+         * Parse files concurrently on {@code executor}, e.g. {@link java.util.concurrent.ForkJoinPool}.
+         *
+         * @param executor the {@link Executor} to parse files on, or {@code null} to parse them one at a time on the
+         *                 calling thread.
+         * @return this {@link Builder}.
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param cache a {@link UaNodeSetCache} to parse files through, or {@code null} to always parse them.
+         * @return this {@link Builder}.
+         */
+        public Builder setCache(UaNodeSetCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public UaNodeSetLoader build() {
+            return new UaNodeSetLoader(this);
+        }
+
+    }
+
+}
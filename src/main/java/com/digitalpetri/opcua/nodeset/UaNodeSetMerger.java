@@ -1,8 +1,18 @@
 package com.digitalpetri.opcua.nodeset;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.xml.stream.XMLStreamException;
 
 import com.digitalpetri.opcua.nodeset.attributes.DataTypeNodeAttributes;
 import com.digitalpetri.opcua.nodeset.attributes.MethodNodeAttributes;
@@ -13,24 +23,26 @@ import com.digitalpetri.opcua.nodeset.attributes.ReferenceTypeNodeAttributes;
 import com.digitalpetri.opcua.nodeset.attributes.VariableNodeAttributes;
 import com.digitalpetri.opcua.nodeset.attributes.VariableTypeNodeAttributes;
 import com.digitalpetri.opcua.nodeset.attributes.ViewNodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.IdentifierPool;
+import com.digitalpetri.opcua.nodeset.util.LazyValue;
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import com.digitalpetri.opcua.nodeset.util.OverlayMap;
+import com.digitalpetri.opcua.nodeset.util.RawXmlValues;
+import com.digitalpetri.opcua.nodeset.util.UnionListMultimap;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.stack.core.NamespaceTable;
-import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
-import org.eclipse.milo.opcua.stack.core.serialization.SerializationContext;
-import org.eclipse.milo.opcua.stack.core.types.DataTypeManager;
-import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
-import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
-import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
-import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
 import org.eclipse.milo.opcua.stack.core.util.ArrayUtil;
 import org.opcfoundation.ua.generated.DataTypeDefinition;
 import org.opcfoundation.ua.generated.DataTypeField;
@@ -44,208 +56,577 @@ public final class UaNodeSetMerger {
     private UaNodeSetMerger() {}
 
     public static UaNodeSet merge(UaNodeSet nodeSet1, UaNodeSet nodeSet2) {
-        Map<NodeId, NodeAttributes> nodes = new HashMap<>(nodeSet1.getNodes());
-        ListMultimap<NodeId, Reference> explicitReferences =
-            ArrayListMultimap.create(nodeSet1.getExplicitReferences());
-        ListMultimap<NodeId, Reference> implicitReferences =
-            ArrayListMultimap.create(nodeSet1.getImplicitReferences());
-        NamespaceTable namespaceTable = nodeSet1.getNamespaceTable();
-        Map<String, NodeId> aliasTable = new HashMap<>(nodeSet1.getAliasTable());
-        Map<NodeId, DataTypeDefinition> dataTypeDefinitions = new HashMap<>(nodeSet1.getDataTypeDefinitions());
-        Map<NodeId, String> rawXmlValues = new HashMap<>(nodeSet1.getRawXmlValues());
-
-        for (String uri : nodeSet2.getNamespaceTable().toArray()) {
-            UShort index = namespaceTable.getIndex(uri);
-            if (index == null) {
-                namespaceTable.addUri(uri);
+        return mergeAll(Arrays.asList(nodeSet1, nodeSet2));
+    }
+
+    /**
+     * Merge {@code nodeSets}, in order, into a new {@link UaNodeSet}.
+     * <p>
+     * The namespace table of the result is built up front from the namespace tables of all inputs and each input is
+     * re-indexed against it exactly once, so merging N node sets costs the same as copying them once rather than
+     * growing quadratically as repeated pairwise merges do.
+     * <p>
+     * When node sets define the same node, the definition from the later node set wins; references are accumulated
+     * from all node sets in order.
+     * <p>
+     * The inputs are not modified, and the result shares no mutable collections with them.
+     *
+     * @param nodeSets the {@link UaNodeSet}s to merge.
+     * @return a new {@link UaNodeSet} containing the contents of all {@code nodeSets}.
+     */
+    public static UaNodeSet mergeAll(List<UaNodeSet> nodeSets) {
+        return mergeAll(nodeSets, MergeOptions.DEFAULT);
+    }
+
+    /**
+     * Merge {@code nodeSets}, in order, into a new {@link UaNodeSet}.
+     *
+     * @param nodeSets the {@link UaNodeSet}s to merge.
+     * @param options  the {@link MergeOptions} to merge with.
+     * @return a new {@link UaNodeSet} containing the contents of all {@code nodeSets}.
+     * @see #mergeAll(List)
+     * @see MergeOptions.Builder#setShareFirstNodeSet(boolean)
+     */
+    public static UaNodeSet mergeAll(List<UaNodeSet> nodeSets, MergeOptions options) {
+        if (nodeSets.isEmpty()) {
+            throw new IllegalArgumentException("nodeSets must not be empty");
+        }
+
+        NamespaceTable namespaceTable = new NamespaceTable();
+
+        for (UaNodeSet nodeSet : nodeSets) {
+            for (String uri : nodeSet.getNamespaceTable().toArray()) {
+                if (uri != null && namespaceTable.getIndex(uri) == null) {
+                    namespaceTable.addUri(uri);
+                }
             }
         }
 
-        nodeSet2.getAliasTable().forEach((alias, nodeId) -> {
-            NodeId newNodeId = reindex(
-                nodeId,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
-            );
+        // the first node set can only be shared rather than copied when none of its namespace indices change
+        UaNodeSet base = nodeSets.get(0);
+        if (!options.isShareFirstNodeSet() ||
+            !NamespaceTranslation.create(base.getNamespaceTable(), namespaceTable).isIdentity()) {
 
-            NodeId collision = aliasTable.putIfAbsent(alias, newNodeId);
+            base = null;
+        }
 
-            if (collision != null && !Objects.equals(collision, newNodeId)) {
-                String warning = String.format(
-                    "Alias collision: \"%s\". " +
-                        "NodeId in nodeSet1=%s, NodeId in nodeSet2=%s",
-                    alias, collision, newNodeId
-                );
-                System.err.println(warning);
+        List<UaNodeSet> added = base != null ? nodeSets.subList(1, nodeSets.size()) : nodeSets;
+
+        int nodeCount = 0;
+        int explicitReferenceCount = 0;
+        int implicitReferenceCount = 0;
+        int aliasCount = 0;
+        int dataTypeDefinitionCount = 0;
+        int rawXmlValueCount = 0;
+
+        for (UaNodeSet nodeSet : added) {
+            nodeCount += nodeSet.getNodes().size();
+            explicitReferenceCount += nodeSet.getExplicitReferences().size();
+            implicitReferenceCount += nodeSet.getImplicitReferences().size();
+            aliasCount += nodeSet.getAliasTable().size();
+            dataTypeDefinitionCount += nodeSet.getDataTypeDefinitions().size();
+            rawXmlValueCount += RawXmlValues.entryCount(nodeSet.getRawXmlValues());
+        }
+
+        MergedNodeSet merged = new MergedNodeSet(
+            options.getStructReindexers(),
+            namespaceTable,
+            base,
+            nodeCount,
+            explicitReferenceCount,
+            implicitReferenceCount,
+            aliasCount,
+            dataTypeDefinitionCount,
+            rawXmlValueCount
+        );
+
+        long start = System.nanoTime();
+
+        if (options.getExecutor() == null) {
+            added.forEach(merged::add);
+        } else {
+            merged.addAll(added, options.getExecutor(), options.getChunkSize());
+        }
+
+        options.getListener().onPhaseCompleted(NodeSetListener.Phase.REINDEX, System.nanoTime() - start);
+
+        return merged.build();
+    }
+
+    /**
+     * Re-index {@code nodeSet} against {@code namespaceTable}, which must contain all of its namespace URIs.
+     *
+     * @param nodeSet          the {@link UaNodeSet} to re-index.
+     * @param namespaceTable   the {@link NamespaceTable} to re-index against.
+     * @param structReindexers the {@link StructReindexers} for structure values.
+     * @return a new {@link UaNodeSet} with the contents of {@code nodeSet} indexed against {@code namespaceTable}.
+     */
+    static UaNodeSet reindex(UaNodeSet nodeSet, NamespaceTable namespaceTable, StructReindexers structReindexers) {
+        MergedNodeSet reindexed = new MergedNodeSet(
+            structReindexers,
+            namespaceTable,
+            null,
+            nodeSet.getNodes().size(),
+            nodeSet.getExplicitReferences().size(),
+            nodeSet.getImplicitReferences().size(),
+            nodeSet.getAliasTable().size(),
+            nodeSet.getDataTypeDefinitions().size(),
+            RawXmlValues.entryCount(nodeSet.getRawXmlValues())
+        );
+
+        reindexed.add(nodeSet);
+
+        return reindexed.build();
+    }
+
+    /**
+     * The collections a {@link UaNodeSet} is merged into, sized once for all inputs.
+     * <p>
+     * If there is a {@code base} node set it is frozen, these collections only hold what the other inputs add, and
+     * the result is built as views that overlay them on the collections of {@code base}. If {@code base} is itself
+     * such a view, its additions are copied into these collections and the result overlays the node set it was
+     * built on, so views never nest.
+     */
+    private static final class MergedNodeSet {
+
+        private final IdentifierPool identifierPool = new IdentifierPool();
+
+        private final StructReindexers structReindexers;
+        private final NamespaceTable namespaceTable;
+        private final boolean shared;
+
+        private final Map<NodeId, NodeAttributes> nodes;
+        private final ListMultimap<NodeId, Reference> explicitReferences;
+        private final ListMultimap<NodeId, Reference> implicitReferences;
+        private final Map<String, NodeId> aliasTable;
+        private final Map<NodeId, DataTypeDefinition> dataTypeDefinitions;
+        private final RawXmlValues rawXmlValues;
+
+        private final Map<NodeId, NodeAttributes> baseNodes;
+        private final ListMultimap<NodeId, Reference> baseExplicitReferences;
+        private final ListMultimap<NodeId, Reference> baseImplicitReferences;
+        private final Map<NodeId, DataTypeDefinition> baseDataTypeDefinitions;
+        private final Map<NodeId, String> baseRawXmlValues;
+
+        /**
+         * {@link #aliasTable} overlaid on the aliases of the base node set, if any.
+         */
+        private final Map<String, NodeId> mergedAliasTable;
+
+        MergedNodeSet(
+            StructReindexers structReindexers,
+            NamespaceTable namespaceTable,
+            UaNodeSet base,
+            int nodeCount,
+            int explicitReferenceCount,
+            int implicitReferenceCount,
+            int aliasCount,
+            int dataTypeDefinitionCount,
+            int rawXmlValueCount
+        ) {
+
+            this.structReindexers = structReindexers;
+            this.namespaceTable = namespaceTable;
+            this.shared = base != null;
+
+            nodes = Maps.newHashMapWithExpectedSize(nodeCount);
+            explicitReferences = ArrayListMultimap.create(
+                nodeCount, valuesPerKey(explicitReferenceCount, nodeCount));
+            implicitReferences = ArrayListMultimap.create(
+                nodeCount, valuesPerKey(implicitReferenceCount, nodeCount));
+            aliasTable = Maps.newHashMapWithExpectedSize(aliasCount);
+            dataTypeDefinitions = Maps.newHashMapWithExpectedSize(dataTypeDefinitionCount);
+            rawXmlValues = new RawXmlValues(rawXmlValueCount);
+
+            if (base != null) {
+                baseNodes = flatten(base.getNodes(), nodes);
+                baseExplicitReferences = flatten(base.getExplicitReferences(), explicitReferences);
+                baseImplicitReferences = flatten(base.getImplicitReferences(), implicitReferences);
+                baseDataTypeDefinitions = flatten(base.getDataTypeDefinitions(), dataTypeDefinitions);
+                baseRawXmlValues = flatten(base.getRawXmlValues(), rawXmlValues);
+
+                mergedAliasTable = new OverlayMap<>(flatten(base.getAliasTable(), aliasTable), aliasTable);
+
+                base.freeze();
+            } else {
+                baseNodes = null;
+                baseExplicitReferences = null;
+                baseImplicitReferences = null;
+                baseDataTypeDefinitions = null;
+                baseRawXmlValues = null;
+
+                mergedAliasTable = aliasTable;
+            }
+        }
+
+        /**
+         * @return the map to overlay {@code added} on; if {@code base} is an {@link OverlayMap} its overlay is copied
+         * into {@code added} and its own base is returned.
+         */
+        private static <K, V> Map<K, V> flatten(Map<K, V> base, Map<K, V> added) {
+            if (base instanceof OverlayMap) {
+                added.putAll(((OverlayMap<K, V>) base).getOverlay());
+
+                return ((OverlayMap<K, V>) base).getBase();
+            } else {
+                return base;
             }
-        });
+        }
 
-        nodeSet2.getNodes().forEach((nodeId, nodeAttributes) -> {
-            NodeAttributes newNodeAttributes = reindex(
-                nodeAttributes,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+        /**
+         * @return the multimap to follow with {@code added}; if {@code base} is a {@link UnionListMultimap} its second
+         * multimap is copied into {@code added} and its first is returned.
+         */
+        private static <K, V> ListMultimap<K, V> flatten(ListMultimap<K, V> base, ListMultimap<K, V> added) {
+            if (base instanceof UnionListMultimap) {
+                added.putAll(((UnionListMultimap<K, V>) base).getSecond());
+
+                return ((UnionListMultimap<K, V>) base).getFirst();
+            } else {
+                return base;
+            }
+        }
+
+        void add(UaNodeSet nodeSet) {
+            NamespaceTranslation translation = NamespaceTranslation.create(
+                nodeSet.getNamespaceTable(),
+                namespaceTable
             );
-            nodes.put(newNodeAttributes.getNodeId(), newNodeAttributes);
-        });
 
-        nodeSet2.getExplicitReferences().forEach((nodeId, reference) -> {
-            NodeId newNodeId = reindex(
-                nodeId,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+            if (translation.isIdentity()) {
+                addUntranslated(nodeSet);
+            } else {
+                addTranslated(nodeSet, translation);
+            }
+        }
+
+        /**
+         * Add the contents of {@code nodeSet}, whose namespace indices are the same in the merged namespace table.
+         */
+        private void addUntranslated(UaNodeSet nodeSet) {
+            nodeSet.getAliasTable().forEach(this::putAlias);
+
+            nodeSet.getNodes().forEach((nodeId, nodeAttributes) ->
+                nodes.put(identifierPool.intern(nodeId), nodeAttributes)
             );
 
-            Reference newReference = reindex(
-                reference,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+            nodeSet.getExplicitReferences().forEach((nodeId, reference) ->
+                explicitReferences.put(identifierPool.intern(nodeId), identifierPool.intern(reference))
             );
 
-            explicitReferences.put(newNodeId, newReference);
-        });
+            nodeSet.getImplicitReferences().forEach((nodeId, reference) ->
+                implicitReferences.put(identifierPool.intern(nodeId), identifierPool.intern(reference))
+            );
 
-        nodeSet2.getImplicitReferences().forEach((nodeId, reference) -> {
-            NodeId newNodeId = reindex(
-                nodeId,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+            dataTypeDefinitions.putAll(nodeSet.getDataTypeDefinitions());
+            rawXmlValues.putAll(nodeSet.getRawXmlValues());
+        }
+
+        private void addTranslated(UaNodeSet nodeSet, NamespaceTranslation translation) {
+            nodeSet.getAliasTable().forEach((alias, nodeId) ->
+                putAlias(alias, reindex(nodeId, translation))
             );
 
-            Reference newReference = reindex(
-                reference,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+            nodeSet.getNodes().forEach((nodeId, nodeAttributes) -> {
+                NodeAttributes newNodeAttributes = reindex(nodeAttributes, translation, structReindexers);
+
+                nodes.put(identifierPool.intern(newNodeAttributes.getNodeId()), newNodeAttributes);
+            });
+
+            nodeSet.getExplicitReferences().forEach((nodeId, reference) -> {
+                NodeId newNodeId = reindex(nodeId, translation);
+                Reference newReference = reindex(reference, translation);
+
+                explicitReferences.put(identifierPool.intern(newNodeId), identifierPool.intern(newReference));
+            });
+
+            nodeSet.getImplicitReferences().forEach((nodeId, reference) -> {
+                NodeId newNodeId = reindex(nodeId, translation);
+                Reference newReference = reindex(reference, translation);
+
+                implicitReferences.put(identifierPool.intern(newNodeId), identifierPool.intern(newReference));
+            });
+
+            nodeSet.getDataTypeDefinitions().forEach((nodeId, definition) -> {
+                NodeId newNodeId = reindex(nodeId, translation);
+
+                dataTypeDefinitions.put(newNodeId, reindex(definition, nodeSet.getAliasTable(), translation));
+            });
+
+            addRawXmlValues(nodeSet, translation);
+        }
+
+        /**
+         * Add the raw XML values of {@code nodeSet}; values parsed into a {@link RawXmlValues} are only re-indexed when
+         * they are read.
+         */
+        private void addRawXmlValues(UaNodeSet nodeSet, NamespaceTranslation translation) {
+            rawXmlValues.putAllTransformed(
+                nodeSet.getRawXmlValues(),
+                nodeId -> reindex(nodeId, translation),
+                (nodeId, xml) -> reindexRawXml(nodeId, xml, translation)
             );
+        }
 
-            implicitReferences.put(newNodeId, newReference);
-        });
+        /**
+         * Add the contents of {@code nodeSets}, re-indexing them in parallel on {@code executor}.
+         * <p>
+         * Every collection of every node set is split into chunks that are re-indexed concurrently; the results are
+         * added to each merged collection in input order, so the outcome is the same as calling
+         * {@link #add(UaNodeSet)} for each node set in turn.
+         */
+        void addAll(List<UaNodeSet> nodeSets, Executor executor, int chunkSize) {
+            List<NamespaceTranslation> translations = new ArrayList<>(nodeSets.size());
+            for (UaNodeSet nodeSet : nodeSets) {
+                translations.add(NamespaceTranslation.create(nodeSet.getNamespaceTable(), namespaceTable));
+            }
 
-        nodeSet2.getDataTypeDefinitions().forEach((nodeId, definition) -> {
-            NodeId newNodeId = reindex(
-                nodeId,
-                namespaceTable,
-                nodeSet2.getNamespaceTable()
+            ParallelPhases phases = new ParallelPhases(nodeSets, translations, executor, chunkSize);
+
+            CompletableFuture<Void> nodesAdded = phases.reindexAndAdd(
+                nodeSet -> nodeSet.getNodes().values(),
+                (nodeAttributes, nodeSet, translation) -> reindex(nodeAttributes, translation, structReindexers),
+                nodeAttributes -> nodes.put(identifierPool.intern(nodeAttributes.getNodeId()), nodeAttributes)
             );
 
-            reindex(definition, aliasTable, namespaceTable, nodeSet2.getNamespaceTable());
+            CompletableFuture<Void> explicitReferencesAdded = phases.reindexAndAdd(
+                nodeSet -> nodeSet.getExplicitReferences().entries(),
+                (e, nodeSet, translation) ->
+                    Maps.immutableEntry(reindex(e.getKey(), translation), reindex(e.getValue(), translation)),
+                e -> explicitReferences.put(identifierPool.intern(e.getKey()), identifierPool.intern(e.getValue()))
+            );
 
-            dataTypeDefinitions.put(newNodeId, definition);
-        });
+            CompletableFuture<Void> implicitReferencesAdded = phases.reindexAndAdd(
+                nodeSet -> nodeSet.getImplicitReferences().entries(),
+                (e, nodeSet, translation) ->
+                    Maps.immutableEntry(reindex(e.getKey(), translation), reindex(e.getValue(), translation)),
+                e -> implicitReferences.put(identifierPool.intern(e.getKey()), identifierPool.intern(e.getValue()))
+            );
 
-        nodeSet2.getRawXmlValues().forEach((nodeId, value) -> {
-            NodeId newNodeId = reindex(
-                nodeId,
+            CompletableFuture<Void> dataTypeDefinitionsAdded = phases.reindexAndAdd(
+                nodeSet -> nodeSet.getDataTypeDefinitions().entrySet(),
+                (e, nodeSet, translation) -> Maps.immutableEntry(
+                    reindex(e.getKey(), translation),
+                    reindex(e.getValue(), nodeSet.getAliasTable(), translation)
+                ),
+                e -> dataTypeDefinitions.put(e.getKey(), e.getValue())
+            );
+
+            // aliases are few, and raw XML values are re-indexed when read; add them on this thread while the other
+            // phases run
+            for (int i = 0; i < nodeSets.size(); i++) {
+                NamespaceTranslation translation = translations.get(i);
+
+                nodeSets.get(i).getAliasTable().forEach((alias, nodeId) ->
+                    putAlias(alias, reindex(nodeId, translation))
+                );
+
+                addRawXmlValues(nodeSets.get(i), translation);
+            }
+
+            try {
+                CompletableFuture.allOf(
+                    nodesAdded,
+                    explicitReferencesAdded,
+                    implicitReferencesAdded,
+                    dataTypeDefinitionsAdded
+                ).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        private void putAlias(String alias, NodeId nodeId) {
+            NodeId collision = mergedAliasTable.get(alias);
+
+            if (collision == null) {
+                aliasTable.put(alias, nodeId);
+            } else if (!Objects.equals(collision, nodeId)) {
+                String warning = String.format(
+                    "Alias collision: \"%s\". " +
+                        "NodeId in merged NodeSet=%s, NodeId in NodeSet being merged=%s",
+                    alias, collision, nodeId
+                );
+                System.err.println(warning);
+            }
+        }
+
+        UaNodeSet build() {
+            if (shared) {
+                return new UaNodeSet(
+                    new OverlayMap<>(baseNodes, nodes),
+                    new UnionListMultimap<>(baseExplicitReferences, explicitReferences),
+                    new UnionListMultimap<>(baseImplicitReferences, implicitReferences),
+                    namespaceTable,
+                    mergedAliasTable,
+                    new OverlayMap<>(baseDataTypeDefinitions, dataTypeDefinitions),
+                    new OverlayMap<>(baseRawXmlValues, rawXmlValues)
+                );
+            }
+
+            return new UaNodeSet(
+                nodes,
+                explicitReferences,
+                implicitReferences,
                 namespaceTable,
-                nodeSet2.getNamespaceTable()
+                aliasTable,
+                dataTypeDefinitions,
+                rawXmlValues
             );
+        }
 
-            // TODO reindex value
-            rawXmlValues.put(newNodeId, value);
-        });
+        private static int valuesPerKey(int valueCount, int keyCount) {
+            return keyCount == 0 ? 1 : Math.max(1, (valueCount + keyCount - 1) / keyCount);
+        }
+
+    }
+
+    /**
+     * Re-indexes the elements of a collection of each input node set, in parallel, and adds the results to a merged
+     * collection in input order.
+     */
+    private static final class ParallelPhases {
+
+        private final List<UaNodeSet> nodeSets;
+        private final List<NamespaceTranslation> translations;
+        private final Executor executor;
+        private final int chunkSize;
+
+        ParallelPhases(
+            List<UaNodeSet> nodeSets,
+            List<NamespaceTranslation> translations,
+            Executor executor,
+            int chunkSize
+        ) {
+
+            this.nodeSets = nodeSets;
+            this.translations = translations;
+            this.executor = executor;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @param elements  the collection of a node set to re-index.
+         * @param reindexer re-indexes one element.
+         * @param add       adds a re-indexed element to the merged collection; calls are never concurrent.
+         * @return a {@link CompletableFuture} completed when every element has been added.
+         */
+        <T> CompletableFuture<Void> reindexAndAdd(
+            Function<UaNodeSet, Collection<T>> elements,
+            Reindexer<T> reindexer,
+            Consumer<T> add
+        ) {
+
+            CompletableFuture<Void> added = CompletableFuture.completedFuture(null);
+
+            for (int i = 0; i < nodeSets.size(); i++) {
+                UaNodeSet nodeSet = nodeSets.get(i);
+                NamespaceTranslation translation = translations.get(i);
+                Collection<T> collection = elements.apply(nodeSet);
+
+                if (translation.isIdentity()) {
+                    added = added.thenRunAsync(() -> collection.forEach(add), executor);
+                } else {
+                    List<T> list = new ArrayList<>(collection);
+
+                    for (int j = 0; j < list.size(); j += chunkSize) {
+                        List<T> chunk = list.subList(j, Math.min(j + chunkSize, list.size()));
+
+                        CompletableFuture<List<T>> reindexed = CompletableFuture.supplyAsync(() -> {
+                            List<T> result = new ArrayList<>(chunk.size());
+                            for (T element : chunk) {
+                                result.add(reindexer.reindex(element, nodeSet, translation));
+                            }
+                            return result;
+                        }, executor);
+
+                        // chaining on the previous chunk keeps additions sequential and in order
+                        added = added.thenCombine(reindexed, (v, result) -> {
+                            result.forEach(add);
+                            return null;
+                        });
+                    }
+                }
+            }
+
+            return added;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface Reindexer<T> {
+
+        T reindex(T element, UaNodeSet nodeSet, NamespaceTranslation translation);
 
-        return new UaNodeSet(
-            nodes,
-            explicitReferences,
-            implicitReferences,
-            namespaceTable,
-            aliasTable,
-            dataTypeDefinitions,
-            rawXmlValues
-        );
     }
 
     private static NodeId reindex(
         NodeId nodeId,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
-        String namespaceUri = originalNamespaceTable.getUri(nodeId.getNamespaceIndex());
-
-        return nodeId.reindex(currentNamespaceTable, namespaceUri);
+        return translation.translate(nodeId);
     }
 
     /**
      * Re-index {@code expandedNodeId} from its original namespace index to the corresponding
      * index in the server for its namespace URI derived from the original namespace index.
      *
-     * @param expandedNodeId         an {@link ExpandedNodeId} from the {@link UaNodeSet}.
-     * @param currentNamespaceTable  the current {@link NamespaceTable}.
-     * @param originalNamespaceTable the original {@link NamespaceTable}.
+     * @param expandedNodeId an {@link ExpandedNodeId} from the {@link UaNodeSet}.
+     * @param translation    the {@link NamespaceTranslation} from the original to the current NamespaceTable.
      * @return a {@link ExpandedNodeId} that has been re-indexed for the current NamespaceTable.
      */
     private static ExpandedNodeId reindex(
         ExpandedNodeId expandedNodeId,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
-        if (expandedNodeId.isAbsolute()) {
-            return expandedNodeId;
-        } else {
-            String namespaceUri = originalNamespaceTable.getUri(expandedNodeId.getNamespaceIndex());
-
-            return expandedNodeId.reindex(currentNamespaceTable, namespaceUri);
-        }
+        return translation.translate(expandedNodeId);
     }
 
     private static QualifiedName reindex(
         QualifiedName browseName,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
-        String namespaceUri = originalNamespaceTable.getUri(browseName.getNamespaceIndex());
-
-        return browseName.reindex(currentNamespaceTable, namespaceUri);
+        return translation.translate(browseName);
     }
 
     private static Reference reindex(
         Reference reference,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
-        String sourceNamespaceUri = originalNamespaceTable.getUri(
-            reference.getSourceNodeId().getNamespaceIndex()
-        );
-        String referenceNamespaceUri = originalNamespaceTable.getUri(
-            reference.getReferenceTypeId().getNamespaceIndex()
-        );
-        String targetNamespaceUri = reference.getTargetNodeId().getNamespaceUri();
-
-        if (targetNamespaceUri == null) {
-            targetNamespaceUri = originalNamespaceTable.getUri(
-                reference.getTargetNodeId().getNamespaceIndex()
-            );
-        }
-
-        return reference.reindex(currentNamespaceTable, sourceNamespaceUri, referenceNamespaceUri, targetNamespaceUri);
+        return translation.translate(reference);
     }
 
     private static NodeAttributes reindex(
         NodeAttributes nodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
     ) {
 
         if (nodeAttributes instanceof DataTypeNodeAttributes) {
-            return reindex((DataTypeNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((DataTypeNodeAttributes) nodeAttributes, translation);
         } else if (nodeAttributes instanceof MethodNodeAttributes) {
-            return reindex((MethodNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((MethodNodeAttributes) nodeAttributes, translation);
         } else if (nodeAttributes instanceof ObjectNodeAttributes) {
-            return reindex((ObjectNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((ObjectNodeAttributes) nodeAttributes, translation);
         } else if (nodeAttributes instanceof ObjectTypeNodeAttributes) {
-            return reindex((ObjectTypeNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((ObjectTypeNodeAttributes) nodeAttributes, translation);
         } else if (nodeAttributes instanceof ReferenceTypeNodeAttributes) {
-            return reindex((ReferenceTypeNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((ReferenceTypeNodeAttributes) nodeAttributes, translation);
         } else if (nodeAttributes instanceof VariableNodeAttributes) {
-            return reindex((VariableNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((VariableNodeAttributes) nodeAttributes, translation, structReindexers);
         } else if (nodeAttributes instanceof VariableTypeNodeAttributes) {
-            return reindex((VariableTypeNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((VariableTypeNodeAttributes) nodeAttributes, translation, structReindexers);
         } else if (nodeAttributes instanceof ViewNodeAttributes) {
-            return reindex((ViewNodeAttributes) nodeAttributes, currentNamespaceTable, originalNamespaceTable);
+            return reindex((ViewNodeAttributes) nodeAttributes, translation);
         } else {
             throw new IllegalArgumentException("nodeAttributes: " + nodeAttributes);
         }
@@ -253,20 +634,17 @@ public final class UaNodeSetMerger {
 
     private static NodeAttributes reindex(
         DataTypeNodeAttributes dataTypeNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             dataTypeNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             dataTypeNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new DataTypeNodeAttributes(
@@ -282,20 +660,17 @@ public final class UaNodeSetMerger {
 
     private static NodeAttributes reindex(
         MethodNodeAttributes methodNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             methodNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             methodNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new MethodNodeAttributes(
@@ -312,20 +687,17 @@ public final class UaNodeSetMerger {
 
     private static NodeAttributes reindex(
         ObjectNodeAttributes objectNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             objectNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             objectNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new ObjectNodeAttributes(
@@ -341,20 +713,17 @@ public final class UaNodeSetMerger {
 
     private static ObjectTypeNodeAttributes reindex(
         ObjectTypeNodeAttributes objectTypeNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             objectTypeNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             objectTypeNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new ObjectTypeNodeAttributes(
@@ -370,20 +739,17 @@ public final class UaNodeSetMerger {
 
     private static ReferenceTypeNodeAttributes reindex(
         ReferenceTypeNodeAttributes referenceTypeNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             referenceTypeNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             referenceTypeNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new ReferenceTypeNodeAttributes(
@@ -399,34 +765,50 @@ public final class UaNodeSetMerger {
         );
     }
 
+    /**
+     * Re-index a value now, or, if it has not been decoded yet, when it is first accessed so it stays undecoded until
+     * then.
+     */
+    private static Supplier<DataValue> reindexValue(
+        boolean decoded,
+        Supplier<DataValue> value,
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
+    ) {
+
+        if (decoded) {
+            return Suppliers.ofInstance(reindex(value.get(), translation, structReindexers));
+        } else {
+            return new LazyValue(() -> reindex(value.get(), translation, structReindexers));
+        }
+    }
+
     private static VariableNodeAttributes reindex(
         VariableNodeAttributes variableNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
     ) {
 
         NodeId newNodeId = reindex(
             variableNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             variableNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         NodeId newDataTypeId = reindex(
             variableNodeAttributes.getDataType(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
-        DataValue newValue = reindex(
-            variableNodeAttributes.getValue(),
-            currentNamespaceTable,
-            originalNamespaceTable
+        Supplier<DataValue> newValue = reindexValue(
+            variableNodeAttributes.isValueDecoded(),
+            variableNodeAttributes::getValue,
+            translation,
+            structReindexers
         );
 
         return new VariableNodeAttributes(
@@ -449,32 +831,30 @@ public final class UaNodeSetMerger {
 
     private static VariableTypeNodeAttributes reindex(
         VariableTypeNodeAttributes variableTypeNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
     ) {
 
         NodeId newNodeId = reindex(
             variableTypeNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             variableTypeNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         NodeId newDataTypeId = reindex(
             variableTypeNodeAttributes.getDataType(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
-        DataValue newValue = reindex(
-            variableTypeNodeAttributes.getValue(),
-            currentNamespaceTable,
-            originalNamespaceTable
+        Supplier<DataValue> newValue = reindexValue(
+            variableTypeNodeAttributes.isValueDecoded(),
+            variableTypeNodeAttributes::getValue,
+            translation,
+            structReindexers
         );
 
         return new VariableTypeNodeAttributes(
@@ -494,20 +874,17 @@ public final class UaNodeSetMerger {
 
     private static ViewNodeAttributes reindex(
         ViewNodeAttributes viewNodeAttributes,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         NodeId newNodeId = reindex(
             viewNodeAttributes.getNodeId(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         QualifiedName newBrowseName = reindex(
             viewNodeAttributes.getBrowseName(),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
         return new ViewNodeAttributes(
@@ -522,44 +899,57 @@ public final class UaNodeSetMerger {
         );
     }
 
-    private static void reindex(
+    /**
+     * Re-index a copy of {@code definition}; {@code definition} itself, which belongs to an input node set, is left
+     * unchanged.
+     */
+    private static DataTypeDefinition reindex(
         DataTypeDefinition definition,
         Map<String, NodeId> aliasTable,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         QualifiedName newName = reindex(
             QualifiedName.parse(definition.getName()),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
 
-        definition.setName(newName.toParseableString());
+        DataTypeDefinition newDefinition = new DataTypeDefinition();
+        newDefinition.setName(newName.toParseableString());
+        newDefinition.setBaseType(definition.getBaseType());
+        newDefinition.setSymbolicName(definition.getSymbolicName());
+        newDefinition.setIsUnion(definition.isIsUnion());
 
         definition.getField().forEach(field ->
-            reindex(
+            newDefinition.getField().add(reindex(
                 field,
                 aliasTable,
-                currentNamespaceTable,
-                originalNamespaceTable
-            )
+                translation
+            ))
         );
+
+        return newDefinition;
     }
 
-    private static void reindex(
+    private static DataTypeField reindex(
         DataTypeField field,
         Map<String, NodeId> aliasTable,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation
     ) {
 
         QualifiedName newName = reindex(
             QualifiedName.parse(field.getName()),
-            currentNamespaceTable,
-            originalNamespaceTable
+            translation
         );
-        field.setName(newName.toParseableString());
+
+        DataTypeField newField = new DataTypeField();
+        newField.setName(newName.toParseableString());
+        newField.setSymbolicName(field.getSymbolicName());
+        newField.setValueRank(field.getValueRank());
+        newField.setValue(field.getValue());
+        newField.setIsOptional(field.isIsOptional());
+        newField.getDisplayName().addAll(field.getDisplayName());
+        newField.getDescription().addAll(field.getDescription());
 
         String dataType = field.getDataType();
         if (dataType != null) {
@@ -567,23 +957,25 @@ public final class UaNodeSetMerger {
             if (nodeId == null) nodeId = NodeId.parse(dataType);
             NodeId newDataType = reindex(
                 nodeId,
-                currentNamespaceTable,
-                originalNamespaceTable
+                translation
             );
-            field.setDataType(newDataType.toParseableString());
+            newField.setDataType(newDataType.toParseableString());
         }
 
         DataTypeDefinition innerDefinition = field.getDefinition();
         if (innerDefinition != null) {
-            reindex(innerDefinition, aliasTable, currentNamespaceTable, originalNamespaceTable);
+            newField.setDefinition(reindex(innerDefinition, aliasTable, translation));
         }
+
+        return newField;
     }
 
     /**
      * Re-indexes a {@link DataValue} if necessary.
      * <p>
-     * If {@code value} contains an ExtensionObject the encodingId is re-indexed. Then the struct is decoded and any
-     * fields that qualify are also re-indexed (e.g. the dataType field in {@link Argument}).
+     * If {@code value} contains an ExtensionObject the encodingId is re-indexed. If a {@link StructReindexer} is
+     * registered for the encoding the struct is decoded and any fields that qualify are also re-indexed (e.g. the
+     * dataType field in {@link org.eclipse.milo.opcua.stack.core.types.structured.Argument}).
      * <p>
      * This is verging on major hack because the OPC UA modelling concept is somewhat flawed when it comes to encoding
      * embedded values that reference non-absolute namespaces.
@@ -593,8 +985,8 @@ public final class UaNodeSetMerger {
      */
     private static DataValue reindex(
         DataValue value,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
     ) {
 
         try {
@@ -603,17 +995,31 @@ public final class UaNodeSetMerger {
             if (variant == null) return value;
             Object o = variant.getValue();
             if (o == null) return value;
-            return new DataValue(new Variant(reindexValue(o, currentNamespaceTable, originalNamespaceTable)));
+            return new DataValue(new Variant(reindexValue(o, translation, structReindexers)));
         } catch (Throwable t) {
             LOGGER.warn("Re-indexing failed: {}", value, t);
             return value;
         }
     }
 
+    /**
+     * Re-indexes the raw XML value of {@code nodeId} without decoding it.
+     *
+     * @see RawXmlReindexer
+     */
+    private static String reindexRawXml(NodeId nodeId, String xml, NamespaceTranslation translation) {
+        try {
+            return RawXmlReindexer.reindex(xml, translation);
+        } catch (XMLStreamException e) {
+            LOGGER.warn("Re-indexing raw XML value of {} failed: {}", nodeId, e.getMessage());
+            return xml;
+        }
+    }
+
     private static Object reindexValue(
         Object value,
-        NamespaceTable currentNamespaceTable,
-        NamespaceTable originalNamespaceTable
+        NamespaceTranslation translation,
+        StructReindexers structReindexers
     ) {
 
         if (value == null) return null;
@@ -635,83 +1041,23 @@ public final class UaNodeSetMerger {
                 //noinspection unchecked
                 return ArrayUtil.transformArray(
                     value,
-                    o -> reindexValue(o, currentNamespaceTable, originalNamespaceTable),
+                    o -> reindexValue(o, translation, structReindexers),
                     componentType
                 );
             }
         } else {
             if (clazz == NodeId.class) {
-                return reindex((NodeId) value, currentNamespaceTable, originalNamespaceTable);
+                return reindex((NodeId) value, translation);
             } else if (clazz == ExpandedNodeId.class) {
-                return reindex((ExpandedNodeId) value, currentNamespaceTable, originalNamespaceTable);
+                return reindex((ExpandedNodeId) value, translation);
             } else if (clazz == QualifiedName.class) {
-                return reindex((QualifiedName) value, currentNamespaceTable, originalNamespaceTable);
+                return reindex((QualifiedName) value, translation);
             } else if (clazz == ExtensionObject.class) {
-                ExtensionObject xo = (ExtensionObject) value;
-
-                if (xo.getBodyType() == ExtensionObject.BodyType.ByteString) {
-                    xo = new ExtensionObject(
-                        (ByteString) xo.getBody(),
-                        reindex(xo.getEncodingId(), currentNamespaceTable, originalNamespaceTable)
-                    );
-                } else if (xo.getBodyType() == ExtensionObject.BodyType.XmlElement) {
-                    xo = new ExtensionObject(
-                        (XmlElement) xo.getBody(),
-                        reindex(xo.getEncodingId(), currentNamespaceTable, originalNamespaceTable)
-                    );
-                }
-
-                try {
-                    Object struct = xo.decode(SERIALIZATION_CONTEXT);
-
-                    if (struct instanceof Argument) {
-                        Argument argument = (Argument) struct;
-
-                        return ExtensionObject.encode(
-                            SERIALIZATION_CONTEXT,
-                            new Argument(
-                                argument.getName(),
-                                reindex(argument.getDataType(), currentNamespaceTable, originalNamespaceTable),
-                                argument.getValueRank(),
-                                argument.getArrayDimensions(),
-                                argument.getDescription()
-                            )
-                        );
-                    } else {
-                        return xo;
-                    }
-                } catch (Throwable t) {
-                    LOGGER.warn("Decoding failed: {}", xo, t);
-                    return xo;
-                }
+                return structReindexers.reindex((ExtensionObject) value, translation);
             } else {
                 return value;
             }
         }
     }
 
-    /**
-     * A default {@link SerializationContext} that can be used to decode OPC UA built-in types.
-     */
-    private static final SerializationContext SERIALIZATION_CONTEXT = new SerializationContext() {
-
-        private final NamespaceTable namespaceTable = new NamespaceTable();
-
-        @Override
-        public EncodingLimits getEncodingLimits() {
-            return EncodingLimits.DEFAULT;
-        }
-
-        @Override
-        public NamespaceTable getNamespaceTable() {
-            return namespaceTable;
-        }
-
-        @Override
-        public DataTypeManager getDataTypeManager() {
-            return OpcUaDataTypeManager.getInstance();
-        }
-        
-    };
-
 }
@@ -0,0 +1,793 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.digitalpetri.opcua.nodeset.attributes.DataTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.MethodNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ObjectNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ObjectTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ReferenceTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.ViewNodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.IdentifierPool;
+import com.digitalpetri.opcua.nodeset.util.RawXmlValues;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.UaSerializationException;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.serialization.SerializationContext;
+import org.eclipse.milo.opcua.stack.core.types.DataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.opcfoundation.ua.generated.DataTypeDefinition;
+import org.opcfoundation.ua.generated.DataTypeField;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * Writes and reads a compact, versioned binary snapshot of a {@link UaNodeSet}.
+ * <p>
+ * Loading a snapshot skips XML parsing, JAXB unmarshalling and the XML decoding of values. Identifiers and values are
+ * stored with the OPC UA binary encoding; everything else is little-endian, and strings are UTF-8 prefixed with their
+ * length, or -1 for {@code null}. The layout is:
+ * <pre>
+ * magic            "UANS"
+ * version          Int32
+ * namespace table  Int32 count, String uri...
+ * aliases          Int32 count, (String alias, NodeId)...
+ * nodes            Int32 count, (Int32 length, node record)...
+ * references       Int32 count, (Int32 length, NodeId source, Int32 explicit count, Int32 implicit count,
+ *                  (NodeId referenceType, ExpandedNodeId target, Boolean forward)...)...
+ * definitions      Int32 count, (NodeId, DataTypeDefinition)...
+ * raw XML values   Int32 count, (NodeId, String)...
+ * </pre>
+ * Node and reference records are length-prefixed so a reader can skip over them without decoding.
+ * <p>
+ * Snapshots of a different {@link #VERSION} are rejected rather than migrated; callers are expected to fall back to
+ * parsing the XML and writing a new snapshot.
+ */
+public final class UaNodeSetSnapshot {
+
+    /**
+     * The version of the snapshot format written by this class.
+     */
+    public static final int VERSION = 2;
+
+    private static final byte[] MAGIC = {'U', 'A', 'N', 'S'};
+
+    /**
+     * A default {@link SerializationContext} that can be used to encode and decode OPC UA built-in types.
+     */
+    private static final SerializationContext SERIALIZATION_CONTEXT = new SerializationContext() {
+
+        private final NamespaceTable namespaceTable = new NamespaceTable();
+
+        @Override
+        public EncodingLimits getEncodingLimits() {
+            return EncodingLimits.DEFAULT;
+        }
+
+        @Override
+        public NamespaceTable getNamespaceTable() {
+            return namespaceTable;
+        }
+
+        @Override
+        public DataTypeManager getDataTypeManager() {
+            return OpcUaDataTypeManager.getInstance();
+        }
+
+    };
+
+    private UaNodeSetSnapshot() {}
+
+    /**
+     * Write a snapshot of {@code nodeSet} to {@code out}.
+     * <p>
+     * Lazily parsed values are decoded in order to be written.
+     *
+     * @param nodeSet the {@link UaNodeSet} to write.
+     * @param out     the {@link OutputStream} to write to; it is not closed.
+     * @throws IOException if writing to {@code out} fails or a value can't be encoded.
+     */
+    public static void write(UaNodeSet nodeSet, OutputStream out) throws IOException {
+        ByteBuf buffer = Unpooled.buffer();
+
+        try {
+            new Encoder(buffer).writeNodeSet(nodeSet);
+
+            buffer.readBytes(out, buffer.readableBytes());
+        } catch (UaSerializationException e) {
+            throw new IOException("unable to encode snapshot", e);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Read a snapshot written by {@link #write(UaNodeSet, OutputStream)}.
+     *
+     * @param in the {@link InputStream} to read from; it is not closed.
+     * @return the {@link UaNodeSet} in the snapshot.
+     * @throws IOException if reading from {@code in} fails or it doesn't contain a snapshot of the current
+     *                     {@link #VERSION}.
+     */
+    public static UaNodeSet read(InputStream in) throws IOException {
+        return read(Unpooled.wrappedBuffer(ByteStreams.toByteArray(in)));
+    }
+
+    /**
+     * Memory-map the snapshot file at {@code path}.
+     * <p>
+     * Unlike {@link #read(InputStream)}, only an index of the file is built on the heap; {@link NodeAttributes},
+     * {@link Reference}s and raw XML values are decoded from the mapped file each time they are accessed. The
+     * returned {@link UaNodeSet} is read-only and safe to read from multiple threads. The file must not be modified
+     * while it is mapped.
+     *
+     * @param path the snapshot file.
+     * @return a {@link UaNodeSet} backed by the mapped file.
+     * @throws IOException if the file can't be mapped or doesn't contain a snapshot of the current {@link #VERSION}.
+     */
+    public static UaNodeSet map(Path path) throws IOException {
+        return MappedSnapshot.map(path);
+    }
+
+    /**
+     * Release the file mapping of a {@link UaNodeSet} returned by {@link #map(Path)}.
+     * <p>
+     * Nodes, references and raw XML values of {@code nodeSet} can no longer be accessed afterwards. The pages are
+     * unmapped once accesses in progress complete and the mapping is garbage collected; Java offers no safe way to
+     * unmap them sooner.
+     *
+     * @param nodeSet a {@link UaNodeSet} returned by {@link #map(Path)}.
+     * @throws IllegalArgumentException if {@code nodeSet} isn't backed by a mapped snapshot.
+     */
+    public static void unmap(UaNodeSet nodeSet) {
+        MappedSnapshot.unmap(nodeSet);
+    }
+
+    static UaNodeSet read(ByteBuf buffer) throws IOException {
+        try {
+            Decoder decoder = new Decoder(buffer, new IdentifierPool());
+            decoder.readHeader();
+
+            return decoder.readNodeSet();
+        } catch (UaSerializationException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("corrupt snapshot", e);
+        }
+    }
+
+    static final class Encoder {
+
+        private final ByteBuf buffer;
+        private final OpcUaBinaryStreamEncoder encoder;
+
+        /**
+         * Whether values are written with their timestamps. They are left out when encoding node content for
+         * comparison because they record when a value was decoded rather than anything in the document.
+         */
+        private final boolean timestamps;
+
+        Encoder(ByteBuf buffer) {
+            this(buffer, true);
+        }
+
+        Encoder(ByteBuf buffer, boolean timestamps) {
+            this.buffer = buffer;
+            this.encoder = new OpcUaBinaryStreamEncoder(SERIALIZATION_CONTEXT).setBuffer(buffer);
+            this.timestamps = timestamps;
+        }
+
+        void writeNodeSet(UaNodeSet nodeSet) {
+            buffer.writeBytes(MAGIC);
+            buffer.writeIntLE(VERSION);
+
+            String[] uris = nodeSet.getNamespaceTable().toArray();
+            buffer.writeIntLE(uris.length);
+            for (String uri : uris) {
+                writeString(uri);
+            }
+
+            buffer.writeIntLE(nodeSet.getAliasTable().size());
+            nodeSet.getAliasTable().forEach((alias, nodeId) -> {
+                writeString(alias);
+                encoder.writeNodeId(null, nodeId);
+            });
+
+            buffer.writeIntLE(nodeSet.getNodes().size());
+            for (NodeAttributes nodeAttributes : nodeSet.getNodes().values()) {
+                writeRecord(() -> writeNode(nodeAttributes));
+            }
+
+            ListMultimap<NodeId, Reference> explicitReferences = nodeSet.getExplicitReferences();
+            ListMultimap<NodeId, Reference> implicitReferences = nodeSet.getImplicitReferences();
+
+            buffer.writeIntLE(nodeSet.getCombinedReferences().keySet().size());
+            for (NodeId sourceNodeId : nodeSet.getCombinedReferences().keySet()) {
+                writeRecord(() -> {
+                    List<Reference> explicit = explicitReferences.get(sourceNodeId);
+                    List<Reference> implicit = implicitReferences.get(sourceNodeId);
+
+                    encoder.writeNodeId(null, sourceNodeId);
+                    buffer.writeIntLE(explicit.size());
+                    buffer.writeIntLE(implicit.size());
+                    writeReferences(explicit);
+                    writeReferences(implicit);
+                });
+            }
+
+            buffer.writeIntLE(nodeSet.getDataTypeDefinitions().size());
+            nodeSet.getDataTypeDefinitions().forEach((nodeId, definition) -> {
+                encoder.writeNodeId(null, nodeId);
+                writeDefinition(definition);
+            });
+
+            buffer.writeIntLE(nodeSet.getRawXmlValues().size());
+            nodeSet.getRawXmlValues().forEach((nodeId, value) -> {
+                encoder.writeNodeId(null, nodeId);
+                writeString(value);
+            });
+        }
+
+        /**
+         * Write everything a node set holds about one node apart from its references.
+         */
+        void writeNodeContent(NodeAttributes nodeAttributes, DataTypeDefinition definition, String rawXmlValue) {
+            writeNode(nodeAttributes);
+            writeOptional(definition, this::writeDefinition);
+            writeString(rawXmlValue);
+        }
+
+        /**
+         * Write the record written by {@code record}, prefixed with its length.
+         */
+        private void writeRecord(Runnable record) {
+            int lengthIndex = buffer.writerIndex();
+            buffer.writeIntLE(0);
+
+            record.run();
+
+            buffer.setIntLE(lengthIndex, buffer.writerIndex() - lengthIndex - 4);
+        }
+
+        private void writeNode(NodeAttributes nodeAttributes) {
+            NodeClass nodeClass = nodeAttributes.getNodeClass();
+
+            buffer.writeIntLE(nodeClass.getValue());
+            encoder.writeNodeId(null, nodeAttributes.getNodeId());
+            encoder.writeQualifiedName(null, nodeAttributes.getBrowseName());
+            writeOptional(nodeAttributes.getDisplayName(), v -> encoder.writeLocalizedText(null, v));
+            writeOptional(nodeAttributes.getDescription(), v -> encoder.writeLocalizedText(null, v));
+            writeOptional(nodeAttributes.getWriteMask(), this::writeUInt32);
+            writeOptional(nodeAttributes.getUserWriteMask(), this::writeUInt32);
+
+            switch (nodeClass) {
+                case Object: {
+                    ObjectNodeAttributes attributes = (ObjectNodeAttributes) nodeAttributes;
+                    writeOptional(attributes.getEventNotifier(), this::writeByte);
+                    break;
+                }
+                case Variable: {
+                    VariableNodeAttributes attributes = (VariableNodeAttributes) nodeAttributes;
+                    writeOptional(attributes.getValue(), this::writeValue);
+                    writeOptional(attributes.getDataType(), v -> encoder.writeNodeId(null, v));
+                    buffer.writeIntLE(attributes.getValueRank());
+                    writeOptional(attributes.getArrayDimensions(), this::writeArrayDimensions);
+                    writeOptional(attributes.getAccessLevel(), this::writeByte);
+                    writeOptional(attributes.getUserAccessLevel(), this::writeByte);
+                    writeOptional(attributes.getMinimumSamplingInterval(), buffer::writeDoubleLE);
+                    buffer.writeBoolean(attributes.isHistorizing());
+                    break;
+                }
+                case Method: {
+                    MethodNodeAttributes attributes = (MethodNodeAttributes) nodeAttributes;
+                    buffer.writeBoolean(attributes.isExecutable());
+                    buffer.writeBoolean(attributes.isUserExecutable());
+                    break;
+                }
+                case ObjectType: {
+                    ObjectTypeNodeAttributes attributes = (ObjectTypeNodeAttributes) nodeAttributes;
+                    buffer.writeBoolean(attributes.isAbstract());
+                    break;
+                }
+                case VariableType: {
+                    VariableTypeNodeAttributes attributes = (VariableTypeNodeAttributes) nodeAttributes;
+                    writeOptional(attributes.getValue(), this::writeValue);
+                    writeOptional(attributes.getDataType(), v -> encoder.writeNodeId(null, v));
+                    buffer.writeIntLE(attributes.getValueRank());
+                    writeOptional(attributes.getArrayDimensions(), this::writeArrayDimensions);
+                    buffer.writeBoolean(attributes.isAbstract());
+                    break;
+                }
+                case ReferenceType: {
+                    ReferenceTypeNodeAttributes attributes = (ReferenceTypeNodeAttributes) nodeAttributes;
+                    buffer.writeBoolean(attributes.isAbstract());
+                    buffer.writeBoolean(attributes.isSymmetric());
+                    writeOptional(attributes.getInverseName(), v -> encoder.writeLocalizedText(null, v));
+                    break;
+                }
+                case DataType: {
+                    DataTypeNodeAttributes attributes = (DataTypeNodeAttributes) nodeAttributes;
+                    buffer.writeBoolean(attributes.isAbstract());
+                    break;
+                }
+                case View: {
+                    ViewNodeAttributes attributes = (ViewNodeAttributes) nodeAttributes;
+                    buffer.writeBoolean(attributes.isContainsNoLoops());
+                    writeOptional(attributes.getEventNotifier(), this::writeByte);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("nodeClass: " + nodeClass);
+            }
+        }
+
+        private void writeValue(DataValue value) {
+            if (timestamps) {
+                encoder.writeDataValue(null, value);
+            } else {
+                encoder.writeVariant(null, value.getValue());
+                writeOptional(value.getStatusCode(), v -> encoder.writeStatusCode(null, v));
+            }
+        }
+
+        private void writeReferences(List<Reference> references) {
+            for (Reference reference : references) {
+                encoder.writeNodeId(null, reference.getReferenceTypeId());
+                encoder.writeExpandedNodeId(null, reference.getTargetNodeId());
+                buffer.writeBoolean(reference.isForward());
+            }
+        }
+
+        private void writeDefinition(DataTypeDefinition definition) {
+            writeString(definition.getName());
+            writeString(definition.getBaseType());
+            writeString(definition.getSymbolicName());
+            buffer.writeBoolean(definition.isIsUnion());
+
+            buffer.writeIntLE(definition.getField().size());
+            for (DataTypeField field : definition.getField()) {
+                writeString(field.getName());
+                writeString(field.getSymbolicName());
+                writeString(field.getDataType());
+                buffer.writeIntLE(field.getValueRank());
+                buffer.writeIntLE(field.getValue());
+                buffer.writeBoolean(field.isIsOptional());
+                writeLocalizedTexts(field.getDisplayName());
+                writeLocalizedTexts(field.getDescription());
+                writeOptional(field.getDefinition(), this::writeDefinition);
+            }
+        }
+
+        private void writeLocalizedTexts(List<org.opcfoundation.ua.generated.LocalizedText> texts) {
+            buffer.writeIntLE(texts.size());
+
+            for (org.opcfoundation.ua.generated.LocalizedText text : texts) {
+                writeString(text.getValue());
+                writeString(text.getLocale());
+            }
+        }
+
+        private void writeArrayDimensions(UInteger[] arrayDimensions) {
+            buffer.writeIntLE(arrayDimensions.length);
+
+            for (UInteger dimension : arrayDimensions) {
+                writeUInt32(dimension);
+            }
+        }
+
+        private void writeUInt32(UInteger value) {
+            buffer.writeIntLE(value.intValue());
+        }
+
+        private void writeByte(UByte value) {
+            buffer.writeByte(value.intValue());
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                buffer.writeIntLE(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer.writeIntLE(bytes.length);
+                buffer.writeBytes(bytes);
+            }
+        }
+
+        private <T> void writeOptional(T value, Consumer<T> write) {
+            buffer.writeBoolean(value != null);
+
+            if (value != null) write.accept(value);
+        }
+
+    }
+
+    static final class Decoder {
+
+        private final ByteBuf buffer;
+        private final OpcUaBinaryStreamDecoder decoder;
+        private final IdentifierPool identifierPool;
+
+        /**
+         * @param buffer         the {@link ByteBuf} to decode from, positioned where decoding should start.
+         * @param identifierPool the {@link IdentifierPool} to intern identifiers with, or {@code null} not to intern.
+         */
+        Decoder(ByteBuf buffer, IdentifierPool identifierPool) {
+            this.buffer = buffer;
+            this.decoder = new OpcUaBinaryStreamDecoder(SERIALIZATION_CONTEXT).setBuffer(buffer);
+            this.identifierPool = identifierPool;
+        }
+
+        ByteBuf getBuffer() {
+            return buffer;
+        }
+
+        void readHeader() throws IOException {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.readBytes(magic);
+
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException("not a UaNodeSet snapshot");
+                }
+            }
+
+            int version = buffer.readIntLE();
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version: " + version);
+            }
+        }
+
+        UaNodeSet readNodeSet() {
+            NamespaceTable namespaceTable = readNamespaceTable();
+            Map<String, NodeId> aliasTable = readAliasTable();
+
+            int nodeCount = buffer.readIntLE();
+            Map<NodeId, NodeAttributes> nodes = Maps.newHashMapWithExpectedSize(nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                buffer.readIntLE();
+
+                NodeAttributes nodeAttributes = readNode();
+                nodes.put(nodeAttributes.getNodeId(), nodeAttributes);
+            }
+
+            ListMultimap<NodeId, Reference> explicitReferences = ArrayListMultimap.create();
+            ListMultimap<NodeId, Reference> implicitReferences = ArrayListMultimap.create();
+
+            int sourceCount = buffer.readIntLE();
+            for (int i = 0; i < sourceCount; i++) {
+                buffer.readIntLE();
+
+                NodeId sourceNodeId = readNodeId();
+                int explicitCount = buffer.readIntLE();
+                int implicitCount = buffer.readIntLE();
+                explicitReferences.putAll(sourceNodeId, readReferences(sourceNodeId, explicitCount));
+                implicitReferences.putAll(sourceNodeId, readReferences(sourceNodeId, implicitCount));
+            }
+
+            Map<NodeId, DataTypeDefinition> dataTypeDefinitions = readDataTypeDefinitions();
+            Map<NodeId, String> rawXmlValues = readRawXmlValues();
+
+            return new UaNodeSet(
+                nodes,
+                explicitReferences,
+                implicitReferences,
+                namespaceTable,
+                aliasTable,
+                dataTypeDefinitions,
+                rawXmlValues
+            );
+        }
+
+        NamespaceTable readNamespaceTable() {
+            NamespaceTable namespaceTable = new NamespaceTable();
+
+            int uriCount = buffer.readIntLE();
+            for (int i = 0; i < uriCount; i++) {
+                String uri = readString();
+
+                // index 0 is always the OPC UA namespace
+                if (i > 0 && uri != null) {
+                    namespaceTable.putUri(uri, ushort(i));
+                }
+            }
+
+            return namespaceTable;
+        }
+
+        Map<String, NodeId> readAliasTable() {
+            int aliasCount = buffer.readIntLE();
+            Map<String, NodeId> aliasTable = Maps.newHashMapWithExpectedSize(aliasCount);
+
+            for (int i = 0; i < aliasCount; i++) {
+                String alias = readString();
+                aliasTable.put(alias, readNodeId());
+            }
+
+            return aliasTable;
+        }
+
+        Map<NodeId, DataTypeDefinition> readDataTypeDefinitions() {
+            int definitionCount = buffer.readIntLE();
+            Map<NodeId, DataTypeDefinition> dataTypeDefinitions = new HashMap<>(definitionCount);
+
+            for (int i = 0; i < definitionCount; i++) {
+                NodeId nodeId = readNodeId();
+                dataTypeDefinitions.put(nodeId, readDefinition());
+            }
+
+            return dataTypeDefinitions;
+        }
+
+        Map<NodeId, String> readRawXmlValues() {
+            int valueCount = buffer.readIntLE();
+            Map<NodeId, String> rawXmlValues = new RawXmlValues(valueCount);
+
+            for (int i = 0; i < valueCount; i++) {
+                NodeId nodeId = readNodeId();
+                rawXmlValues.put(nodeId, readString());
+            }
+
+            return rawXmlValues;
+        }
+
+        NodeAttributes readNode() {
+            NodeClass nodeClass = NodeClass.from(buffer.readIntLE());
+
+            NodeId nodeId = readNodeId();
+            QualifiedName browseName = intern(decoder.readQualifiedName(null));
+            LocalizedText displayName = readOptional(() -> decoder.readLocalizedText(null));
+            LocalizedText description = readOptional(() -> decoder.readLocalizedText(null));
+            UInteger writeMask = readOptional(this::readUInt32);
+            UInteger userWriteMask = readOptional(this::readUInt32);
+
+            if (nodeClass == null) {
+                throw new IllegalArgumentException("unknown NodeClass");
+            }
+
+            switch (nodeClass) {
+                case Object:
+                    return new ObjectNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        readOptional(this::readByte)
+                    );
+
+                case Variable:
+                    return new VariableNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        (DataValue) readOptional(() -> decoder.readDataValue(null)),
+                        readOptional(this::readNodeId),
+                        buffer.readIntLE(),
+                        readOptional(this::readArrayDimensions),
+                        readOptional(this::readByte),
+                        readOptional(this::readByte),
+                        readOptional(buffer::readDoubleLE),
+                        buffer.readBoolean()
+                    );
+
+                case Method:
+                    return new MethodNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        buffer.readBoolean(),
+                        buffer.readBoolean()
+                    );
+
+                case ObjectType:
+                    return new ObjectTypeNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        buffer.readBoolean()
+                    );
+
+                case VariableType:
+                    return new VariableTypeNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        (DataValue) readOptional(() -> decoder.readDataValue(null)),
+                        readOptional(this::readNodeId),
+                        buffer.readIntLE(),
+                        readOptional(this::readArrayDimensions),
+                        buffer.readBoolean()
+                    );
+
+                case ReferenceType:
+                    return new ReferenceTypeNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        buffer.readBoolean(),
+                        buffer.readBoolean(),
+                        readOptional(() -> decoder.readLocalizedText(null))
+                    );
+
+                case DataType:
+                    return new DataTypeNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        buffer.readBoolean()
+                    );
+
+                case View:
+                    return new ViewNodeAttributes(
+                        nodeId,
+                        browseName,
+                        displayName,
+                        description,
+                        writeMask,
+                        userWriteMask,
+                        buffer.readBoolean(),
+                        readOptional(this::readByte)
+                    );
+
+                default:
+                    throw new IllegalArgumentException("nodeClass: " + nodeClass);
+            }
+        }
+
+        List<Reference> readReferences(NodeId sourceNodeId, int referenceCount) {
+            List<Reference> references = new ArrayList<>(referenceCount);
+
+            for (int i = 0; i < referenceCount; i++) {
+                Reference reference = new Reference(
+                    sourceNodeId,
+                    readNodeId(),
+                    intern(decoder.readExpandedNodeId(null)),
+                    buffer.readBoolean()
+                );
+
+                references.add(reference);
+            }
+
+            return references;
+        }
+
+        NodeId readNodeId() {
+            return intern(decoder.readNodeId(null));
+        }
+
+        private NodeId intern(NodeId nodeId) {
+            return identifierPool != null ? identifierPool.intern(nodeId) : nodeId;
+        }
+
+        private ExpandedNodeId intern(ExpandedNodeId expandedNodeId) {
+            return identifierPool != null ? identifierPool.intern(expandedNodeId) : expandedNodeId;
+        }
+
+        private QualifiedName intern(QualifiedName qualifiedName) {
+            return identifierPool != null ? identifierPool.intern(qualifiedName) : qualifiedName;
+        }
+
+        private DataTypeDefinition readDefinition() {
+            DataTypeDefinition definition = new DataTypeDefinition();
+            definition.setName(readString());
+            definition.setBaseType(readString());
+            definition.setSymbolicName(readString());
+            definition.setIsUnion(buffer.readBoolean());
+
+            int fieldCount = buffer.readIntLE();
+            for (int i = 0; i < fieldCount; i++) {
+                DataTypeField field = new DataTypeField();
+                field.setName(readString());
+                field.setSymbolicName(readString());
+                field.setDataType(readString());
+                field.setValueRank(buffer.readIntLE());
+                field.setValue(buffer.readIntLE());
+                field.setIsOptional(buffer.readBoolean());
+                readLocalizedTexts(field.getDisplayName());
+                readLocalizedTexts(field.getDescription());
+                field.setDefinition(readOptional(this::readDefinition));
+
+                definition.getField().add(field);
+            }
+
+            return definition;
+        }
+
+        private void readLocalizedTexts(List<org.opcfoundation.ua.generated.LocalizedText> texts) {
+            int textCount = buffer.readIntLE();
+
+            for (int i = 0; i < textCount; i++) {
+                org.opcfoundation.ua.generated.LocalizedText text = new org.opcfoundation.ua.generated.LocalizedText();
+                text.setValue(readString());
+                text.setLocale(readString());
+
+                texts.add(text);
+            }
+        }
+
+        private UInteger[] readArrayDimensions() {
+            UInteger[] arrayDimensions = new UInteger[buffer.readIntLE()];
+
+            for (int i = 0; i < arrayDimensions.length; i++) {
+                arrayDimensions[i] = readUInt32();
+            }
+
+            return arrayDimensions;
+        }
+
+        private UInteger readUInt32() {
+            return uint(buffer.readIntLE() & 0xFFFFFFFFL);
+        }
+
+        private UByte readByte() {
+            return ubyte(buffer.readUnsignedByte());
+        }
+
+        String readString() {
+            int length = buffer.readIntLE();
+
+            if (length < 0) {
+                return null;
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.readBytes(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        private <T> T readOptional(Supplier<T> read) {
+            return buffer.readBoolean() ? read.get() : null;
+        }
+
+    }
+
+}
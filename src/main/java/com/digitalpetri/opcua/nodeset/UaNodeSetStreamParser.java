@@ -0,0 +1,173 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.opcfoundation.ua.generated.AliasTable;
+import org.opcfoundation.ua.generated.UADataType;
+import org.opcfoundation.ua.generated.UAMethod;
+import org.opcfoundation.ua.generated.UANode;
+import org.opcfoundation.ua.generated.UAObject;
+import org.opcfoundation.ua.generated.UAObjectType;
+import org.opcfoundation.ua.generated.UAReferenceType;
+import org.opcfoundation.ua.generated.UAVariable;
+import org.opcfoundation.ua.generated.UAVariableType;
+import org.opcfoundation.ua.generated.UAView;
+import org.opcfoundation.ua.generated.UriTable;
+
+/**
+ * Parses a UANodeSet document with a pull parser, unmarshalling and converting one node element at a time so that
+ * the JAXB object graph for the whole document is never held in memory.
+ */
+final class UaNodeSetStreamParser {
+
+    private static final Map<String, Class<? extends UANode>> NODE_ELEMENTS = new HashMap<>();
+
+    static {
+        NODE_ELEMENTS.put("UAObject", UAObject.class);
+        NODE_ELEMENTS.put("UAVariable", UAVariable.class);
+        NODE_ELEMENTS.put("UAMethod", UAMethod.class);
+        NODE_ELEMENTS.put("UAView", UAView.class);
+        NODE_ELEMENTS.put("UAObjectType", UAObjectType.class);
+        NODE_ELEMENTS.put("UAVariableType", UAVariableType.class);
+        NODE_ELEMENTS.put("UADataType", UADataType.class);
+        NODE_ELEMENTS.put("UAReferenceType", UAReferenceType.class);
+    }
+
+    private static final Map<String, NodeClass> NODE_CLASSES = new HashMap<>();
+
+    static {
+        NODE_CLASSES.put("UAObject", NodeClass.Object);
+        NODE_CLASSES.put("UAVariable", NodeClass.Variable);
+        NODE_CLASSES.put("UAMethod", NodeClass.Method);
+        NODE_CLASSES.put("UAView", NodeClass.View);
+        NODE_CLASSES.put("UAObjectType", NodeClass.ObjectType);
+        NODE_CLASSES.put("UAVariableType", NodeClass.VariableType);
+        NODE_CLASSES.put("UADataType", NodeClass.DataType);
+        NODE_CLASSES.put("UAReferenceType", NodeClass.ReferenceType);
+    }
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private UaNodeSetStreamParser() {}
+
+    static UaNodeSet parse(InputStream nodeSetXml, ParseOptions options) throws JAXBException {
+        Unmarshaller unmarshaller = JaxbPool.borrowUnmarshaller();
+        Marshaller marshaller = JaxbPool.borrowMarshaller();
+
+        try {
+            UaNodeSetBuilder builder = new UaNodeSetBuilder(marshaller, options);
+
+            // with an executor, unmarshalled nodes are handed off in chunks while reading continues
+            boolean parallel = options.getExecutor() != null;
+            List<UANode> batch = new ArrayList<>();
+
+            // reading and unmarshalling are interleaved with conversion, so unmarshal time is accumulated per element
+            long unmarshalNanos = 0L;
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(nodeSetXml);
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                        reader.next();
+                        continue;
+                    }
+
+                    String localName = reader.getLocalName();
+                    Class<? extends UANode> nodeClass = NODE_ELEMENTS.get(localName);
+
+                    if (nodeClass != null) {
+                        // filtered nodes are skipped before anything is unmarshalled
+                        String nodeId = reader.getAttributeValue(null, "NodeId");
+
+                        if (!builder.acceptNode(nodeId, NODE_CLASSES.get(localName))) {
+                            skipElement(reader);
+                            continue;
+                        }
+
+                        // unmarshal leaves the reader on the event following the end of this element
+                        long start = System.nanoTime();
+                        UANode gNode = unmarshaller.unmarshal(reader, nodeClass).getValue();
+                        unmarshalNanos += System.nanoTime() - start;
+
+                        if (parallel) {
+                            batch.add(gNode);
+
+                            if (batch.size() >= options.getChunkSize()) {
+                                builder.addNodes(batch);
+                                batch = new ArrayList<>();
+                            }
+                        } else {
+                            builder.addNode(gNode);
+                        }
+                    } else if ("NamespaceUris".equals(localName)) {
+                        builder.addNamespaceUris(unmarshaller.unmarshal(reader, UriTable.class).getValue());
+                    } else if ("Aliases".equals(localName)) {
+                        builder.addAliases(unmarshaller.unmarshal(reader, AliasTable.class).getValue());
+                    } else if ("UANodeSet".equals(localName)) {
+                        reader.next();
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+
+            options.getListener().onPhaseCompleted(NodeSetListener.Phase.UNMARSHAL, unmarshalNanos);
+
+            builder.addNodes(batch);
+
+            return builder.build();
+        } catch (XMLStreamException e) {
+            throw new UnmarshalException(e);
+        } finally {
+            JaxbPool.releaseMarshaller(marshaller);
+            JaxbPool.releaseUnmarshaller(unmarshaller);
+        }
+    }
+
+    /**
+     * Skip the element {@code reader} is currently positioned on, including all of its children, leaving the reader
+     * on the event following its end element.
+     */
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 0;
+
+        do {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        } while (depth >= 0);
+
+        if (reader.hasNext()) {
+            reader.next();
+        }
+    }
+
+    static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.digitalpetri.opcua.nodeset.attributes;
 
+import java.util.Collections;
+
+import com.digitalpetri.opcua.nodeset.util.ParseContext;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
@@ -40,8 +43,12 @@ public class DataTypeNodeAttributes extends NodeAttributes {
     }
 
     public static DataTypeNodeAttributes fromGenerated(UADataType gNode) {
-        NodeId nodeId = NodeId.parse(gNode.getNodeId());
-        QualifiedName browseName = QualifiedName.parse(gNode.getBrowseName());
+        return fromGenerated(gNode, new ParseContext(Collections.emptyMap(), false));
+    }
+
+    public static DataTypeNodeAttributes fromGenerated(UADataType gNode, ParseContext context) {
+        NodeId nodeId = context.resolveNodeId(gNode.getNodeId());
+        QualifiedName browseName = context.parseQualifiedName(gNode.getBrowseName());
 
         LocalizedText displayName = gNode.getDisplayName().stream()
             .findFirst()
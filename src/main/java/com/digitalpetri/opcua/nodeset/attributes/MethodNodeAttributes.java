@@ -1,5 +1,8 @@
 package com.digitalpetri.opcua.nodeset.attributes;
 
+import java.util.Collections;
+
+import com.digitalpetri.opcua.nodeset.util.ParseContext;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
@@ -48,8 +51,12 @@ public class MethodNodeAttributes extends NodeAttributes {
     }
 
     public static MethodNodeAttributes fromGenerated(UAMethod gNode) {
-        NodeId nodeId = NodeId.parse(gNode.getNodeId());
-        QualifiedName browseName = QualifiedName.parse(gNode.getBrowseName());
+        return fromGenerated(gNode, new ParseContext(Collections.emptyMap(), false));
+    }
+
+    public static MethodNodeAttributes fromGenerated(UAMethod gNode, ParseContext context) {
+        NodeId nodeId = context.resolveNodeId(gNode.getNodeId());
+        QualifiedName browseName = context.parseQualifiedName(gNode.getBrowseName());
 
         LocalizedText displayName = gNode.getDisplayName().stream()
             .findFirst()
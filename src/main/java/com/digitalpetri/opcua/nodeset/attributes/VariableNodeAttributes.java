@@ -2,9 +2,13 @@ package com.digitalpetri.opcua.nodeset.attributes;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.function.Supplier;
 import javax.xml.bind.Marshaller;
 
 import com.digitalpetri.opcua.nodeset.util.AttributeUtil;
+import com.digitalpetri.opcua.nodeset.util.LazyValue;
+import com.digitalpetri.opcua.nodeset.util.ParseContext;
+import com.google.common.base.Suppliers;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
@@ -20,7 +24,7 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 
 public class VariableNodeAttributes extends NodeAttributes {
 
-    private final DataValue value;
+    private final Supplier<DataValue> value;
     private final NodeId dataType;
     private final int valueRank;
     private final UInteger[] arrayDimensions;
@@ -46,6 +50,48 @@ public class VariableNodeAttributes extends NodeAttributes {
         boolean historizing
     ) {
 
+        this(
+            nodeId,
+            browseName,
+            displayName,
+            description,
+            writeMask,
+            userWriteMask,
+            Suppliers.ofInstance(value),
+            dataType,
+            valueRank,
+            arrayDimensions,
+            accessLevel,
+            userAccessLevel,
+            minimumSamplingInterval,
+            historizing
+        );
+    }
+
+    /**
+     * Create a {@link VariableNodeAttributes} whose value is obtained from {@code value} the first time
+     * {@link #getValue()} is called.
+     * <p>
+     * {@code value} is called each time {@link #getValue()} is called; it should cache its result if it is expensive
+     * to compute, e.g. by using a {@link LazyValue}.
+     */
+    public VariableNodeAttributes(
+        NodeId nodeId,
+        QualifiedName browseName,
+        LocalizedText displayName,
+        LocalizedText description,
+        UInteger writeMask,
+        UInteger userWriteMask,
+        Supplier<DataValue> value,
+        NodeId dataType,
+        int valueRank,
+        UInteger[] arrayDimensions,
+        UByte accessLevel,
+        UByte userAccessLevel,
+        Double minimumSamplingInterval,
+        boolean historizing
+    ) {
+
         super(nodeId, NodeClass.Variable, browseName, displayName, description, writeMask, userWriteMask);
 
         this.value = value;
@@ -59,7 +105,14 @@ public class VariableNodeAttributes extends NodeAttributes {
     }
 
     public DataValue getValue() {
-        return value;
+        return value.get();
+    }
+
+    /**
+     * @return {@code false} if the value is a {@link LazyValue} that has not been decoded yet.
+     */
+    public boolean isValueDecoded() {
+        return !LazyValue.isPending(value);
     }
 
     public NodeId getDataType() {
@@ -93,7 +146,7 @@ public class VariableNodeAttributes extends NodeAttributes {
     @Override
     public String toString() {
         return "VariableNodeAttributes{" +
-            "value=" + value +
+            "value=" + (isValueDecoded() ? getValue() : value) +
             ", dataType=" + dataType +
             ", valueRank=" + valueRank +
             ", arrayDimensions=" + Arrays.toString(arrayDimensions) +
@@ -111,8 +164,18 @@ public class VariableNodeAttributes extends NodeAttributes {
         Map<NodeId, String> rawXmlValues
     ) {
 
-        NodeId nodeId = NodeId.parse(gNode.getNodeId());
-        QualifiedName browseName = QualifiedName.parse(gNode.getBrowseName());
+        return fromGenerated(gNode, marshaller, new ParseContext(aliasMap, false), rawXmlValues);
+    }
+
+    public static VariableNodeAttributes fromGenerated(
+        UAVariable gNode,
+        Marshaller marshaller,
+        ParseContext context,
+        Map<NodeId, String> rawXmlValues
+    ) {
+
+        NodeId nodeId = context.resolveNodeId(gNode.getNodeId());
+        QualifiedName browseName = context.parseQualifiedName(gNode.getBrowseName());
 
         LocalizedText displayName = gNode.getDisplayName().stream()
             .findFirst()
@@ -127,8 +190,8 @@ public class VariableNodeAttributes extends NodeAttributes {
         UInteger writeMask = uint(gNode.getWriteMask());
         UInteger userWriteMask = uint(gNode.getUserWriteMask());
 
-        DataValue value = value(gNode.getValue(), marshaller, nodeId, rawXmlValues);
-        NodeId dataType = AttributeUtil.parseDataType(gNode.getDataType(), aliasMap);
+        Supplier<DataValue> value = value(gNode.getValue(), marshaller, nodeId, context, rawXmlValues);
+        NodeId dataType = context.resolveNodeId(gNode.getDataType());
         int valueRank = gNode.getValueRank();
         UInteger[] arrayDimensions = AttributeUtil.parseArrayDimensions(gNode.getArrayDimensions());
         UByte accessLevel = ubyte(gNode.getAccessLevel());
@@ -154,18 +217,27 @@ public class VariableNodeAttributes extends NodeAttributes {
         );
     }
 
-    private static DataValue value(
+    private static Supplier<DataValue> value(
         UAVariable.Value gValue,
         Marshaller marshaller,
         NodeId nodeId,
+        ParseContext context,
         Map<NodeId, String> rawXmlValues
     ) {
 
         if (gValue == null || gValue.getAny() == null) {
-            return new DataValue(Variant.NULL_VALUE);
+            return Suppliers.ofInstance(new DataValue(Variant.NULL_VALUE));
         }
 
-        return AttributeUtil.parseValue(gValue.getAny(), marshaller, nodeId, rawXmlValues);
+        if (context.isLazyValues()) {
+            return AttributeUtil.parseValueLazily(
+                gValue.getAny(), marshaller, nodeId, rawXmlValues, context.getListener()
+            );
+        } else {
+            return Suppliers.ofInstance(AttributeUtil.parseValue(
+                gValue.getAny(), marshaller, nodeId, rawXmlValues, context.getListener()
+            ));
+        }
     }
 
 }
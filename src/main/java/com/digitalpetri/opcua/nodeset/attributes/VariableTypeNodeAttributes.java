@@ -3,9 +3,13 @@ package com.digitalpetri.opcua.nodeset.attributes;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.xml.bind.Marshaller;
 
 import com.digitalpetri.opcua.nodeset.util.AttributeUtil;
+import com.digitalpetri.opcua.nodeset.util.LazyValue;
+import com.digitalpetri.opcua.nodeset.util.ParseContext;
+import com.google.common.base.Suppliers;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
@@ -19,7 +23,7 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 
 public class VariableTypeNodeAttributes extends NodeAttributes {
 
-    private final DataValue value;
+    private final Supplier<DataValue> value;
     private final NodeId dataType;
     private final int valueRank;
     private final UInteger[] arrayDimensions;
@@ -39,6 +43,42 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
         boolean isAbstract
     ) {
 
+        this(
+            nodeId,
+            browseName,
+            displayName,
+            description,
+            writeMask,
+            userWriteMask,
+            Suppliers.ofInstance(value),
+            dataType,
+            valueRank,
+            arrayDimensions,
+            isAbstract
+        );
+    }
+
+    /**
+     * Create a {@link VariableTypeNodeAttributes} whose value is obtained from {@code value} the first time
+     * {@link #getValue()} is called.
+     * <p>
+     * {@code value} is called each time {@link #getValue()} is called; it should cache its result if it is expensive
+     * to compute, e.g. by using a {@link LazyValue}.
+     */
+    public VariableTypeNodeAttributes(
+        NodeId nodeId,
+        QualifiedName browseName,
+        LocalizedText displayName,
+        LocalizedText description,
+        UInteger writeMask,
+        UInteger userWriteMask,
+        Supplier<DataValue> value,
+        NodeId dataType,
+        int valueRank,
+        UInteger[] arrayDimensions,
+        boolean isAbstract
+    ) {
+
         super(nodeId, NodeClass.VariableType, browseName, displayName, description, writeMask, userWriteMask);
 
         this.value = value;
@@ -49,7 +89,14 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
     }
 
     public DataValue getValue() {
-        return value;
+        return value.get();
+    }
+
+    /**
+     * @return {@code false} if the value is a {@link LazyValue} that has not been decoded yet.
+     */
+    public boolean isValueDecoded() {
+        return !LazyValue.isPending(value);
     }
 
     public NodeId getDataType() {
@@ -71,7 +118,7 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
     @Override
     public String toString() {
         return "VariableTypeNodeAttributes{" +
-            "value=" + value +
+            "value=" + (isValueDecoded() ? getValue() : value) +
             ", dataType=" + dataType +
             ", valueRank=" + valueRank +
             ", arrayDimensions=" + Arrays.toString(arrayDimensions) +
@@ -84,8 +131,18 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
         Marshaller marshaller,
         Map<String, NodeId> aliasMap, Map<NodeId, String> rawXmlValues) {
 
-        NodeId nodeId = NodeId.parse(gNode.getNodeId());
-        QualifiedName browseName = QualifiedName.parse(gNode.getBrowseName());
+        return fromGenerated(gNode, marshaller, new ParseContext(aliasMap, false), rawXmlValues);
+    }
+
+    public static VariableTypeNodeAttributes fromGenerated(
+        UAVariableType gNode,
+        Marshaller marshaller,
+        ParseContext context,
+        Map<NodeId, String> rawXmlValues
+    ) {
+
+        NodeId nodeId = context.resolveNodeId(gNode.getNodeId());
+        QualifiedName browseName = context.parseQualifiedName(gNode.getBrowseName());
 
         LocalizedText displayName = gNode.getDisplayName().stream()
             .findFirst()
@@ -100,9 +157,9 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
         UInteger writeMask = uint(gNode.getWriteMask());
         UInteger userWriteMask = uint(gNode.getUserWriteMask());
 
-        DataValue value = value(gNode.getValue(), marshaller, nodeId, rawXmlValues)
-            .orElse(new DataValue(Variant.NULL_VALUE));
-        NodeId dataType = AttributeUtil.parseDataType(gNode.getDataType(), aliasMap);
+        Supplier<DataValue> value = value(gNode.getValue(), marshaller, nodeId, context, rawXmlValues)
+            .orElse(Suppliers.ofInstance(new DataValue(Variant.NULL_VALUE)));
+        NodeId dataType = context.resolveNodeId(gNode.getDataType());
         int valueRank = gNode.getValueRank();
         UInteger[] arrayDimensions = AttributeUtil.parseArrayDimensions(gNode.getArrayDimensions());
         boolean isAbstract = gNode.isIsAbstract();
@@ -122,16 +179,25 @@ public class VariableTypeNodeAttributes extends NodeAttributes {
         );
     }
 
-    private static Optional<DataValue> value(
+    private static Optional<Supplier<DataValue>> value(
         UAVariableType.Value gValue,
         Marshaller marshaller,
         NodeId nodeId,
+        ParseContext context,
         Map<NodeId, String> rawXmlValues
     ) {
         
         if (gValue == null) return Optional.empty();
 
-        return Optional.of(AttributeUtil.parseValue(gValue.getAny(), marshaller, nodeId, rawXmlValues));
+        if (context.isLazyValues()) {
+            return Optional.of(AttributeUtil.parseValueLazily(
+                gValue.getAny(), marshaller, nodeId, rawXmlValues, context.getListener()
+            ));
+        } else {
+            return Optional.of(Suppliers.ofInstance(AttributeUtil.parseValue(
+                gValue.getAny(), marshaller, nodeId, rawXmlValues, context.getListener()
+            )));
+        }
     }
 
 }
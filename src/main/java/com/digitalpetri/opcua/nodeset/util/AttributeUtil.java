@@ -2,10 +2,12 @@ package com.digitalpetri.opcua.nodeset.util;
 
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.util.Arrays;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -15,6 +17,8 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
 import org.eclipse.milo.opcua.stack.core.Identifiers;
 import org.eclipse.milo.opcua.stack.core.NamespaceTable;
 import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
@@ -29,6 +33,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.opcfoundation.ua.generated.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
@@ -57,6 +62,26 @@ public class AttributeUtil {
         }
     };
 
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+    /**
+     * {@link Transformer}s are expensive to create and not thread-safe, so one is kept per thread.
+     */
+    private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<>();
+
+    /**
+     * Decoders create an {@code XMLInputFactory} when constructed, so one is kept per thread and given new input for
+     * each value.
+     */
+    private static final ThreadLocal<OpcUaXmlStreamDecoder> XML_DECODER =
+        ThreadLocal.withInitial(() -> new OpcUaXmlStreamDecoder(SERIALIZATION_CONTEXT));
+
+    /**
+     * The NodeId constants in {@link Identifiers}, by field name, for NodeSets that use symbolic names in place of
+     * NodeIds or aliases.
+     */
+    private static final Map<String, NodeId> IDENTIFIERS = createIdentifierIndex();
+
     public static NodeId parseDataType(String dataType, Map<String, NodeId> aliases) {
         return tryParseNodeId(dataType, aliases);
     }
@@ -69,23 +94,21 @@ public class AttributeUtil {
 
     public static NodeId tryParseNodeId(String id, Map<String, NodeId> aliases) {
         return NodeId.parseSafe(id).orElseGet(() -> {
-            if (aliases.containsKey(id)) {
-                return aliases.get(id);
-            } else {
+            NodeId nodeId = aliases.get(id);
+
+            if (nodeId == null) {
                 // Ok, last effort...
-                Optional<NodeId> nodeId = Arrays.stream(Identifiers.class.getFields())
-                    .filter(field -> field.getName().equals(id))
-                    .findFirst()
-                    .map(field -> {
-                        try {
-                            return (NodeId) field.get(null);
-                        } catch (Throwable ex) {
-                            throw new RuntimeException("Couldn't get NodeId field: " + id, ex);
-                        }
-                    });
-
-                return nodeId.orElseThrow(RuntimeException::new);
+                nodeId = IDENTIFIERS.get(id);
+            }
+
+            if (nodeId == null) {
+                throw new IllegalArgumentException(
+                    "unable to resolve NodeId \"" + id + "\": " +
+                        "not a NodeId, a known alias, or a field of Identifiers"
+                );
             }
+
+            return nodeId;
         });
     }
 
@@ -96,6 +119,174 @@ public class AttributeUtil {
         Map<NodeId, String> rawXmlValues
     ) {
 
+        return parseValue(value, marshaller, nodeId, rawXmlValues, NodeSetListener.NONE);
+    }
+
+    /**
+     * Like {@link #parseValue(Object, Marshaller, NodeId, Map)}, reporting the decoding time, and any failure, to
+     * {@code listener}.
+     */
+    public static DataValue parseValue(
+        Object value,
+        Marshaller marshaller,
+        NodeId nodeId,
+        Map<NodeId, String> rawXmlValues,
+        NodeSetListener listener
+    ) {
+
+        DecodedValue decoded = decodeValue(value, marshaller, nodeId, valueType(value), listener);
+
+        if (decoded != null) {
+            putRawXml(rawXmlValues, nodeId, decoded.rawXml);
+
+            return decoded.dataValue;
+        } else {
+            return new DataValue(Variant.NULL_VALUE);
+        }
+    }
+
+    /**
+     * Decode {@code value}, with {@link DomValueDecoder} if it can, and report the outcome to {@code listener}.
+     *
+     * @return the decoded value and its raw XML, or {@code null} if it could not be decoded.
+     */
+    private static DecodedValue decodeValue(
+        Object value,
+        Marshaller marshaller,
+        NodeId nodeId,
+        String valueType,
+        NodeSetListener listener
+    ) {
+
+        long start = System.nanoTime();
+
+        DecodedValue decoded = decodeValue(value, marshaller);
+
+        if (decoded != null) {
+            listener.onValueDecoded(nodeId, valueType, System.nanoTime() - start);
+        } else {
+            listener.onValueDecodeFailed(nodeId, valueType, System.nanoTime() - start);
+        }
+
+        return decoded;
+    }
+
+    private static DecodedValue decodeValue(Object value, Marshaller marshaller) {
+        if (value instanceof Element) {
+            Element element = (Element) value;
+            Optional<Object> valueObject = DomValueDecoder.decode(element);
+
+            if (valueObject.isPresent()) {
+                return new DecodedValue(
+                    new DataValue(new Variant(valueObject.get())),
+                    () -> toXmlString(element, null)
+                );
+            }
+        }
+
+        String xmlString = toXmlString(value, marshaller);
+        DataValue dataValue = xmlString != null ? decodeXmlString(xmlString) : null;
+
+        return dataValue != null ? new DecodedValue(dataValue, Suppliers.ofInstance(xmlString)) : null;
+    }
+
+    /**
+     * Like {@link #parseValue(Object, Marshaller, NodeId, Map)}, but the value is decoded the first time the returned
+     * {@link Supplier} is called and the result is cached.
+     */
+    public static Supplier<DataValue> parseValueLazily(
+        Object value,
+        Marshaller marshaller,
+        NodeId nodeId,
+        Map<NodeId, String> rawXmlValues
+    ) {
+
+        return parseValueLazily(value, marshaller, nodeId, rawXmlValues, NodeSetListener.NONE);
+    }
+
+    /**
+     * Like {@link #parseValueLazily(Object, Marshaller, NodeId, Map)}, reporting the decoding time, and any failure,
+     * to {@code listener} when the value is first decoded.
+     * <p>
+     * The value is decoded the same way {@link #parseValue(Object, Marshaller, NodeId, Map, NodeSetListener)} decodes
+     * it, and its raw XML is only present in {@code rawXmlValues} if it decodes successfully. To make that possible
+     * without decoding, {@code rawXmlValues} must be a {@link RawXmlValues}: its entry for the value is deferred and
+     * decodes the value when it's read. Values parsed into any other map are decoded immediately.
+     */
+    public static Supplier<DataValue> parseValueLazily(
+        Object value,
+        Marshaller marshaller,
+        NodeId nodeId,
+        Map<NodeId, String> rawXmlValues,
+        NodeSetListener listener
+    ) {
+
+        if (!(rawXmlValues instanceof RawXmlValues)) {
+            return Suppliers.ofInstance(parseValue(value, marshaller, nodeId, rawXmlValues, listener));
+        }
+
+        String valueType = valueType(value);
+
+        // the marshaller is only borrowed for the parse, so anything but a DOM element is serialized now
+        Object undecoded = value instanceof Element ? value : toXmlString(value, marshaller);
+
+        if (undecoded == null) {
+            listener.onValueDecodeFailed(nodeId, valueType, 0L);
+
+            return Suppliers.ofInstance(new DataValue(Variant.NULL_VALUE));
+        }
+
+        Supplier<DecodedValue> decoded = Suppliers.memoize(
+            () -> decodeValue(undecoded, null, nodeId, valueType, listener)
+        );
+
+        ((RawXmlValues) rawXmlValues).putDeferred(nodeId, () -> {
+            DecodedValue d = decoded.get();
+
+            return d != null ? d.rawXml.get() : null;
+        });
+
+        return new LazyValue(() -> {
+            DecodedValue d = decoded.get();
+
+            return d != null ? d.dataValue : new DataValue(Variant.NULL_VALUE);
+        });
+    }
+
+    /**
+     * Record the raw XML of a value; if {@code rawXmlValues} is a {@link RawXmlValues} it is only serialized when
+     * it's read.
+     */
+    private static void putRawXml(Map<NodeId, String> rawXmlValues, NodeId nodeId, Supplier<String> xml) {
+        if (rawXmlValues instanceof RawXmlValues) {
+            ((RawXmlValues) rawXmlValues).putDeferred(nodeId, xml);
+        } else {
+            String xmlString = xml.get();
+
+            if (xmlString != null) {
+                rawXmlValues.put(nodeId, xmlString);
+            }
+        }
+    }
+
+    /**
+     * @return the name of the XML element {@code value} was parsed from, e.g. {@code Int32}.
+     */
+    private static String valueType(Object value) {
+        if (value instanceof Element) {
+            Element element = (Element) value;
+
+            return element.getLocalName() != null ? element.getLocalName() : element.getTagName();
+        } else if (value instanceof JAXBElement) {
+            return ((JAXBElement<?>) value).getName().getLocalPart();
+        } else {
+            return value != null ? value.getClass().getSimpleName() : "null";
+        }
+    }
+
+    private static String toXmlString(Object value, Marshaller marshaller) {
+        if (value instanceof String) return (String) value;
+
         StringWriter sw = new StringWriter();
 
         if (value instanceof JAXBElement) {
@@ -105,35 +296,77 @@ public class AttributeUtil {
                 marshaller.marshal(jaxbElement, sw);
             } catch (JAXBException e) {
                 LOGGER.warn("unable to marshal JAXB element: " + jaxbElement, e);
-                return new DataValue(Variant.NULL_VALUE);
+                return null;
             }
         } else if (value instanceof Node) {
             Node node = (Node) value;
 
             try {
-                Transformer transformer = TransformerFactory.newInstance().newTransformer();
-                transformer.setOutputProperty("omit-xml-declaration", "yes");
-                transformer.transform(new DOMSource(node), new StreamResult(sw));
+                getTransformer().transform(new DOMSource(node), new StreamResult(sw));
             } catch (TransformerException e) {
                 LOGGER.warn("unable to transform dom node: " + node, e);
-                return new DataValue(Variant.NULL_VALUE);
+                return null;
             }
         }
 
-        String xmlString = sw.toString();
+        return sw.toString();
+    }
+
+    private static DataValue decodeXmlString(String xmlString) {
         try {
-            OpcUaXmlStreamDecoder xmlReader = new OpcUaXmlStreamDecoder(SERIALIZATION_CONTEXT);
+            OpcUaXmlStreamDecoder xmlReader = XML_DECODER.get();
             xmlReader.setInput(new StringReader(xmlString));
 
             Object valueObject = xmlReader.readVariantValue();
 
-            rawXmlValues.put(nodeId, xmlString);
-
             return new DataValue(new Variant(valueObject));
         } catch (Throwable t) {
             LOGGER.warn("unable to parse Value: " + xmlString, t);
-            return new DataValue(Variant.NULL_VALUE);
+            return null;
+        }
+    }
+
+    private static Transformer getTransformer() throws TransformerException {
+        Transformer transformer = TRANSFORMER.get();
+
+        if (transformer == null) {
+            transformer = TRANSFORMER_FACTORY.newTransformer();
+            transformer.setOutputProperty("omit-xml-declaration", "yes");
+            TRANSFORMER.set(transformer);
+        }
+
+        return transformer;
+    }
+
+    /**
+     * A successfully decoded value and its raw XML.
+     */
+    private static final class DecodedValue {
+
+        final DataValue dataValue;
+        final Supplier<String> rawXml;
+
+        DecodedValue(DataValue dataValue, Supplier<String> rawXml) {
+            this.dataValue = dataValue;
+            this.rawXml = rawXml;
         }
+
+    }
+
+    private static Map<String, NodeId> createIdentifierIndex() {
+        ImmutableMap.Builder<String, NodeId> builder = ImmutableMap.builder();
+
+        for (Field field : Identifiers.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == NodeId.class) {
+                try {
+                    builder.put(field.getName(), (NodeId) field.get(null));
+                } catch (IllegalAccessException e) {
+                    LOGGER.warn("Couldn't get NodeId field: " + field.getName(), e);
+                }
+            }
+        }
+
+        return builder.build();
     }
 
     public static UInteger[] parseArrayDimensions(List<String> list) {
@@ -0,0 +1,318 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import com.google.common.collect.ListMultimap;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * An immutable store of explicit and implicit {@link Reference}s held in primitive arrays.
+ * <p>
+ * Source nodes are numbered densely and the references of each source occupy a contiguous range of the per-reference
+ * arrays (compressed sparse row layout), explicit references first. Reference types and targets are stored as indices
+ * into tables of distinct {@link NodeId}s and {@link ExpandedNodeId}s, and the direction of each reference and whether
+ * it is implicit are kept in {@link BitSet}s. No {@link Reference} objects are retained; they are created on access.
+ * <p>
+ * The explicit, implicit and combined references are exposed as read-only {@link ListMultimap} views that all share
+ * the same arrays, so the combined view costs nothing extra.
+ */
+public final class CompactReferenceStore {
+
+    private final Map<NodeId, Integer> sourceIndex;
+    private final NodeId[] sources;
+
+    /**
+     * The references of source {@code i} are at {@code [offsets[i], offsets[i + 1])}.
+     */
+    private final int[] offsets;
+
+    private final NodeId[] referenceTypes;
+    private final ExpandedNodeId[] targets;
+
+    private final int[] referenceTypeIndices;
+    private final int[] targetIndices;
+    private final BitSet forward;
+    private final BitSet implicit;
+
+    private final ListMultimap<NodeId, Reference> explicitView;
+    private final ListMultimap<NodeId, Reference> implicitView;
+    private final ListMultimap<NodeId, Reference> combinedView;
+
+    private CompactReferenceStore(
+        ListMultimap<NodeId, Reference> explicitReferences,
+        ListMultimap<NodeId, Reference> implicitReferences
+    ) {
+
+        Set<NodeId> sourceIds = new LinkedHashSet<>(explicitReferences.keySet());
+        sourceIds.addAll(implicitReferences.keySet());
+
+        int referenceCount = explicitReferences.size() + implicitReferences.size();
+
+        sources = sourceIds.toArray(new NodeId[0]);
+        sourceIndex = new HashMap<>(sources.length * 4 / 3 + 1);
+        offsets = new int[sources.length + 1];
+        referenceTypeIndices = new int[referenceCount];
+        targetIndices = new int[referenceCount];
+        forward = new BitSet(referenceCount);
+        implicit = new BitSet(referenceCount);
+
+        Map<NodeId, Integer> referenceTypeTable = new HashMap<>();
+        Map<ExpandedNodeId, Integer> targetTable = new HashMap<>();
+        List<NodeId> referenceTypeList = new ArrayList<>();
+        List<ExpandedNodeId> targetList = new ArrayList<>();
+
+        int r = 0;
+        for (int i = 0; i < sources.length; i++) {
+            NodeId sourceNodeId = sources[i];
+
+            sourceIndex.put(sourceNodeId, i);
+            offsets[i] = r;
+
+            for (Reference reference : explicitReferences.get(sourceNodeId)) {
+                add(r++, reference, false, referenceTypeTable, referenceTypeList, targetTable, targetList);
+            }
+            for (Reference reference : implicitReferences.get(sourceNodeId)) {
+                add(r++, reference, true, referenceTypeTable, referenceTypeList, targetTable, targetList);
+            }
+        }
+        offsets[sources.length] = r;
+
+        referenceTypes = referenceTypeList.toArray(new NodeId[0]);
+        targets = targetList.toArray(new ExpandedNodeId[0]);
+
+        explicitView = new View(true, false);
+        implicitView = new View(false, true);
+        combinedView = new View(true, true);
+    }
+
+    private void add(
+        int r,
+        Reference reference,
+        boolean isImplicit,
+        Map<NodeId, Integer> referenceTypeTable,
+        List<NodeId> referenceTypeList,
+        Map<ExpandedNodeId, Integer> targetTable,
+        List<ExpandedNodeId> targetList
+    ) {
+
+        referenceTypeIndices[r] = referenceTypeTable.computeIfAbsent(reference.getReferenceTypeId(), k -> {
+            referenceTypeList.add(k);
+            return referenceTypeList.size() - 1;
+        });
+        targetIndices[r] = targetTable.computeIfAbsent(reference.getTargetNodeId(), k -> {
+            targetList.add(k);
+            return targetList.size() - 1;
+        });
+        forward.set(r, reference.isForward());
+        implicit.set(r, isImplicit);
+    }
+
+    /**
+     * Create a {@link CompactReferenceStore} containing the given references.
+     *
+     * @param explicitReferences the explicitly defined references, by source node.
+     * @param implicitReferences the implicitly defined (inverted) references, by source node.
+     * @return a {@link CompactReferenceStore} containing copies of {@code explicitReferences} and
+     * {@code implicitReferences}.
+     */
+    public static CompactReferenceStore create(
+        ListMultimap<NodeId, Reference> explicitReferences,
+        ListMultimap<NodeId, Reference> implicitReferences
+    ) {
+
+        return new CompactReferenceStore(explicitReferences, implicitReferences);
+    }
+
+    /**
+     * @return a read-only view of the explicit references, by source node.
+     */
+    public ListMultimap<NodeId, Reference> getExplicitReferences() {
+        return explicitView;
+    }
+
+    /**
+     * @return a read-only view of the implicit references, by source node.
+     */
+    public ListMultimap<NodeId, Reference> getImplicitReferences() {
+        return implicitView;
+    }
+
+    /**
+     * @return a read-only view of the explicit followed by the implicit references, by source node.
+     */
+    public ListMultimap<NodeId, Reference> getCombinedReferences() {
+        return combinedView;
+    }
+
+    /**
+     * @return the number of distinct source nodes.
+     */
+    public int getSourceCount() {
+        return sources.length;
+    }
+
+    /**
+     * @return the total number of explicit and implicit references.
+     */
+    public int getReferenceCount() {
+        return offsets[sources.length];
+    }
+
+    private Reference reference(int sourceIndex, int r) {
+        return new Reference(
+            sources[sourceIndex],
+            referenceTypes[referenceTypeIndices[r]],
+            targets[targetIndices[r]],
+            forward.get(r)
+        );
+    }
+
+    /**
+     * @return the index of the first implicit reference of source {@code i}, or the end of its range if it has none.
+     */
+    private int split(int i) {
+        int end = offsets[i + 1];
+        int split = implicit.nextSetBit(offsets[i]);
+
+        return split < 0 || split > end ? end : split;
+    }
+
+    private final class View extends ReadOnlyListMultimap<NodeId, Reference> {
+
+        private final boolean includeExplicit;
+        private final boolean includeImplicit;
+
+        private final int keyCount;
+        private final int size;
+
+        private final Set<NodeId> keySet = new AbstractSet<NodeId>() {
+            @Override
+            public Iterator<NodeId> iterator() {
+                return new Iterator<NodeId>() {
+                    private int next = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < sources.length;
+                    }
+
+                    @Override
+                    public NodeId next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+
+                        NodeId nodeId = sources[next];
+                        next = advance(next + 1);
+                        return nodeId;
+                    }
+
+                    private int advance(int i) {
+                        while (i < sources.length && start(i) == end(i)) i++;
+                        return i;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                Integer i = sourceIndex.get(o);
+
+                return i != null && start(i) < end(i);
+            }
+
+            @Override
+            public int size() {
+                return keyCount;
+            }
+        };
+
+        View(boolean includeExplicit, boolean includeImplicit) {
+            this.includeExplicit = includeExplicit;
+            this.includeImplicit = includeImplicit;
+
+            int keyCount = 0;
+            int size = 0;
+            for (int i = 0; i < sources.length; i++) {
+                int n = end(i) - start(i);
+                if (n > 0) {
+                    keyCount++;
+                    size += n;
+                }
+            }
+            this.keyCount = keyCount;
+            this.size = size;
+        }
+
+        private int start(int i) {
+            return includeExplicit ? offsets[i] : split(i);
+        }
+
+        private int end(int i) {
+            return includeImplicit ? offsets[i + 1] : split(i);
+        }
+
+        @Override
+        public Set<NodeId> keySet() {
+            return keySet;
+        }
+
+        @Override
+        protected List<Reference> getValues(Object key) {
+            Integer i = sourceIndex.get(key);
+
+            if (i == null) {
+                return Collections.emptyList();
+            } else {
+                return new ReferenceList(i, start(i), end(i));
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+    private final class ReferenceList extends AbstractList<Reference> implements RandomAccess {
+
+        private final int sourceIndex;
+        private final int start;
+        private final int end;
+
+        ReferenceList(int sourceIndex, int start, int end) {
+            this.sourceIndex = sourceIndex;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Reference get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("index: " + index);
+            }
+
+            return reference(sourceIndex, start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import javax.xml.bind.DatatypeConverter;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * Decodes the built-in scalar and array types of the OPC UA XML encoding directly from a DOM {@link Element}.
+ * <p>
+ * Structured and container types (ExtensionObject, Variant, DataValue, DiagnosticInfo, XmlElement, Matrix) are not
+ * supported; callers are expected to fall back to {@code OpcUaXmlStreamDecoder} for those.
+ */
+final class DomValueDecoder {
+
+    private static final String UA_TYPES_NAMESPACE = "http://opcfoundation.org/UA/2008/02/Types.xsd";
+
+    private static final String LIST_OF = "ListOf";
+
+    private static final Map<String, ScalarType> SCALAR_TYPES = new HashMap<>();
+
+    static {
+        SCALAR_TYPES.put("Boolean", new ScalarType(Boolean.class, e -> parseBoolean(text(e))));
+        SCALAR_TYPES.put("SByte", new ScalarType(Byte.class, e -> Byte.parseByte(text(e))));
+        SCALAR_TYPES.put("Byte", new ScalarType(UByte.class, e -> ubyte(Short.parseShort(text(e)))));
+        SCALAR_TYPES.put("Int16", new ScalarType(Short.class, e -> Short.parseShort(text(e))));
+        SCALAR_TYPES.put("UInt16", new ScalarType(UShort.class, e -> ushort(Integer.parseInt(text(e)))));
+        SCALAR_TYPES.put("Int32", new ScalarType(Integer.class, e -> Integer.parseInt(text(e))));
+        SCALAR_TYPES.put("UInt32", new ScalarType(UInteger.class, e -> uint(Long.parseLong(text(e)))));
+        SCALAR_TYPES.put("Int64", new ScalarType(Long.class, e -> Long.parseLong(text(e))));
+        SCALAR_TYPES.put("UInt64", new ScalarType(ULong.class, e -> ulong(new BigInteger(text(e)))));
+        SCALAR_TYPES.put("Float", new ScalarType(Float.class, e -> parseFloat(text(e))));
+        SCALAR_TYPES.put("Double", new ScalarType(Double.class, e -> parseDouble(text(e))));
+        SCALAR_TYPES.put("String", new ScalarType(String.class, Node::getTextContent));
+        SCALAR_TYPES.put("DateTime", new ScalarType(DateTime.class, DomValueDecoder::decodeDateTime));
+        SCALAR_TYPES.put("Guid", new ScalarType(UUID.class, DomValueDecoder::decodeGuid));
+        SCALAR_TYPES.put("ByteString", new ScalarType(ByteString.class, DomValueDecoder::decodeByteString));
+        SCALAR_TYPES.put("NodeId", new ScalarType(NodeId.class, DomValueDecoder::decodeNodeId));
+        SCALAR_TYPES.put("ExpandedNodeId", new ScalarType(ExpandedNodeId.class, DomValueDecoder::decodeExpandedNodeId));
+        SCALAR_TYPES.put("StatusCode", new ScalarType(StatusCode.class, DomValueDecoder::decodeStatusCode));
+        SCALAR_TYPES.put("QualifiedName", new ScalarType(QualifiedName.class, DomValueDecoder::decodeQualifiedName));
+        SCALAR_TYPES.put("LocalizedText", new ScalarType(LocalizedText.class, DomValueDecoder::decodeLocalizedText));
+    }
+
+    private DomValueDecoder() {}
+
+    /**
+     * Decode the value contained in {@code element}, the child of a UAVariable or UAVariableType {@code <Value>}.
+     *
+     * @param element the value {@link Element}.
+     * @return the decoded value, or {@link Optional#empty()} if the type is not supported or the element could not be
+     * decoded.
+     */
+    static Optional<Object> decode(Element element) {
+        if (!UA_TYPES_NAMESPACE.equals(element.getNamespaceURI())) {
+            return Optional.empty();
+        }
+
+        String typeName = element.getLocalName();
+
+        try {
+            if (typeName.startsWith(LIST_OF)) {
+                ScalarType scalarType = SCALAR_TYPES.get(typeName.substring(LIST_OF.length()));
+
+                return scalarType != null ? Optional.of(decodeArray(element, scalarType)) : Optional.empty();
+            } else {
+                ScalarType scalarType = SCALAR_TYPES.get(typeName);
+
+                return scalarType != null ? Optional.of(scalarType.decoder.apply(element)) : Optional.empty();
+            }
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Object decodeArray(Element element, ScalarType scalarType) {
+        List<Element> children = children(element);
+
+        Object array = Array.newInstance(scalarType.type, children.size());
+
+        for (int i = 0; i < children.size(); i++) {
+            Array.set(array, i, scalarType.decoder.apply(children.get(i)));
+        }
+
+        return array;
+    }
+
+    private static DateTime decodeDateTime(Element element) {
+        return new DateTime(DatatypeConverter.parseDateTime(text(element)).getTime());
+    }
+
+    private static UUID decodeGuid(Element element) {
+        Element string = child(element, "String");
+
+        if (string == null) {
+            throw new IllegalArgumentException("Guid without String: " + element);
+        }
+
+        return UUID.fromString(text(string));
+    }
+
+    private static ByteString decodeByteString(Element element) {
+        return ByteString.of(Base64.getMimeDecoder().decode(text(element)));
+    }
+
+    private static NodeId decodeNodeId(Element element) {
+        Element identifier = child(element, "Identifier");
+
+        if (identifier == null || text(identifier).isEmpty()) {
+            return NodeId.NULL_VALUE;
+        } else {
+            return NodeId.parse(text(identifier));
+        }
+    }
+
+    private static ExpandedNodeId decodeExpandedNodeId(Element element) {
+        Element identifier = child(element, "Identifier");
+
+        if (identifier == null || text(identifier).isEmpty()) {
+            return ExpandedNodeId.NULL_VALUE;
+        } else {
+            return ExpandedNodeId.parse(text(identifier));
+        }
+    }
+
+    private static StatusCode decodeStatusCode(Element element) {
+        Element code = child(element, "Code");
+
+        if (code == null) {
+            return StatusCode.GOOD;
+        } else {
+            return new StatusCode(Long.parseLong(text(code)));
+        }
+    }
+
+    private static QualifiedName decodeQualifiedName(Element element) {
+        Element namespaceIndex = child(element, "NamespaceIndex");
+        Element name = child(element, "Name");
+
+        return new QualifiedName(
+            namespaceIndex != null ? Integer.parseInt(text(namespaceIndex)) : 0,
+            name != null ? name.getTextContent() : null
+        );
+    }
+
+    private static LocalizedText decodeLocalizedText(Element element) {
+        Element locale = child(element, "Locale");
+        Element text = child(element, "Text");
+
+        return new LocalizedText(
+            locale != null ? locale.getTextContent() : null,
+            text != null ? text.getTextContent() : null
+        );
+    }
+
+    private static boolean parseBoolean(String s) {
+        return "true".equals(s) || "1".equals(s);
+    }
+
+    private static float parseFloat(String s) {
+        switch (s) {
+            case "INF":
+                return Float.POSITIVE_INFINITY;
+            case "-INF":
+                return Float.NEGATIVE_INFINITY;
+            default:
+                return Float.parseFloat(s);
+        }
+    }
+
+    private static double parseDouble(String s) {
+        switch (s) {
+            case "INF":
+                return Double.POSITIVE_INFINITY;
+            case "-INF":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(s);
+        }
+    }
+
+    private static String text(Element element) {
+        return element.getTextContent().trim();
+    }
+
+    private static Element child(Element element, String localName) {
+        for (Node n = element.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE && localName.equals(n.getLocalName())) {
+                return (Element) n;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element element) {
+        List<Element> children = new ArrayList<>();
+        for (Node n = element.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) n);
+            }
+        }
+        return children;
+    }
+
+    private static final class ScalarType {
+        final Class<?> type;
+        final Function<Element, Object> decoder;
+
+        ScalarType(Class<?> type, Function<Element, Object> decoder) {
+            this.type = type;
+            this.decoder = decoder;
+        }
+    }
+
+}
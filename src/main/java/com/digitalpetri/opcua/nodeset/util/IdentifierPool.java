@@ -0,0 +1,57 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+
+/**
+ * Interns {@link NodeId}s, {@link ExpandedNodeId}s and {@link QualifiedName}s so that equal identifiers produced
+ * while parsing or merging share one instance.
+ * <p>
+ * A pool holds strong references to everything interned in it; it is meant to be scoped to a single parse or merge
+ * and discarded afterwards. Pools are thread-safe.
+ */
+public final class IdentifierPool {
+
+    private final Interner<NodeId> nodeIds = Interners.newStrongInterner();
+    private final Interner<ExpandedNodeId> expandedNodeIds = Interners.newStrongInterner();
+    private final Interner<QualifiedName> qualifiedNames = Interners.newStrongInterner();
+
+    public NodeId intern(NodeId nodeId) {
+        return nodeId != null ? nodeIds.intern(nodeId) : null;
+    }
+
+    public ExpandedNodeId intern(ExpandedNodeId expandedNodeId) {
+        return expandedNodeId != null ? expandedNodeIds.intern(expandedNodeId) : null;
+    }
+
+    public QualifiedName intern(QualifiedName qualifiedName) {
+        return qualifiedName != null ? qualifiedNames.intern(qualifiedName) : null;
+    }
+
+    /**
+     * Intern the source, reference type and target of {@code reference}.
+     *
+     * @param reference the {@link Reference} to intern the identifiers of.
+     * @return {@code reference} if its identifiers were already interned, otherwise an equal {@link Reference} made
+     * of interned identifiers.
+     */
+    public Reference intern(Reference reference) {
+        NodeId sourceNodeId = intern(reference.getSourceNodeId());
+        NodeId referenceTypeId = intern(reference.getReferenceTypeId());
+        ExpandedNodeId targetNodeId = intern(reference.getTargetNodeId());
+
+        if (sourceNodeId == reference.getSourceNodeId()
+            && referenceTypeId == reference.getReferenceTypeId()
+            && targetNodeId == reference.getTargetNodeId()) {
+
+            return reference;
+        } else {
+            return new Reference(sourceNodeId, referenceTypeId, targetNodeId, reference.isForward());
+        }
+    }
+
+}
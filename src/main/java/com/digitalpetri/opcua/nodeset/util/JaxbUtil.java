@@ -0,0 +1,42 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.opcfoundation.ua.generated.ObjectFactory;
+
+/**
+ * Provides the process-wide {@link JAXBContext} for the generated UANodeSet classes.
+ * <p>
+ * {@link JAXBContext} is thread-safe and expensive to create, so it is created once on first use. Marshallers and
+ * Unmarshallers created from it are not thread-safe and must not be shared between threads.
+ */
+public final class JaxbUtil {
+
+    private static volatile JAXBContext context;
+
+    private JaxbUtil() {}
+
+    /**
+     * Get the shared {@link JAXBContext}, creating it if this is the first call.
+     *
+     * @return the shared {@link JAXBContext}.
+     * @throws JAXBException if the context could not be created.
+     */
+    public static JAXBContext getContext() throws JAXBException {
+        JAXBContext jaxbContext = context;
+
+        if (jaxbContext == null) {
+            synchronized (JaxbUtil.class) {
+                jaxbContext = context;
+
+                if (jaxbContext == null) {
+                    context = jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
+                }
+            }
+        }
+
+        return jaxbContext;
+    }
+
+}
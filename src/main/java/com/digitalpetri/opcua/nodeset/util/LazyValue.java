@@ -0,0 +1,63 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.function.Supplier;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+
+/**
+ * A {@link Supplier} of a {@link DataValue} that is computed the first time it is requested and cached afterwards.
+ * <p>
+ * Unlike a memoizing supplier, it can tell whether the value was computed yet, so toString methods and the merger can
+ * avoid forcing a decode. The delegate is released once the value is computed, along with anything it captured.
+ */
+public final class LazyValue implements Supplier<DataValue> {
+
+    private volatile Supplier<DataValue> delegate;
+    private volatile DataValue value;
+
+    public LazyValue(Supplier<DataValue> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public DataValue get() {
+        DataValue v = value;
+
+        if (v == null) {
+            synchronized (this) {
+                v = value;
+
+                if (v == null) {
+                    v = delegate.get();
+                    value = v;
+                    delegate = null;
+                }
+            }
+        }
+
+        return v;
+    }
+
+    /**
+     * @return {@code true} if the value has been computed.
+     */
+    public boolean isComputed() {
+        return value != null;
+    }
+
+    /**
+     * @param supplier a value supplier.
+     * @return {@code true} if calling {@code supplier} would compute a value that was not computed yet.
+     */
+    public static boolean isPending(Supplier<DataValue> supplier) {
+        return supplier instanceof LazyValue && !((LazyValue) supplier).isComputed();
+    }
+
+    @Override
+    public String toString() {
+        DataValue v = value;
+
+        return v != null ? String.valueOf(v) : "<not decoded>";
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.UUID;
+
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.IdType;
+
+/**
+ * Translates namespace indices of one {@link NamespaceTable} into the indices of the same namespace URIs in another.
+ * <p>
+ * The translation table is computed once, so translating an identifier is an array lookup rather than a URI lookup
+ * in each table. Identifiers whose namespace index doesn't change are returned as-is, and {@link #isIdentity()} lets
+ * callers skip translation entirely when no index changes, which is always the case for namespace 0.
+ * <p>
+ * Namespace indices that have no URI in the original table, or whose URI isn't in the target table, are left
+ * unchanged.
+ */
+public final class NamespaceTranslation {
+
+    /**
+     * {@code indices[i]} is the target index of original index {@code i}, or {@code null} if it isn't translated.
+     */
+    private final UShort[] indices;
+    private final boolean identity;
+
+    private final String[] originalUris;
+    private final NamespaceTable targetNamespaceTable;
+
+    private NamespaceTranslation(UShort[] indices, String[] originalUris, NamespaceTable targetNamespaceTable) {
+        this.indices = indices;
+        this.originalUris = originalUris;
+        this.targetNamespaceTable = targetNamespaceTable;
+
+        boolean identity = true;
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] != null && indices[i].intValue() != i) {
+                identity = false;
+                break;
+            }
+        }
+        this.identity = identity;
+    }
+
+    /**
+     * Create a {@link NamespaceTranslation} from {@code originalNamespaceTable} to {@code targetNamespaceTable}.
+     *
+     * @param originalNamespaceTable the {@link NamespaceTable} identifiers are currently indexed against.
+     * @param targetNamespaceTable   the {@link NamespaceTable} to translate identifiers to.
+     * @return a {@link NamespaceTranslation} from {@code originalNamespaceTable} to {@code targetNamespaceTable}.
+     */
+    public static NamespaceTranslation create(
+        NamespaceTable originalNamespaceTable,
+        NamespaceTable targetNamespaceTable
+    ) {
+
+        String[] uris = originalNamespaceTable.toArray();
+        UShort[] indices = new UShort[uris.length];
+
+        for (int i = 0; i < uris.length; i++) {
+            if (uris[i] != null) {
+                indices[i] = targetNamespaceTable.getIndex(uris[i]);
+            }
+        }
+
+        return new NamespaceTranslation(indices, uris, targetNamespaceTable);
+    }
+
+    /**
+     * @return {@code true} if no namespace index changes, i.e. every translation returns its argument.
+     */
+    public boolean isIdentity() {
+        return identity;
+    }
+
+    /**
+     * @param namespaceIndex an index in the original {@link NamespaceTable}.
+     * @return the namespace URI at {@code namespaceIndex} in the original {@link NamespaceTable}, or {@code null} if
+     * there is none.
+     */
+    public String getOriginalNamespaceUri(UShort namespaceIndex) {
+        int i = namespaceIndex.intValue();
+
+        return i < originalUris.length ? originalUris[i] : null;
+    }
+
+    /**
+     * @param namespaceIndex an index in the original {@link NamespaceTable}.
+     * @return the corresponding index in the target {@link NamespaceTable}, or {@code namespaceIndex} if it isn't
+     * translated.
+     */
+    public UShort translate(UShort namespaceIndex) {
+        int i = namespaceIndex.intValue();
+
+        if (i < indices.length && indices[i] != null) {
+            return indices[i];
+        } else {
+            return namespaceIndex;
+        }
+    }
+
+    public NodeId translate(NodeId nodeId) {
+        UShort namespaceIndex = nodeId.getNamespaceIndex();
+        UShort newNamespaceIndex = translate(namespaceIndex);
+
+        if (newNamespaceIndex.intValue() == namespaceIndex.intValue()) {
+            return nodeId;
+        } else {
+            return nodeId(newNamespaceIndex, nodeId.getType(), nodeId.getIdentifier());
+        }
+    }
+
+    /**
+     * Translate {@code expandedNodeId} if it is relative; absolute ExpandedNodeIds, which identify their namespace by
+     * URI, are returned as-is.
+     *
+     * @param expandedNodeId the {@link ExpandedNodeId} to translate.
+     * @return the translated {@link ExpandedNodeId}.
+     */
+    public ExpandedNodeId translate(ExpandedNodeId expandedNodeId) {
+        if (expandedNodeId.isAbsolute()) {
+            return expandedNodeId;
+        }
+
+        UShort namespaceIndex = expandedNodeId.getNamespaceIndex();
+        UShort newNamespaceIndex = translate(namespaceIndex);
+
+        if (newNamespaceIndex.intValue() == namespaceIndex.intValue()) {
+            return expandedNodeId;
+        } else if (expandedNodeId.isLocal()) {
+            return nodeId(newNamespaceIndex, expandedNodeId.getType(), expandedNodeId.getIdentifier()).expanded();
+        } else {
+            return expandedNodeId.reindex(targetNamespaceTable, targetNamespaceTable.getUri(newNamespaceIndex));
+        }
+    }
+
+    public QualifiedName translate(QualifiedName qualifiedName) {
+        UShort namespaceIndex = qualifiedName.getNamespaceIndex();
+        UShort newNamespaceIndex = translate(namespaceIndex);
+
+        if (newNamespaceIndex.intValue() == namespaceIndex.intValue()) {
+            return qualifiedName;
+        } else {
+            return new QualifiedName(newNamespaceIndex, qualifiedName.getName());
+        }
+    }
+
+    /**
+     * Translate the source, reference type and target of {@code reference}. A target that is an absolute
+     * ExpandedNodeId is kept as-is, like {@link #translate(ExpandedNodeId)} does.
+     *
+     * @param reference the {@link Reference} to translate.
+     * @return {@code reference} if nothing changed, otherwise the translated {@link Reference}.
+     */
+    public Reference translate(Reference reference) {
+        NodeId sourceNodeId = translate(reference.getSourceNodeId());
+        NodeId referenceTypeId = translate(reference.getReferenceTypeId());
+
+        ExpandedNodeId targetNodeId = translate(reference.getTargetNodeId());
+
+        if (sourceNodeId == reference.getSourceNodeId()
+            && referenceTypeId == reference.getReferenceTypeId()
+            && targetNodeId == reference.getTargetNodeId()) {
+
+            return reference;
+        } else {
+            return new Reference(sourceNodeId, referenceTypeId, targetNodeId, reference.isForward());
+        }
+    }
+
+    private static NodeId nodeId(UShort namespaceIndex, IdType type, Object identifier) {
+        switch (type) {
+            case Numeric:
+                return new NodeId(namespaceIndex, (UInteger) identifier);
+            case String:
+                return new NodeId(namespaceIndex, (String) identifier);
+            case Guid:
+                return new NodeId(namespaceIndex, (UUID) identifier);
+            case Opaque:
+                return new NodeId(namespaceIndex, (ByteString) identifier);
+            default:
+                throw new IllegalArgumentException("type: " + type);
+        }
+    }
+
+}
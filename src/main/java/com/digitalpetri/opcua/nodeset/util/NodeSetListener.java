@@ -0,0 +1,100 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.nio.file.Path;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+
+/**
+ * Receives timings and counts while a UANodeSet is parsed or merged.
+ * <p>
+ * Set a listener with {@code ParseOptions.Builder#setListener} or {@code MergeOptions.Builder#setListener}.
+ * {@link NodeSetMetrics} aggregates everything into a summary that can be logged or exported.
+ * <p>
+ * When an {@link java.util.concurrent.Executor} is configured, methods are called concurrently from its threads, so
+ * implementations must be thread-safe. They are called on the parsing path and should return quickly.
+ */
+public interface NodeSetListener {
+
+    /**
+     * A listener that ignores everything.
+     */
+    NodeSetListener NONE = new NodeSetListener() {};
+
+    enum Phase {
+
+        /**
+         * Unmarshalling XML into the generated JAXB classes.
+         */
+        UNMARSHAL,
+
+        /**
+         * Resolving references and deriving the implicit (inverse) references.
+         */
+        REFERENCES,
+
+        /**
+         * Converting nodes into {@link com.digitalpetri.opcua.nodeset.attributes.NodeAttributes}, including decoding
+         * values unless they are decoded lazily.
+         */
+        ATTRIBUTES,
+
+        /**
+         * Re-indexing node sets into the merged namespace table.
+         */
+        REINDEX
+
+    }
+
+    /**
+     * Called once per phase, at the end of a parse or merge.
+     * <p>
+     * The duration is the sum over every thread that worked on the phase, so with an executor it can exceed the
+     * elapsed time.
+     *
+     * @param phase the {@link Phase}.
+     * @param nanos the time spent in {@code phase}, in nanoseconds.
+     */
+    default void onPhaseCompleted(Phase phase, long nanos) {}
+
+    /**
+     * Called for each node converted while parsing.
+     *
+     * @param nodeId    the {@link NodeId} of the node.
+     * @param nodeClass the {@link NodeClass} of the node.
+     */
+    default void onNodeParsed(NodeId nodeId, NodeClass nodeClass) {}
+
+    /**
+     * Called for each Variable or VariableType value that was decoded successfully.
+     * <p>
+     * Lazily decoded values are reported when they are first accessed, or their raw XML is first read, which may be
+     * after the parse has completed.
+     *
+     * @param nodeId    the {@link NodeId} of the node the value belongs to.
+     * @param valueType the name of the value's XML element, e.g. {@code Int32} or {@code ListOfExtensionObject}.
+     * @param nanos     the time spent decoding the value, in nanoseconds.
+     */
+    default void onValueDecoded(NodeId nodeId, String valueType, long nanos) {}
+
+    /**
+     * Called instead of {@link #onValueDecoded(NodeId, String, long)} for each Variable or VariableType value that
+     * could not be decoded and was replaced with a null value.
+     *
+     * @param nodeId    the {@link NodeId} of the node the value belongs to.
+     * @param valueType the name of the value's XML element.
+     * @param nanos     the time spent trying to decode the value, in nanoseconds.
+     */
+    default void onValueDecodeFailed(NodeId nodeId, String valueType, long nanos) {}
+
+    /**
+     * Called when a node set is loaded from a snapshot instead of being parsed, e.g. on a
+     * {@code UaNodeSetCache} hit. No other method is called for such a load.
+     *
+     * @param snapshot the snapshot file.
+     * @param nodeCount the number of nodes loaded.
+     * @param nanos     the time spent loading the snapshot, in nanoseconds.
+     */
+    default void onSnapshotLoaded(Path snapshot, int nodeCount, long nanos) {}
+
+}
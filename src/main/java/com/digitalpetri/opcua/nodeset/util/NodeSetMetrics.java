@@ -0,0 +1,265 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+
+/**
+ * A {@link NodeSetListener} that aggregates phase durations, node counts, value decoding times and failures, and the
+ * slowest individual values.
+ * <p>
+ * One instance can be shared by several parses and merges, e.g. all the node sets loaded at startup, in which case
+ * the summary covers all of them.
+ * <pre>{@code
+ * NodeSetMetrics metrics = new NodeSetMetrics();
+ * UaNodeSet nodeSet = UaNodeSet.parse(in, ParseOptions.builder().setListener(metrics).build());
+ * LOGGER.info("{}", metrics.getSummary());
+ * }</pre>
+ */
+public final class NodeSetMetrics implements NodeSetListener {
+
+    private static final Comparator<ValueTiming> BY_NANOS = Comparator.comparingLong(ValueTiming::getNanos);
+
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final Map<NodeClass, LongAdder> nodeCounts = new EnumMap<>(NodeClass.class);
+    private final Map<String, LongAdder> decodeFailures = new ConcurrentHashMap<>();
+
+    private final LongAdder valueCount = new LongAdder();
+    private final LongAdder valueNanos = new LongAdder();
+
+    /**
+     * The slowest values seen so far; the fastest of them is at the head.
+     */
+    private final PriorityQueue<ValueTiming> slowestValues = new PriorityQueue<>(BY_NANOS);
+
+    private final int slowestValueLimit;
+
+    /**
+     * Create a {@link NodeSetMetrics} that keeps the 10 slowest values.
+     */
+    public NodeSetMetrics() {
+        this(10);
+    }
+
+    /**
+     * @param slowestValueLimit the number of slowest values to keep.
+     */
+    public NodeSetMetrics(int slowestValueLimit) {
+        if (slowestValueLimit < 0) {
+            throw new IllegalArgumentException("slowestValueLimit: " + slowestValueLimit);
+        }
+        this.slowestValueLimit = slowestValueLimit;
+
+        // populated up front so the maps are only ever read concurrently
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+        for (NodeClass nodeClass : NodeClass.values()) {
+            nodeCounts.put(nodeClass, new LongAdder());
+        }
+    }
+
+    @Override
+    public void onPhaseCompleted(Phase phase, long nanos) {
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    @Override
+    public void onNodeParsed(NodeId nodeId, NodeClass nodeClass) {
+        nodeCounts.get(nodeClass).increment();
+    }
+
+    @Override
+    public void onValueDecoded(NodeId nodeId, String valueType, long nanos) {
+        recordValue(nodeId, valueType, nanos);
+    }
+
+    @Override
+    public void onValueDecodeFailed(NodeId nodeId, String valueType, long nanos) {
+        decodeFailures.computeIfAbsent(valueType, k -> new LongAdder()).increment();
+
+        recordValue(nodeId, valueType, nanos);
+    }
+
+    private void recordValue(NodeId nodeId, String valueType, long nanos) {
+        valueCount.increment();
+        valueNanos.add(nanos);
+
+        if (slowestValueLimit > 0) {
+            synchronized (slowestValues) {
+                if (slowestValues.size() < slowestValueLimit) {
+                    slowestValues.add(new ValueTiming(nodeId, valueType, nanos));
+                } else if (nanos > slowestValues.peek().getNanos()) {
+                    slowestValues.poll();
+                    slowestValues.add(new ValueTiming(nodeId, valueType, nanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a {@link Summary} of everything reported so far.
+     */
+    public Summary getSummary() {
+        Map<Phase, Duration> phaseTimes = new EnumMap<>(Phase.class);
+        phaseNanos.forEach((phase, nanos) -> phaseTimes.put(phase, Duration.ofNanos(nanos.sum())));
+
+        Map<NodeClass, Long> nodeCounts = new EnumMap<>(NodeClass.class);
+        this.nodeCounts.forEach((nodeClass, count) -> {
+            long sum = count.sum();
+            if (sum > 0) nodeCounts.put(nodeClass, sum);
+        });
+
+        Map<String, Long> decodeFailures = new TreeMap<>();
+        this.decodeFailures.forEach((valueType, count) -> decodeFailures.put(valueType, count.sum()));
+
+        List<ValueTiming> slowest;
+        synchronized (slowestValues) {
+            slowest = new ArrayList<>(slowestValues);
+        }
+        slowest.sort(BY_NANOS.reversed());
+
+        return new Summary(
+            phaseTimes,
+            nodeCounts,
+            valueCount.sum(),
+            Duration.ofNanos(valueNanos.sum()),
+            decodeFailures,
+            slowest
+        );
+    }
+
+    /**
+     * The time taken to decode one value.
+     */
+    public static final class ValueTiming {
+
+        private final NodeId nodeId;
+        private final String valueType;
+        private final long nanos;
+
+        ValueTiming(NodeId nodeId, String valueType, long nanos) {
+            this.nodeId = nodeId;
+            this.valueType = valueType;
+            this.nanos = nanos;
+        }
+
+        public NodeId getNodeId() {
+            return nodeId;
+        }
+
+        public String getValueType() {
+            return valueType;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return nodeId + " (" + valueType + "): " + Duration.ofNanos(nanos);
+        }
+
+    }
+
+    /**
+     * An immutable snapshot of a {@link NodeSetMetrics}.
+     */
+    public static final class Summary {
+
+        private final Map<Phase, Duration> phaseTimes;
+        private final Map<NodeClass, Long> nodeCounts;
+        private final long valueCount;
+        private final Duration valueDecodingTime;
+        private final Map<String, Long> decodeFailures;
+        private final List<ValueTiming> slowestValues;
+
+        Summary(
+            Map<Phase, Duration> phaseTimes,
+            Map<NodeClass, Long> nodeCounts,
+            long valueCount,
+            Duration valueDecodingTime,
+            Map<String, Long> decodeFailures,
+            List<ValueTiming> slowestValues
+        ) {
+
+            this.phaseTimes = Collections.unmodifiableMap(phaseTimes);
+            this.nodeCounts = Collections.unmodifiableMap(nodeCounts);
+            this.valueCount = valueCount;
+            this.valueDecodingTime = valueDecodingTime;
+            this.decodeFailures = Collections.unmodifiableMap(decodeFailures);
+            this.slowestValues = Collections.unmodifiableList(slowestValues);
+        }
+
+        /**
+         * @return the total time spent in each {@link Phase}.
+         */
+        public Map<Phase, Duration> getPhaseTimes() {
+            return phaseTimes;
+        }
+
+        /**
+         * @return the number of nodes parsed of each {@link NodeClass}; classes with no nodes are omitted.
+         */
+        public Map<NodeClass, Long> getNodeCounts() {
+            return nodeCounts;
+        }
+
+        /**
+         * @return the number of values decoded, including those that failed.
+         */
+        public long getValueCount() {
+            return valueCount;
+        }
+
+        /**
+         * @return the total time spent decoding values; when values are decoded eagerly this is part of
+         * {@link Phase#ATTRIBUTES}.
+         */
+        public Duration getValueDecodingTime() {
+            return valueDecodingTime;
+        }
+
+        /**
+         * @return the number of values that failed to decode, by value type.
+         */
+        public Map<String, Long> getDecodeFailures() {
+            return decodeFailures;
+        }
+
+        /**
+         * @return the slowest values to decode, slowest first.
+         */
+        public List<ValueTiming> getSlowestValues() {
+            return slowestValues;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("NodeSetMetrics.Summary{");
+
+            sb.append("phaseTimes=").append(phaseTimes);
+            sb.append(", nodeCounts=").append(nodeCounts);
+            sb.append(", valueCount=").append(valueCount);
+            sb.append(", valueDecodingTime=").append(valueDecodingTime);
+            sb.append(", decodeFailures=").append(decodeFailures);
+            sb.append(", slowestValues=").append(slowestValues);
+
+            return sb.append('}').toString();
+        }
+
+    }
+
+}
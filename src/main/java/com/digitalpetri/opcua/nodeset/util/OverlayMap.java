@@ -0,0 +1,94 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+
+/**
+ * A read-only {@link Map} view of a {@code base} map with the entries of an {@code overlay} map taking precedence.
+ * <p>
+ * Nothing is copied, so a large base map can be shared by any number of overlays; changes to either backing map are
+ * visible through the view. Like {@link UnionListMultimap}, the view does not synchronize.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public final class OverlayMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, V> base;
+    private final Map<K, V> overlay;
+
+    private final Set<Entry<K, V>> entrySet = new AbstractSet<Entry<K, V>>() {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<Entry<K, V>> entries = Iterators.concat(
+                overlay.entrySet().iterator(),
+                Iterators.filter(base.entrySet().iterator(), e -> !overlay.containsKey(e.getKey()))
+            );
+
+            return Iterators.transform(entries, e -> Maps.immutableEntry(e.getKey(), e.getValue()));
+        }
+
+        @Override
+        public int size() {
+            return OverlayMap.this.size();
+        }
+    };
+
+    public OverlayMap(Map<K, V> base, Map<K, V> overlay) {
+        this.base = base;
+        this.overlay = overlay;
+    }
+
+    /**
+     * @return the map whose entries the overlay takes precedence over.
+     */
+    public Map<K, V> getBase() {
+        return base;
+    }
+
+    /**
+     * @return the map whose entries take precedence.
+     */
+    public Map<K, V> getOverlay() {
+        return overlay;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = overlay.get(key);
+
+        if (value != null || overlay.containsKey(key)) {
+            return value;
+        } else {
+            return base.get(key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+
+        for (K key : overlay.keySet()) {
+            if (!base.containsKey(key)) size++;
+        }
+
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+}
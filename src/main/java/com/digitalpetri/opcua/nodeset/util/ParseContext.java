@@ -0,0 +1,113 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+
+/**
+ * State shared by all nodes converted during a single parse.
+ */
+public class ParseContext {
+
+    /**
+     * NodeIds already resolved during this parse, by the string they were resolved from.
+     */
+    private final Map<String, NodeId> resolvedNodeIds = new ConcurrentHashMap<>();
+
+    private final IdentifierPool identifierPool = new IdentifierPool();
+
+    private final Map<String, NodeId> aliasTable;
+    private final boolean lazyValues;
+    private final NodeSetListener listener;
+
+    public ParseContext(Map<String, NodeId> aliasTable, boolean lazyValues) {
+        this(aliasTable, lazyValues, NodeSetListener.NONE);
+    }
+
+    public ParseContext(Map<String, NodeId> aliasTable, boolean lazyValues, NodeSetListener listener) {
+        this.aliasTable = aliasTable;
+        this.lazyValues = lazyValues;
+        this.listener = listener;
+    }
+
+    public Map<String, NodeId> getAliasTable() {
+        return aliasTable;
+    }
+
+    /**
+     * Resolve {@code id}, which may be a NodeId, an alias, or the name of a field in
+     * {@link org.eclipse.milo.opcua.stack.core.Identifiers}, to a {@link NodeId}.
+     * <p>
+     * Results are cached for the duration of the parse and interned in {@link #getIdentifierPool()}, so each distinct
+     * string is only resolved once and equal NodeIds are the same instance.
+     *
+     * @param id the string to resolve.
+     * @return the resolved {@link NodeId}.
+     * @throws IllegalArgumentException if {@code id} can't be resolved.
+     * @see AttributeUtil#tryParseNodeId(String, Map)
+     */
+    public NodeId resolveNodeId(String id) {
+        NodeId nodeId = resolvedNodeIds.get(id);
+
+        if (nodeId == null) {
+            nodeId = resolvedNodeIds.computeIfAbsent(
+                id,
+                k -> identifierPool.intern(AttributeUtil.tryParseNodeId(k, aliasTable))
+            );
+        }
+
+        return nodeId;
+    }
+
+    /**
+     * Resolve {@code id} like {@link #resolveNodeId(String)}, without throwing if it can't be resolved.
+     *
+     * @param id the string to resolve; may be {@code null}.
+     * @return the resolved {@link NodeId}, or empty if {@code id} is {@code null} or can't be resolved.
+     */
+    public Optional<NodeId> tryResolveNodeId(String id) {
+        if (id == null) return Optional.empty();
+
+        try {
+            return Optional.of(resolveNodeId(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parse {@code name} into a {@link QualifiedName} interned in {@link #getIdentifierPool()}.
+     *
+     * @param name the string to parse.
+     * @return the parsed and interned {@link QualifiedName}.
+     */
+    public QualifiedName parseQualifiedName(String name) {
+        return identifierPool.intern(QualifiedName.parse(name));
+    }
+
+    /**
+     * @return the {@link IdentifierPool} identifiers created during this parse are interned in.
+     */
+    public IdentifierPool getIdentifierPool() {
+        return identifierPool;
+    }
+
+    /**
+     * @return {@code true} if Variable and VariableType values should be decoded on first access rather than while
+     * parsing.
+     */
+    public boolean isLazyValues() {
+        return lazyValues;
+    }
+
+    /**
+     * @return the {@link NodeSetListener} to report to.
+     */
+    public NodeSetListener getListener() {
+        return listener;
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.Maps;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * The raw XML of Variable and VariableType values, by NodeId, where the XML of an entry can be produced on first
+ * access rather than when the entry is added.
+ * <p>
+ * A deferred entry holds a {@link Supplier} of its XML, e.g. one that serializes the DOM element the value was
+ * parsed from. The supplier is called at most once. If it returns {@code null} the entry is absent, so lookups,
+ * iteration and {@link #size()} resolve the deferred entries they touch. Copying one {@link RawXmlValues} into
+ * another with {@link #putAll(Map)} or {@link #putAllTransformed(Map, Function, BiFunction)} keeps entries deferred.
+ * <p>
+ * Like {@link java.util.HashMap}, a {@link RawXmlValues} does not synchronize modifications, but deferred entries
+ * may be resolved by concurrent readers.
+ */
+public final class RawXmlValues extends ForwardingMap<NodeId, String> {
+
+    private final Map<NodeId, Supplier<String>> entries;
+    private final Map<NodeId, String> view;
+
+    public RawXmlValues() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * @param expectedSize the number of entries expected to be added.
+     */
+    public RawXmlValues(int expectedSize) {
+        this(Maps.newHashMapWithExpectedSize(expectedSize));
+    }
+
+    private RawXmlValues(Map<NodeId, Supplier<String>> entries) {
+        this.entries = entries;
+        this.view = Maps.transformValues(Maps.filterValues(entries, xml -> xml.get() != null), Supplier::get);
+    }
+
+    @Override
+    protected Map<NodeId, String> delegate() {
+        return view;
+    }
+
+    @Override
+    public String put(NodeId nodeId, String xml) {
+        if (xml == null) {
+            throw new NullPointerException("xml");
+        }
+
+        return resolve(entries.put(nodeId, Suppliers.ofInstance(xml)));
+    }
+
+    @Override
+    public void putAll(Map<? extends NodeId, ? extends String> values) {
+        if (values instanceof RawXmlValues) {
+            entries.putAll(((RawXmlValues) values).entries);
+        } else {
+            values.forEach(this::put);
+        }
+    }
+
+    /**
+     * Add an entry whose XML is produced by {@code xml} the first time it is read.
+     *
+     * @param nodeId the {@link NodeId} of the node the value belongs to.
+     * @param xml    supplies the raw XML of the value, or {@code null} if the entry should be absent.
+     */
+    public void putDeferred(NodeId nodeId, Supplier<String> xml) {
+        entries.put(nodeId, Suppliers.memoize(xml::get));
+    }
+
+    /**
+     * Add the entries of {@code values} with their keys and XML transformed. Entries of a {@link RawXmlValues} stay
+     * deferred, and are only transformed when read.
+     *
+     * @param values    the entries to add.
+     * @param key       transforms the key of each entry.
+     * @param transform transforms the key and XML of each entry into the XML to add.
+     */
+    public void putAllTransformed(
+        Map<NodeId, String> values,
+        Function<NodeId, NodeId> key,
+        BiFunction<NodeId, String, String> transform
+    ) {
+
+        if (values instanceof RawXmlValues) {
+            ((RawXmlValues) values).entries.forEach((nodeId, xml) -> putDeferred(key.apply(nodeId), () -> {
+                String s = xml.get();
+
+                return s != null ? transform.apply(nodeId, s) : null;
+            }));
+        } else {
+            values.forEach((nodeId, xml) -> put(key.apply(nodeId), transform.apply(nodeId, xml)));
+        }
+    }
+
+    /**
+     * @return the number of entries added, including deferred entries that may turn out to be absent; unlike
+     * {@link #size()} it resolves nothing.
+     */
+    public int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @param values raw XML values.
+     * @return the number of entries in {@code values}, without resolving deferred entries if it's a
+     * {@link RawXmlValues}.
+     */
+    public static int entryCount(Map<NodeId, String> values) {
+        return values instanceof RawXmlValues ? ((RawXmlValues) values).entryCount() : values.size();
+    }
+
+    private static String resolve(Supplier<String> xml) {
+        return xml != null ? xml.get() : null;
+    }
+
+}
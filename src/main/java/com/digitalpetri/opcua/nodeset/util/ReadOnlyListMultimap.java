@@ -0,0 +1,165 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+
+/**
+ * Skeleton for read-only {@link ListMultimap} views over data that isn't stored as a multimap.
+ * <p>
+ * Subclasses implement {@link #keySet()}, {@link #getValues(Object)} and {@link #size()}; everything else is derived from
+ * those. All mutators throw {@link UnsupportedOperationException}.
+ * <p>
+ * {@link #equals(Object)} and {@link #hashCode()} follow the {@link Multimap} contract, so a view is equal to any
+ * {@link ListMultimap} with the same keys and the same values in the same order.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public abstract class ReadOnlyListMultimap<K, V> implements ListMultimap<K, V> {
+
+    /**
+     * @return the distinct keys that have at least one value.
+     */
+    @Override
+    public abstract Set<K> keySet();
+
+    /**
+     * @param key the key to get the values of.
+     * @return an unmodifiable {@link List} of the values for {@code key}, empty if there are none.
+     */
+    protected abstract List<V> getValues(Object key);
+
+    @Override
+    public List<V> get(K key) {
+        return getValues(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keySet().contains(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return values().contains(value);
+    }
+
+    @Override
+    public boolean containsEntry(Object key, Object value) {
+        return getValues(key).contains(value);
+    }
+
+    @Override
+    public Multiset<K> keys() {
+        ImmutableMultiset.Builder<K> builder = ImmutableMultiset.builder();
+        for (K key : keySet()) {
+            builder.addCopies(key, get(key).size());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return Iterators.concat(Iterators.transform(keySet().iterator(), k -> get(k).iterator()));
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyListMultimap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Map.Entry<K, V>> entries() {
+        return new AbstractCollection<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return Iterators.concat(Iterators.transform(
+                    keySet().iterator(),
+                    k -> Iterators.transform(get(k).iterator(), v -> Maps.immutableEntry(k, v))
+                ));
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyListMultimap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Map<K, Collection<V>> asMap() {
+        return Maps.<K, Collection<V>>asMap(keySet(), this::get);
+    }
+
+    @Override
+    public boolean put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean putAll(K key, Iterable<? extends V> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean putAll(Multimap<? extends K, ? extends V> multimap) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<V> replaceValues(K key, Iterable<? extends V> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<V> removeAll(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || (obj instanceof Multimap && asMap().equals(((Multimap<?, ?>) obj).asMap()));
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+
+/**
+ * A read-only {@link ListMultimap} view of the union of two {@link ListMultimap}s.
+ * <p>
+ * The values of a key are the values in {@code first} followed by the values in {@code second}. Nothing is copied;
+ * changes to either backing multimap are visible through the view. The view does not synchronize, so it is safe to
+ * read from multiple threads as long as the backing multimaps are not being modified.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public final class UnionListMultimap<K, V> extends ReadOnlyListMultimap<K, V> {
+
+    private final ListMultimap<K, V> first;
+    private final ListMultimap<K, V> second;
+
+    public UnionListMultimap(ListMultimap<K, V> first, ListMultimap<K, V> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public ListMultimap<K, V> getFirst() {
+        return first;
+    }
+
+    public ListMultimap<K, V> getSecond() {
+        return second;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Sets.union(first.keySet(), second.keySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected List<V> getValues(Object key) {
+        // ListMultimap#get returns an empty view for an absent key, including a key of the wrong type
+        List<V> firstValues = first.get((K) key);
+        List<V> secondValues = second.get((K) key);
+
+        if (secondValues.isEmpty()) {
+            return Collections.unmodifiableList(firstValues);
+        } else if (firstValues.isEmpty()) {
+            return Collections.unmodifiableList(secondValues);
+        } else {
+            return new ConcatenatedList<>(firstValues, secondValues);
+        }
+    }
+
+    @Override
+    public int size() {
+        return first.size() + second.size();
+    }
+
+    private static final class ConcatenatedList<V> extends AbstractList<V> implements RandomAccess {
+
+        private final List<V> first;
+        private final List<V> second;
+
+        ConcatenatedList(List<V> first, List<V> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public V get(int index) {
+            int firstSize = first.size();
+
+            return index < firstSize ? first.get(index) : second.get(index - firstSize);
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+
+    }
+
+}
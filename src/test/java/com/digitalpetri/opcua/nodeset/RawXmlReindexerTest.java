@@ -0,0 +1,87 @@
+package com.digitalpetri.opcua.nodeset;
+
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RawXmlReindexerTest {
+
+    private static NamespaceTranslation translation() {
+        NamespaceTable original = new NamespaceTable();
+        original.addUri("urn:a");
+
+        NamespaceTable target = new NamespaceTable();
+        target.addUri("urn:b");
+        target.addUri("urn:a");
+
+        return NamespaceTranslation.create(original, target);
+    }
+
+    @Test
+    public void testReindex() throws Exception {
+        String xml = "<ListOfExtensionObject xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">" +
+            "<ExtensionObject><TypeId><Identifier>ns=1;i=5001</Identifier></TypeId><Body/></ExtensionObject>" +
+            "<NodeId><Identifier>ns=1;s=foo</Identifier></NodeId>" +
+            "<ExpandedNodeId><Identifier>svr=1;ns=1;i=42</Identifier></ExpandedNodeId>" +
+            "<ExpandedNodeId><Identifier>nsu=urn:a;i=42</Identifier></ExpandedNodeId>" +
+            "<QualifiedName><NamespaceIndex>1</NamespaceIndex><Name>ns=1;bar</Name></QualifiedName>" +
+            "<NodeId><Identifier>i=85</Identifier></NodeId>" +
+            "</ListOfExtensionObject>";
+
+        String expected = "<ListOfExtensionObject xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">" +
+            "<ExtensionObject><TypeId><Identifier>ns=2;i=5001</Identifier></TypeId><Body></Body></ExtensionObject>" +
+            "<NodeId><Identifier>ns=2;s=foo</Identifier></NodeId>" +
+            "<ExpandedNodeId><Identifier>svr=1;ns=2;i=42</Identifier></ExpandedNodeId>" +
+            "<ExpandedNodeId><Identifier>nsu=urn:a;i=42</Identifier></ExpandedNodeId>" +
+            "<QualifiedName><NamespaceIndex>2</NamespaceIndex><Name>ns=1;bar</Name></QualifiedName>" +
+            "<NodeId><Identifier>i=85</Identifier></NodeId>" +
+            "</ListOfExtensionObject>";
+
+        assertEquals(expected, RawXmlReindexer.reindex(xml, translation()));
+    }
+
+    @Test
+    public void testReindexArgumentDataType() throws Exception {
+        String xml = "<ExtensionObject xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">" +
+            "<TypeId><Identifier>i=297</Identifier></TypeId><Body><Argument>" +
+            "<Name>foo</Name><DataType><Identifier>ns=1;i=3001</Identifier></DataType>" +
+            "</Argument></Body></ExtensionObject>";
+
+        String expected = "<ExtensionObject xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">" +
+            "<TypeId><Identifier>i=297</Identifier></TypeId><Body><Argument>" +
+            "<Name>foo</Name><DataType><Identifier>ns=2;i=3001</Identifier></DataType>" +
+            "</Argument></Body></ExtensionObject>";
+
+        assertEquals(expected, RawXmlReindexer.reindex(xml, translation()));
+    }
+
+    @Test
+    public void testMergedArgumentValue() throws Exception {
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        // the OutputArguments of DI's FetchTransferResultData, whose FetchResult argument has a DI DataType
+        assertTrue(di.getRawXmlValues().get(NodeId.parse("ns=1;i=6577")).contains("ns=1;i=6566"));
+
+        String xml = adi.merge(di).getRawXmlValues().get(NodeId.parse("ns=2;i=6577"));
+
+        assertTrue(xml.contains("<Identifier>ns=2;i=6566</Identifier>"));
+        assertFalse(xml.contains("ns=1;i=6566"));
+    }
+
+    @Test
+    public void testNothingToReindex() throws Exception {
+        String xml = "<String xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">foo</String>";
+
+        assertSame(xml, RawXmlReindexer.reindex(xml, translation()));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.digitalpetri.opcua.nodeset;
+
+import com.digitalpetri.opcua.nodeset.util.NamespaceTranslation;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.SerializationContext;
+import org.eclipse.milo.opcua.stack.core.types.DataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
+import org.eclipse.milo.opcua.stack.core.types.structured.Range;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StructReindexersTest {
+
+    private static final SerializationContext CONTEXT = new SerializationContext() {
+
+        private final NamespaceTable namespaceTable = new NamespaceTable();
+
+        @Override
+        public EncodingLimits getEncodingLimits() {
+            return EncodingLimits.DEFAULT;
+        }
+
+        @Override
+        public NamespaceTable getNamespaceTable() {
+            return namespaceTable;
+        }
+
+        @Override
+        public DataTypeManager getDataTypeManager() {
+            return OpcUaDataTypeManager.getInstance();
+        }
+
+    };
+
+    @Test
+    public void testDefaultReindexesArgumentDataType() {
+        ExtensionObject xo = ExtensionObject.encode(CONTEXT, argument(new NodeId(1, 3001)));
+
+        ExtensionObject reindexed = StructReindexers.createDefault().reindex(xo, translation());
+
+        assertEquals(Identifiers.Argument_Encoding_DefaultBinary, reindexed.getEncodingId());
+        assertEquals(new NodeId(2, 3001), ((Argument) reindexed.decode(CONTEXT)).getDataType());
+    }
+
+    @Test
+    public void testUnregisteredStructIsPassedThrough() {
+        ExtensionObject xo = ExtensionObject.encode(CONTEXT, new Range(1.0, 2.0));
+
+        assertSame(xo, StructReindexers.createDefault().reindex(xo, translation()));
+    }
+
+    @Test
+    public void testCustomRegistration() {
+        StructReindexers reindexers = StructReindexers.createDefault().toBuilder()
+            .register(Identifiers.Range_Encoding_DefaultBinary.expanded(), Range.class,
+                (range, translation) -> new Range(range.getLow(), range.getHigh() * 2))
+            .build();
+
+        ExtensionObject range = ExtensionObject.encode(CONTEXT, new Range(1.0, 2.0));
+
+        assertEquals(4.0, ((Range) reindexers.reindex(range, translation()).decode(CONTEXT)).getHigh(), 0.0);
+
+        // the defaults are still registered, and the shared default registry is unchanged
+        ExtensionObject argument = ExtensionObject.encode(CONTEXT, argument(new NodeId(1, 3001)));
+        assertEquals(
+            new NodeId(2, 3001),
+            ((Argument) reindexers.reindex(argument, translation()).decode(CONTEXT)).getDataType()
+        );
+        assertSame(range, StructReindexers.createDefault().reindex(range, translation()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterRelativeEncodingIdOutsideNamespace0() {
+        StructReindexers.builder().register(new NodeId(1, 5001).expanded(), Range.class, (range, translation) -> range);
+    }
+
+    private static Argument argument(NodeId dataType) {
+        return new Argument("arg", dataType, -1, null, LocalizedText.NULL_VALUE);
+    }
+
+    private static NamespaceTranslation translation() {
+        NamespaceTable original = new NamespaceTable();
+        original.addUri("urn:a");
+
+        NamespaceTable target = new NamespaceTable();
+        target.addUri("urn:b");
+        target.addUri("urn:a");
+
+        return NamespaceTranslation.create(original, target);
+    }
+
+}
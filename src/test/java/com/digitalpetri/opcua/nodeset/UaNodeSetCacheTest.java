@@ -0,0 +1,89 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UaNodeSetCacheTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("uanodeset-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        UaNodeSetCache cache = UaNodeSetCache.builder(directory).build();
+
+        UaNodeSet parsed = cache.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        assertEquals(1, entryCount());
+
+        UaNodeSet cached = cache.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        assertEquals(1, entryCount());
+        assertEquals(parsed.getNodes().keySet(), cached.getNodes().keySet());
+        assertEquals(parsed.getExplicitReferences(), cached.getExplicitReferences());
+    }
+
+    @Test
+    public void testHitIsReportedToListener() throws Exception {
+        UaNodeSetCache cache = UaNodeSetCache.builder(directory).build();
+
+        List<Path> loaded = new ArrayList<>();
+        NodeSetListener listener = new NodeSetListener() {
+            @Override
+            public void onSnapshotLoaded(Path snapshot, int nodeCount, long nanos) {
+                loaded.add(snapshot);
+            }
+        };
+
+        ParseOptions options = ParseOptions.builder().setListener(listener).build();
+
+        cache.parse(getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"), options);
+        assertTrue(loaded.isEmpty());
+
+        cache.parse(getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"), options);
+        assertEquals(1, loaded.size());
+        assertEquals(directory, loaded.get(0).getParent());
+    }
+
+    @Test
+    public void testEvictBySize() throws Exception {
+        UaNodeSetCache cache = UaNodeSetCache.builder(directory).setMaxSize(0).build();
+
+        cache.parse(getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        assertEquals(0, entryCount());
+    }
+
+    private long entryCount() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.toString().endsWith(".snapshot")).count();
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.bind.UnmarshalException;
+
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+import org.opcfoundation.ua.generated.NodeSetStatus;
+import org.opcfoundation.ua.generated.NodeSetStatusList;
+import org.opcfoundation.ua.generated.UANodeSetChangesStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UaNodeSetChangesTest {
+
+    private static final NodeId ADDED_OBJECT = NodeId.parse("ns=1;i=99999");
+    private static final NodeId TOPOLOGY_ELEMENT_TYPE = NodeId.parse("ns=1;i=1001");
+    private static final NodeId PARAMETER_SET = NodeId.parse("ns=1;i=5002");
+    private static final NodeId DEVICE_HEALTH_ENUMERATION = NodeId.parse("ns=1;i=6244");
+    private static final NodeId DEVICE_HEALTH_ENUM_STRINGS = NodeId.parse("ns=1;i=6450");
+
+    private static final String CHANGES =
+        "<UANodeSetChanges xmlns=\"http://opcfoundation.org/UA/2011/03/UANodeSet.xsd\"" +
+            " TransactionId=\"tx-1\" AcceptAllOrNothing=\"%s\">\n" +
+            "  <NamespaceUris>\n" +
+            "    <Uri>http://opcfoundation.org/UA/DI/</Uri>\n" +
+            "  </NamespaceUris>\n" +
+            "  <NodesToAdd>\n" +
+            "    <UAObject NodeId=\"ns=1;i=99999\" BrowseName=\"1:Added\">\n" +
+            "      <DisplayName>Added</DisplayName>\n" +
+            "      <References>\n" +
+            "        <Reference ReferenceType=\"i=35\" IsForward=\"false\">i=85</Reference>\n" +
+            "      </References>\n" +
+            "    </UAObject>\n" +
+            "  </NodesToAdd>\n" +
+            "  <ReferencesToAdd>\n" +
+            "    <Reference Source=\"ns=1;i=99999\" ReferenceType=\"i=47\">ns=1;i=5002</Reference>\n" +
+            "  </ReferencesToAdd>\n" +
+            "  <NodesToDelete>\n" +
+            "    <Node>ns=1;i=6450</Node>\n" +
+            "    %s\n" +
+            "  </NodesToDelete>\n" +
+            "  <ReferencesToDelete>\n" +
+            "    <Reference Source=\"ns=1;i=1001\" ReferenceType=\"i=47\">ns=1;i=5002</Reference>\n" +
+            "  </ReferencesToDelete>\n" +
+            "</UANodeSetChanges>\n";
+
+    @Test
+    public void testApplyChanges() throws Exception {
+        UaNodeSet nodeSet = parseDi();
+        UaNodeSetChanges changes = UaNodeSetChanges.parse(changes(false, ""));
+
+        assertEquals("tx-1", changes.getTransactionId());
+        assertEquals(1, changes.getNodeIdsToAdd().size());
+        assertEquals(1, changes.getReferencesToAdd().size());
+        assertEquals(1, changes.getNodesToDelete().size());
+        assertEquals(1, changes.getReferencesToDelete().size());
+
+        UANodeSetChangesStatus status = nodeSet.apply(changes);
+
+        assertEquals("tx-1", status.getTransactionId());
+        for (NodeSetStatus nodeSetStatus : statuses(status)) {
+            assertEquals(nodeSetStatus.getValue(), StatusCodes.Good, nodeSetStatus.getCode());
+        }
+
+        // the added node, its reference and the implicit inverse on the ObjectsFolder
+        assertTrue(nodeSet.getNodes().containsKey(ADDED_OBJECT));
+        assertTrue(targets(nodeSet, ADDED_OBJECT).contains(Identifiers.ObjectsFolder));
+        assertTrue(targets(nodeSet, Identifiers.ObjectsFolder).contains(ADDED_OBJECT));
+        assertTrue(targets(nodeSet, ADDED_OBJECT).contains(PARAMETER_SET));
+        assertTrue(targets(nodeSet, PARAMETER_SET).contains(ADDED_OBJECT));
+
+        // the deleted node and the references to it from its parent
+        assertFalse(nodeSet.getNodes().containsKey(DEVICE_HEALTH_ENUM_STRINGS));
+        assertFalse(targets(nodeSet, DEVICE_HEALTH_ENUMERATION).contains(DEVICE_HEALTH_ENUM_STRINGS));
+        assertTrue(nodeSet.getExplicitReferences().get(DEVICE_HEALTH_ENUM_STRINGS).isEmpty());
+        assertTrue(nodeSet.getImplicitReferences().get(DEVICE_HEALTH_ENUM_STRINGS).isEmpty());
+
+        // the deleted reference and its inverse
+        assertFalse(targets(nodeSet, TOPOLOGY_ELEMENT_TYPE).contains(PARAMETER_SET));
+        assertFalse(targets(nodeSet, PARAMETER_SET).contains(TOPOLOGY_ELEMENT_TYPE));
+    }
+
+    @Test
+    public void testAcceptAllOrNothingRollsBack() throws Exception {
+        UaNodeSet nodeSet = parseDi();
+        UaNodeSet original = parseDi();
+
+        UaNodeSetChanges changes = UaNodeSetChanges.parse(changes(true, "<Node>ns=1;i=88888</Node>"));
+
+        UANodeSetChangesStatus status = nodeSet.apply(changes);
+
+        assertEquals(StatusCodes.Bad_NodeIdUnknown, status.getNodesToDelete().getStatus().get(1).getCode());
+        assertEquals(StatusCodes.Bad_InvalidState, status.getNodesToAdd().getStatus().get(0).getCode());
+
+        assertTrue(nodeSet.diff(original).isEmpty());
+        assertEquals(original.getExplicitReferences(), nodeSet.getExplicitReferences());
+        assertEquals(original.getImplicitReferences(), nodeSet.getImplicitReferences());
+    }
+
+    @Test
+    public void testFailedChangesAreSkipped() throws Exception {
+        UaNodeSet nodeSet = parseDi();
+
+        UaNodeSetChanges changes = UaNodeSetChanges.parse(changes(false, "<Node>ns=1;i=88888</Node>"));
+
+        UANodeSetChangesStatus status = nodeSet.apply(changes);
+
+        assertEquals(StatusCodes.Good, status.getNodesToDelete().getStatus().get(0).getCode());
+        assertEquals(StatusCodes.Bad_NodeIdUnknown, status.getNodesToDelete().getStatus().get(1).getCode());
+        assertTrue(nodeSet.getNodes().containsKey(ADDED_OBJECT));
+
+        // applying the same changes again fails for everything that was already applied
+        status = nodeSet.apply(changes);
+
+        assertEquals(StatusCodes.Bad_NodeIdExists, status.getNodesToAdd().getStatus().get(0).getCode());
+        assertEquals(StatusCodes.Bad_DuplicateReferenceNotAllowed,
+            status.getReferencesToAdd().getStatus().get(0).getCode());
+        assertEquals(StatusCodes.Bad_NotFound, status.getReferencesToDelete().getStatus().get(0).getCode());
+    }
+
+    @Test
+    public void testApplyTranslatesNamespaces() throws Exception {
+        UaNodeSet nodeSet = parseAdi();
+
+        // DI is namespace 1 in the changes but namespace 2 in ADI
+        NodeId addedObject = NodeId.parse("ns=2;i=99999");
+
+        nodeSet.apply(UaNodeSetChanges.parse(changes(false, "")));
+
+        assertTrue(nodeSet.getNodes().containsKey(addedObject));
+        assertTrue(targets(nodeSet, Identifiers.ObjectsFolder).contains(addedObject));
+    }
+
+    @Test
+    public void testApplyToMergedNodeSet() throws Exception {
+        UaNodeSet di = parseDi();
+        UaNodeSet merged = di.merge(parseAdi());
+
+        merged.apply(UaNodeSetChanges.parse(changes(false, "")));
+
+        assertTrue(merged.getNodes().containsKey(ADDED_OBJECT));
+        assertFalse(merged.getNodes().containsKey(DEVICE_HEALTH_ENUM_STRINGS));
+        assertTrue(targets(merged, Identifiers.ObjectsFolder).contains(ADDED_OBJECT));
+
+        // the merge copied the inputs
+        assertFalse(di.getNodes().containsKey(ADDED_OBJECT));
+        assertTrue(di.getNodes().containsKey(DEVICE_HEALTH_ENUM_STRINGS));
+    }
+
+    @Test
+    public void testApplyToSharedMergedNodeSet() throws Exception {
+        UaNodeSet di = parseDi();
+        UaNodeSet merged = UaNodeSetMerger.mergeAll(
+            Arrays.asList(di, parseAdi()),
+            MergeOptions.builder().setShareFirstNodeSet(true).build()
+        );
+
+        merged.apply(UaNodeSetChanges.parse(changes(false, "")));
+
+        assertTrue(merged.getNodes().containsKey(ADDED_OBJECT));
+        assertFalse(merged.getNodes().containsKey(DEVICE_HEALTH_ENUM_STRINGS));
+        assertTrue(targets(merged, ADDED_OBJECT).contains(PARAMETER_SET));
+        assertFalse(targets(merged, TOPOLOGY_ELEMENT_TYPE).contains(PARAMETER_SET));
+
+        // the shared base is left untouched
+        assertFalse(di.getNodes().containsKey(ADDED_OBJECT));
+        assertTrue(di.getNodes().containsKey(DEVICE_HEALTH_ENUM_STRINGS));
+        assertTrue(targets(di, TOPOLOGY_ELEMENT_TYPE).contains(PARAMETER_SET));
+        assertFalse(targets(di, Identifiers.ObjectsFolder).contains(ADDED_OBJECT));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testApplyToFrozenNodeSet() throws Exception {
+        UaNodeSet di = parseDi();
+
+        UaNodeSetMerger.mergeAll(
+            Arrays.asList(di, parseAdi()),
+            MergeOptions.builder().setShareFirstNodeSet(true).build()
+        );
+
+        di.apply(UaNodeSetChanges.parse(changes(false, "")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testApplyToReadOnlyNodeSet() throws Exception {
+        parseDi().compact().apply(UaNodeSetChanges.parse(changes(false, "")));
+    }
+
+    @Test(expected = UnmarshalException.class)
+    public void testUnresolvableReferenceToAdd() throws Exception {
+        String xml = String.format(CHANGES, false, "").replace(
+            "<Reference Source=\"ns=1;i=99999\" ReferenceType=\"i=47\">",
+            "<Reference Source=\"ns=1;i=99999\" ReferenceType=\"NoSuchAlias\">");
+
+        UaNodeSetChanges.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private UaNodeSet parseDi() throws Exception {
+        return UaNodeSet.parse(getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+    }
+
+    private UaNodeSet parseAdi() throws Exception {
+        return UaNodeSet.parse(getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+    }
+
+    private static InputStream changes(boolean acceptAllOrNothing, String extraNodeToDelete) {
+        String xml = String.format(CHANGES, acceptAllOrNothing, extraNodeToDelete);
+
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<NodeId> targets(UaNodeSet nodeSet, NodeId sourceNodeId) {
+        List<NodeId> targets = new ArrayList<>();
+
+        for (Reference reference : nodeSet.getReferences(sourceNodeId)) {
+            reference.getTargetNodeId().local(nodeSet.getNamespaceTable()).ifPresent(targets::add);
+        }
+
+        return targets;
+    }
+
+    private static List<NodeSetStatus> statuses(UANodeSetChangesStatus status) {
+        List<NodeSetStatus> statuses = new ArrayList<>();
+
+        for (NodeSetStatusList statusList : new NodeSetStatusList[]{
+            status.getNodesToAdd(), status.getReferencesToAdd(),
+            status.getNodesToDelete(), status.getReferencesToDelete()}) {
+
+            statuses.addAll(statusList.getStatus());
+        }
+
+        return statuses;
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UaNodeSetDiffTest {
+
+    private static final NodeId TOPOLOGY_ELEMENT_TYPE = NodeId.parse("ns=1;i=1001");
+    private static final NodeId DEVICE_HEALTH_ENUM_STRINGS = NodeId.parse("ns=1;i=6450");
+    private static final NodeId ADDED_OBJECT = NodeId.parse("ns=1;i=99999");
+
+    @Test
+    public void testSameNodeSetHasEmptyDiff() throws Exception {
+        String xml = diXml();
+
+        UaNodeSet previous = UaNodeSet.parse(stream(xml));
+        UaNodeSet current = UaNodeSet.parse(stream(xml));
+
+        assertTrue(current.diff(previous).isEmpty());
+    }
+
+    @Test
+    public void testChangedAndAddedNodes() throws Exception {
+        String xml = diXml();
+
+        UaNodeSet previous = UaNodeSet.parse(stream(xml));
+        UaNodeSet current = UaNodeSet.parse(stream(modify(xml)));
+
+        UaNodeSetDiff diff = current.diff(previous);
+
+        assertEquals(Collections.singleton(ADDED_OBJECT), diff.getAddedNodes().keySet());
+        assertTrue(diff.getRemovedNodes().isEmpty());
+        assertEquals(
+            ImmutableSet.of(TOPOLOGY_ELEMENT_TYPE, DEVICE_HEALTH_ENUM_STRINGS),
+            diff.getChangedNodes().keySet()
+        );
+
+        // the explicit reference of the added node and its inverse on the ObjectsFolder
+        assertEquals(2, diff.getAddedReferences().size());
+        assertEquals(1, diff.getAddedReferences().get(ADDED_OBJECT).size());
+        Reference inverse = diff.getAddedReferences().get(Identifiers.ObjectsFolder).get(0);
+        assertEquals(ADDED_OBJECT, inverse.getTargetNodeId().local(current.getNamespaceTable()).orElse(null));
+        assertTrue(diff.getRemovedReferences().isEmpty());
+    }
+
+    @Test
+    public void testRemovedNodes() throws Exception {
+        String xml = diXml();
+
+        UaNodeSet previous = UaNodeSet.parse(stream(modify(xml)));
+        UaNodeSet current = UaNodeSet.parse(stream(xml));
+
+        UaNodeSetDiff diff = current.diff(previous);
+
+        assertEquals(Collections.singleton(ADDED_OBJECT), diff.getRemovedNodes().keySet());
+        assertTrue(diff.getAddedNodes().isEmpty());
+        assertEquals(2, diff.getRemovedReferences().size());
+        assertTrue(diff.getAddedReferences().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChangedNamespaceIndices() throws Exception {
+        UaNodeSet di = UaNodeSet.parse(stream(diXml()));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        // DI is namespace 1 in its own document but namespace 2 in ADI's
+        adi.diff(di);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReusedNamespaceIndex() throws Exception {
+        String xml = diXml();
+
+        UaNodeSet previous = UaNodeSet.parse(stream(xml));
+
+        // DI is dropped and its index taken by another namespace
+        UaNodeSet current = UaNodeSet.parse(stream(xml.replace(
+            "<Uri>http://opcfoundation.org/UA/DI/</Uri>",
+            "<Uri>urn:other</Uri>")));
+
+        current.diff(previous);
+    }
+
+    private String diXml() throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml")) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String modify(String xml) {
+        return xml
+            .replace(
+                "<DisplayName>TopologyElementType</DisplayName>",
+                "<DisplayName>TopologyElement</DisplayName>")
+            .replace(
+                "<Text>CHECK_FUNCTION</Text>",
+                "<Text>CHECK</Text>")
+            .replace(
+                "</UANodeSet>",
+                "  <UAObject NodeId=\"ns=1;i=99999\" BrowseName=\"1:Added\">\n" +
+                    "    <DisplayName>Added</DisplayName>\n" +
+                    "    <References>\n" +
+                    "      <Reference ReferenceType=\"Organizes\" IsForward=\"false\">i=85</Reference>\n" +
+                    "    </References>\n" +
+                    "  </UAObject>\n" +
+                    "</UANodeSet>");
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class UaNodeSetHeaderTest {
+
+    @Test
+    public void testScanModels() throws Exception {
+        UaNodeSetHeader header = UaNodeSet.scanHeader(
+            getClass().getClassLoader().getResourceAsStream("autoid/Opc.Ua.AutoID.NodeSet2.xml"));
+
+        assertEquals(
+            Arrays.asList("http://opcfoundation.org/UA/AutoID/", "http://opcfoundation.org/UA/DI/"),
+            header.getNamespaceUris()
+        );
+
+        assertEquals(1, header.getModels().size());
+
+        UaNodeSetHeader.Model model = header.getModels().get(0);
+        assertEquals("http://opcfoundation.org/UA/AutoID/", model.getModelUri());
+        assertEquals("1.00", model.getVersion());
+        assertNotNull(model.getPublicationDate());
+        assertEquals(2, model.getRequiredModels().size());
+        assertEquals("http://opcfoundation.org/UA/DI/", model.getRequiredModels().get(1).getModelUri());
+
+        assertEquals(NodeId.parse("i=1"), header.getAliases().get("Boolean"));
+        assertEquals(NodeId.parse("ns=1;i=3013"), header.getFirstNodeId());
+    }
+
+    @Test
+    public void testScanModelWithRolePermissions() throws Exception {
+        String xml = "<UANodeSet xmlns=\"http://opcfoundation.org/UA/2011/03/UANodeSet.xsd\">\n" +
+            "  <NamespaceUris>\n" +
+            "    <Uri>urn:test</Uri>\n" +
+            "  </NamespaceUris>\n" +
+            "  <Models>\n" +
+            "    <Model ModelUri=\"urn:test\" Version=\"1.0\">\n" +
+            "      <RolePermissions>\n" +
+            "        <RolePermission Permissions=\"1\">i=15656</RolePermission>\n" +
+            "      </RolePermissions>\n" +
+            "      <RequiredModel ModelUri=\"http://opcfoundation.org/UA/\" Version=\"1.04\" />\n" +
+            "    </Model>\n" +
+            "  </Models>\n" +
+            "  <UAObject NodeId=\"ns=1;i=1\" BrowseName=\"1:A\">\n" +
+            "    <DisplayName>A</DisplayName>\n" +
+            "  </UAObject>\n" +
+            "</UANodeSet>\n";
+
+        UaNodeSetHeader header = UaNodeSet.scanHeader(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, header.getModels().size());
+
+        UaNodeSetHeader.Model model = header.getModels().get(0);
+        assertEquals("urn:test", model.getModelUri());
+        assertEquals(1, model.getRequiredModels().size());
+        assertEquals("http://opcfoundation.org/UA/", model.getRequiredModels().get(0).getModelUri());
+        assertEquals(NodeId.parse("ns=1;i=1"), header.getFirstNodeId());
+    }
+
+    @Test
+    public void testScanMatchesParse() throws Exception {
+        UaNodeSetHeader header = UaNodeSet.scanHeader(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        assertEquals(nodeSet.getAliasTable(), header.getAliases());
+        assertEquals(
+            Collections.singletonList(nodeSet.getNamespaceTable().getUri(1)),
+            header.getNamespaceUris()
+        );
+        assertEquals(Collections.emptyList(), header.getModels());
+        assertNotNull(header.getLastModified());
+        assertTrue(nodeSet.getNodes().containsKey(header.getFirstNodeId()));
+    }
+
+}
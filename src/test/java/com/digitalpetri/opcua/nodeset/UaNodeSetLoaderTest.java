@@ -0,0 +1,123 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class UaNodeSetLoaderTest {
+
+    private final UaNodeSetLoader loader = UaNodeSetLoader.builder().build();
+
+    @Test
+    public void testLoadOrder() throws Exception {
+        Path core = resource("Opc.Ua.NodeSet2.xml");
+        Path di = resource("di/Opc.Ua.Di.NodeSet2.xml");
+        Path adi = resource("adi/Opc.Ua.Adi.NodeSet2.xml");
+        Path autoId = resource("autoid/Opc.Ua.AutoID.NodeSet2.xml");
+
+        assertEquals(
+            Arrays.asList(core, di, autoId, adi),
+            loader.resolveLoadOrder(Arrays.asList(autoId, adi, di, core))
+        );
+    }
+
+    @Test
+    public void testLoadOrderWithoutModelsTable() throws Exception {
+        Path core = resource("Opc.Ua.NodeSet2.xml");
+        Path amlBaseTypes = resource("aml/Opc.Ua.AMLBaseTypes.NodeSet2.xml");
+        Path amlLibraries = resource("aml/Opc.Ua.AMLLibraries.NodeSet2.xml");
+
+        // AMLLibraries lists the AML namespace first but its nodes are in the AMLLibs namespace
+        assertEquals(
+            Arrays.asList(core, amlBaseTypes, amlLibraries),
+            loader.resolveLoadOrder(Arrays.asList(amlLibraries, amlBaseTypes, core))
+        );
+    }
+
+    @Test
+    public void testSelfContainedFileWithoutModelsTable() throws Exception {
+        Path core = resource("Opc.Ua.NodeSet2.xml");
+        Path file = Files.createTempFile("uanodeset-loader", ".xml");
+
+        try {
+            String xml = "<UANodeSet xmlns=\"http://opcfoundation.org/UA/2011/03/UANodeSet.xsd\">\n" +
+                "  <NamespaceUris>\n" +
+                "    <Uri>urn:test:a</Uri>\n" +
+                "    <Uri>urn:test:b</Uri>\n" +
+                "  </NamespaceUris>\n" +
+                "  <UAObject NodeId=\"ns=1;i=1\" BrowseName=\"1:A\">\n" +
+                "    <DisplayName>A</DisplayName>\n" +
+                "  </UAObject>\n" +
+                "  <UAObject NodeId=\"ns=2;i=1\" BrowseName=\"2:B\">\n" +
+                "    <DisplayName>B</DisplayName>\n" +
+                "  </UAObject>\n" +
+                "</UANodeSet>\n";
+
+            Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+
+            // neither namespace is defined by another file, so both belong to the file itself
+            assertEquals(Arrays.asList(core, file), loader.resolveLoadOrder(Arrays.asList(file, core)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testNewestDuplicateModelIsLoaded() throws Exception {
+        Path core = resource("Opc.Ua.NodeSet2.xml");
+        Path corePart3 = resource("Opc.Ua.NodeSet2.Part3.xml");
+        Path di = resource("di/Opc.Ua.Di.NodeSet2.xml");
+
+        assertEquals(
+            Arrays.asList(core, di),
+            loader.resolveLoadOrder(Arrays.asList(di, corePart3, core))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingDependency() throws Exception {
+        loader.resolveLoadOrder(Collections.singletonList(resource("di/Opc.Ua.Di.NodeSet2.xml")));
+    }
+
+    @Test
+    public void testLoadMatchesMergeAll() throws Exception {
+        UaNodeSet core = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("Opc.Ua.NodeSet2.xml"));
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        UaNodeSet expected = UaNodeSetMerger.mergeAll(Arrays.asList(core, di, adi));
+
+        UaNodeSet loaded = UaNodeSetLoader.builder()
+            .setExecutor(ForkJoinPool.commonPool())
+            .build()
+            .load(Arrays.asList(
+                resource("adi/Opc.Ua.Adi.NodeSet2.xml"),
+                resource("Opc.Ua.NodeSet2.xml"),
+                resource("di/Opc.Ua.Di.NodeSet2.xml")
+            ));
+
+        assertEquals(expected.getNodes().keySet(), loaded.getNodes().keySet());
+        assertEquals(expected.getExplicitReferences(), loaded.getExplicitReferences());
+        assertEquals(
+            Arrays.asList(expected.getNamespaceTable().toArray()),
+            Arrays.asList(loaded.getNamespaceTable().toArray())
+        );
+    }
+
+    private Path resource(String name) throws URISyntaxException {
+        return Paths.get(getClass().getClassLoader().getResource(name).toURI());
+    }
+
+}
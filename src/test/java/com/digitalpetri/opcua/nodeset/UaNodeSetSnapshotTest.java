@@ -0,0 +1,167 @@
+package com.digitalpetri.opcua.nodeset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+import org.opcfoundation.ua.generated.DataTypeDefinition;
+import org.opcfoundation.ua.generated.DataTypeField;
+import org.opcfoundation.ua.generated.LocalizedText;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UaNodeSetSnapshotTest {
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        nodeSet.writeSnapshot(out);
+
+        UaNodeSet snapshot = UaNodeSet.readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+
+        assertArrayEquals(nodeSet.getNamespaceTable().toArray(), snapshot.getNamespaceTable().toArray());
+        assertEquals(nodeSet.getAliasTable(), snapshot.getAliasTable());
+        assertEquals(nodeSet.getNodes().keySet(), snapshot.getNodes().keySet());
+        assertEquals(nodeSet.getExplicitReferences(), snapshot.getExplicitReferences());
+        assertEquals(nodeSet.getImplicitReferences(), snapshot.getImplicitReferences());
+        assertEquals(nodeSet.getDataTypeDefinitions().keySet(), snapshot.getDataTypeDefinitions().keySet());
+        assertEquals(nodeSet.getRawXmlValues(), snapshot.getRawXmlValues());
+
+        // every attribute, including values, of every node
+        assertTrue(snapshot.diff(nodeSet).isEmpty());
+
+        nodeSet.getDataTypeDefinitions().forEach((nodeId, definition) ->
+            assertDefinitionEquals(definition, snapshot.getDataTypeDefinitions().get(nodeId))
+        );
+    }
+
+    @Test
+    public void testMappedSnapshot() throws Exception {
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        Path file = Files.createTempFile("di", ".snapshot");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                nodeSet.writeSnapshot(out);
+            }
+
+            UaNodeSet mapped = UaNodeSet.mapSnapshot(file);
+
+            assertArrayEquals(nodeSet.getNamespaceTable().toArray(), mapped.getNamespaceTable().toArray());
+            assertEquals(nodeSet.getAliasTable(), mapped.getAliasTable());
+            assertEquals(nodeSet.getNodes().keySet(), mapped.getNodes().keySet());
+            assertEquals(nodeSet.getExplicitReferences(), mapped.getExplicitReferences());
+            assertEquals(nodeSet.getImplicitReferences(), mapped.getImplicitReferences());
+            assertEquals(nodeSet.getCombinedReferences(), mapped.getCombinedReferences());
+            assertEquals(nodeSet.getRawXmlValues(), mapped.getRawXmlValues());
+
+            assertEquals(
+                nodeSet.getExplicitReferences().keySet().size(),
+                mapped.getExplicitReferences().keySet().size()
+            );
+            assertEquals(
+                nodeSet.getImplicitReferences().keySet().size(),
+                mapped.getImplicitReferences().keySet().size()
+            );
+
+            // every attribute, including values, of every mapped node
+            assertTrue(mapped.diff(nodeSet).isEmpty());
+
+            UaNodeSetSnapshot.unmap(mapped);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testUnmappedSnapshot() throws Exception {
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        Path file = Files.createTempFile("di", ".snapshot");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                nodeSet.writeSnapshot(out);
+            }
+
+            UaNodeSet mapped = UaNodeSet.mapSnapshot(file);
+            NodeId nodeId = NodeId.parse("ns=1;i=1001");
+
+            UaNodeSetSnapshot.unmap(mapped);
+
+            assertTrue(mapped.getNodes().containsKey(nodeId));
+
+            try {
+                mapped.getNodes().get(nodeId);
+                fail("unmapped snapshot was decoded");
+            } catch (IllegalStateException expected) {
+                // the mapping has been released
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnmapNodeSetThatIsNotMapped() throws Exception {
+        UaNodeSetSnapshot.unmap(UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws Exception {
+        UaNodeSet.readSnapshot(new ByteArrayInputStream(new byte[]{'<', '?', 'x', 'm', 'l', ' ', ' ', ' '}));
+    }
+
+    private static void assertDefinitionEquals(DataTypeDefinition expected, DataTypeDefinition actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getBaseType(), actual.getBaseType());
+        assertEquals(expected.getSymbolicName(), actual.getSymbolicName());
+        assertEquals(expected.isIsUnion(), actual.isIsUnion());
+        assertEquals(expected.getField().size(), actual.getField().size());
+
+        for (int i = 0; i < expected.getField().size(); i++) {
+            DataTypeField expectedField = expected.getField().get(i);
+            DataTypeField actualField = actual.getField().get(i);
+
+            assertEquals(expectedField.getName(), actualField.getName());
+            assertEquals(expectedField.getSymbolicName(), actualField.getSymbolicName());
+            assertEquals(expectedField.getDataType(), actualField.getDataType());
+            assertEquals(expectedField.getValueRank(), actualField.getValueRank());
+            assertEquals(expectedField.getValue(), actualField.getValue());
+            assertEquals(expectedField.isIsOptional(), actualField.isIsOptional());
+            assertLocalizedTextsEqual(expectedField.getDisplayName(), actualField.getDisplayName());
+            assertLocalizedTextsEqual(expectedField.getDescription(), actualField.getDescription());
+
+            if (expectedField.getDefinition() == null) {
+                assertNull(actualField.getDefinition());
+            } else {
+                assertDefinitionEquals(expectedField.getDefinition(), actualField.getDefinition());
+            }
+        }
+    }
+
+    private static void assertLocalizedTextsEqual(List<LocalizedText> expected, List<LocalizedText> actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+            assertEquals(expected.get(i).getLocale(), actual.get(i).getLocale());
+        }
+    }
+
+}
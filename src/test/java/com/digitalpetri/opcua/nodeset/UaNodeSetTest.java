@@ -1,10 +1,39 @@
 package com.digitalpetri.opcua.nodeset;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import javax.xml.bind.JAXBException;
 
+import com.digitalpetri.opcua.nodeset.attributes.NodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableNodeAttributes;
+import com.digitalpetri.opcua.nodeset.attributes.VariableTypeNodeAttributes;
+import com.digitalpetri.opcua.nodeset.util.NodeSetListener;
+import com.digitalpetri.opcua.nodeset.util.NodeSetMetrics;
+import com.digitalpetri.opcua.nodeset.util.OverlayMap;
+import com.digitalpetri.opcua.nodeset.util.UnionListMultimap;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 public class UaNodeSetTest {
 
     @Test
@@ -87,6 +116,458 @@ public class UaNodeSetTest {
         parse("schema/Opc.Ua.NodeSet.Schema.Check.xml");
     }
 
+    @Test
+    public void testParseStreamingMatchesParse() throws Exception {
+        String[] nodeSetFilenames = {
+            "Opc.Ua.NodeSet2.xml",
+            "adi/Opc.Ua.Adi.NodeSet2.xml",
+            "autoid/Opc.Ua.AutoID.NodeSet2.xml",
+            "schema/Opc.Ua.NodeSet.Schema.Check.xml"
+        };
+
+        for (String nodeSetFilename : nodeSetFilenames) {
+            UaNodeSet nodeSet = UaNodeSet.parse(
+                getClass().getClassLoader().getResourceAsStream(nodeSetFilename));
+
+            UaNodeSet streamedNodeSet = UaNodeSet.parseStreaming(
+                getClass().getClassLoader().getResourceAsStream(nodeSetFilename));
+
+            assertEquals(nodeSet.getNodes().keySet(), streamedNodeSet.getNodes().keySet());
+            assertEquals(nodeSet.getExplicitReferences(), streamedNodeSet.getExplicitReferences());
+            assertEquals(nodeSet.getImplicitReferences(), streamedNodeSet.getImplicitReferences());
+            assertEquals(nodeSet.getAliasTable(), streamedNodeSet.getAliasTable());
+            assertEquals(nodeSet.getDataTypeDefinitions().keySet(), streamedNodeSet.getDataTypeDefinitions().keySet());
+            assertEquals(nodeSet.getRawXmlValues().keySet(), streamedNodeSet.getRawXmlValues().keySet());
+        }
+    }
+
+    @Test
+    public void testParseLazyValues() throws Exception {
+        String nodeSetFilename = "di/Opc.Ua.Di.NodeSet2.xml";
+
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename));
+
+        UaNodeSet lazyNodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename),
+            ParseOptions.builder().setLazyValues(true).build()
+        );
+
+        assertEquals(nodeSet.getRawXmlValues(), lazyNodeSet.getRawXmlValues());
+
+        nodeSet.getNodes().forEach((nodeId, attributes) -> {
+            NodeAttributes lazyAttributes = lazyNodeSet.getNodes().get(nodeId);
+
+            if (attributes instanceof VariableNodeAttributes) {
+                assertTrue(Objects.deepEquals(
+                    ((VariableNodeAttributes) attributes).getValue().getValue().getValue(),
+                    ((VariableNodeAttributes) lazyAttributes).getValue().getValue().getValue()
+                ));
+            } else if (attributes instanceof VariableTypeNodeAttributes) {
+                assertTrue(Objects.deepEquals(
+                    ((VariableTypeNodeAttributes) attributes).getValue().getValue().getValue(),
+                    ((VariableTypeNodeAttributes) lazyAttributes).getValue().getValue().getValue()
+                ));
+            }
+        });
+    }
+
+    @Test
+    public void testLazyValuesReportedOnceLikeEager() throws Exception {
+        String nodeSetFilename = "di/Opc.Ua.Di.NodeSet2.xml";
+
+        NodeSetMetrics eagerMetrics = new NodeSetMetrics();
+        UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename),
+            ParseOptions.builder().setListener(eagerMetrics).build()
+        );
+
+        NodeSetMetrics lazyMetrics = new NodeSetMetrics();
+        UaNodeSet lazyNodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename),
+            ParseOptions.builder().setLazyValues(true).setListener(lazyMetrics).build()
+        );
+
+        assertEquals(0, lazyMetrics.getSummary().getValueCount());
+
+        for (int i = 0; i < 2; i++) {
+            lazyNodeSet.getRawXmlValues().forEach((nodeId, xml) -> assertTrue(xml.length() > 0));
+
+            lazyNodeSet.getNodes().values().forEach(attributes -> {
+                if (attributes instanceof VariableNodeAttributes) {
+                    ((VariableNodeAttributes) attributes).getValue();
+                } else if (attributes instanceof VariableTypeNodeAttributes) {
+                    ((VariableTypeNodeAttributes) attributes).getValue();
+                }
+            });
+        }
+
+        assertEquals(eagerMetrics.getSummary().getValueCount(), lazyMetrics.getSummary().getValueCount());
+        assertEquals(eagerMetrics.getSummary().getDecodeFailures(), lazyMetrics.getSummary().getDecodeFailures());
+    }
+
+    @Test
+    public void testParseParallelMatchesParse() throws Exception {
+        String nodeSetFilename = "Opc.Ua.NodeSet2.xml";
+
+        ParseOptions options = ParseOptions.builder()
+            .setExecutor(ForkJoinPool.commonPool())
+            .setChunkSize(100)
+            .build();
+
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename));
+
+        UaNodeSet parallelNodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename), options);
+
+        UaNodeSet parallelStreamedNodeSet = UaNodeSet.parseStreaming(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename), options);
+
+        for (UaNodeSet ns : new UaNodeSet[]{parallelNodeSet, parallelStreamedNodeSet}) {
+            assertEquals(nodeSet.getNodes().keySet(), ns.getNodes().keySet());
+            assertEquals(nodeSet.getExplicitReferences(), ns.getExplicitReferences());
+            assertEquals(nodeSet.getImplicitReferences(), ns.getImplicitReferences());
+            assertEquals(nodeSet.getDataTypeDefinitions().keySet(), ns.getDataTypeDefinitions().keySet());
+            assertEquals(nodeSet.getRawXmlValues().keySet(), ns.getRawXmlValues().keySet());
+        }
+    }
+
+    @Test
+    public void testCompactReferencesMatchParse() throws Exception {
+        String nodeSetFilename = "Opc.Ua.NodeSet2.xml";
+
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename));
+
+        UaNodeSet compactNodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream(nodeSetFilename),
+            ParseOptions.builder().setCompactReferences(true).build()
+        );
+
+        assertEquals(nodeSet.getExplicitReferences(), compactNodeSet.getExplicitReferences());
+        assertEquals(nodeSet.getImplicitReferences(), compactNodeSet.getImplicitReferences());
+        assertEquals(nodeSet.getCombinedReferences(), compactNodeSet.getCombinedReferences());
+        assertEquals(compactNodeSet.getCombinedReferences(), nodeSet.getCombinedReferences());
+        assertEquals(nodeSet.getCombinedReferences().size(), compactNodeSet.getCombinedReferences().size());
+    }
+
+    @Test
+    public void testCombinedReferencesView() throws Exception {
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        ListMultimap<NodeId, Reference> combined = ArrayListMultimap.create();
+        combined.putAll(nodeSet.getExplicitReferences());
+        combined.putAll(nodeSet.getImplicitReferences());
+
+        assertEquals(combined, nodeSet.getCombinedReferences());
+
+        for (NodeId nodeId : combined.keySet()) {
+            assertEquals(combined.get(nodeId), Lists.newArrayList(nodeSet.getReferences(nodeId)));
+        }
+    }
+
+    @Test
+    public void testMergeAllMatchesPairwiseMerge() throws Exception {
+        UaNodeSet core = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("Opc.Ua.NodeSet2.xml"));
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        UaNodeSet mergedAll = UaNodeSetMerger.mergeAll(Arrays.asList(core, di, adi));
+        UaNodeSet mergedPairwise = core.merge(di).merge(adi);
+
+        assertArrayEquals(mergedPairwise.getNamespaceTable().toArray(), mergedAll.getNamespaceTable().toArray());
+        assertEquals(mergedPairwise.getNodes().keySet(), mergedAll.getNodes().keySet());
+        assertEquals(mergedPairwise.getExplicitReferences(), mergedAll.getExplicitReferences());
+        assertEquals(mergedPairwise.getImplicitReferences(), mergedAll.getImplicitReferences());
+        assertEquals(mergedPairwise.getAliasTable(), mergedAll.getAliasTable());
+        assertEquals(mergedPairwise.getRawXmlValues().keySet(), mergedAll.getRawXmlValues().keySet());
+    }
+
+    @Test
+    public void testMergeCopiesFirstNodeSet() throws Exception {
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        UaNodeSet merged = di.merge(adi);
+
+        NodeId topologyElementType = NodeId.parse("ns=1;i=1001");
+        di.getNodes().remove(topologyElementType);
+        di.getExplicitReferences().removeAll(topologyElementType);
+
+        assertFalse(di.isFrozen());
+        assertTrue(merged.getNodes().containsKey(topologyElementType));
+        assertFalse(merged.getExplicitReferences().get(topologyElementType).isEmpty());
+    }
+
+    @Test
+    public void testMergeSharingFirstNodeSet() throws Exception {
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        MergeOptions options = MergeOptions.builder().setShareFirstNodeSet(true).build();
+
+        UaNodeSet copied = UaNodeSetMerger.mergeAll(Arrays.asList(di, adi));
+        UaNodeSet shared = UaNodeSetMerger.mergeAll(Arrays.asList(di, adi), options);
+
+        assertTrue(di.isFrozen());
+        assertEquals(copied.getNodes().keySet(), shared.getNodes().keySet());
+        assertEquals(copied.getExplicitReferences(), shared.getExplicitReferences());
+        assertEquals(copied.getImplicitReferences(), shared.getImplicitReferences());
+
+        try {
+            di.getNodes().remove(NodeId.parse("ns=1;i=1001"));
+            fail("frozen node set was modified");
+        } catch (UnsupportedOperationException expected) {
+            // the shared node set can't change underneath its merge results
+        }
+
+        // merging on top of a shared merge result overlays the same base rather than nesting views
+        UaNodeSet mdis = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("mdis/OPC.MDIS.NodeSet2.xml"));
+
+        UaNodeSet sharedAgain = UaNodeSetMerger.mergeAll(Arrays.asList(shared, mdis), options);
+
+        assertFalse(((OverlayMap<?, ?>) sharedAgain.getNodes()).getBase() instanceof OverlayMap);
+        assertFalse(
+            ((UnionListMultimap<?, ?>) sharedAgain.getExplicitReferences()).getFirst() instanceof UnionListMultimap);
+        assertEquals(
+            UaNodeSetMerger.mergeAll(Arrays.asList(copied, mdis)).getNodes().keySet(),
+            sharedAgain.getNodes().keySet()
+        );
+    }
+
+    @Test
+    public void testMergeReindexesValuesEagerlyUnlessLazy() throws Exception {
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet lazyDi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"),
+            ParseOptions.builder().setLazyValues(true).build()
+        );
+
+        // DeviceHealthEnumeration's EnumStrings, re-indexed from namespace 1 in DI to namespace 2 in ADI
+        NodeId enumStrings = NodeId.parse("ns=2;i=6450");
+
+        VariableNodeAttributes eager = (VariableNodeAttributes) adi.merge(di).getNodes().get(enumStrings);
+        assertTrue(eager.isValueDecoded());
+
+        VariableNodeAttributes lazy = (VariableNodeAttributes) adi.merge(lazyDi).getNodes().get(enumStrings);
+        assertFalse(lazy.isValueDecoded());
+        assertTrue(lazy.toString().contains("<not decoded>"));
+        assertFalse(lazy.isValueDecoded());
+
+        assertTrue(Objects.deepEquals(eager.getValue().getValue().getValue(), lazy.getValue().getValue().getValue()));
+        assertTrue(lazy.isValueDecoded());
+    }
+
+    @Test
+    public void testParallelMergeAllMatchesMergeAll() throws Exception {
+        List<UaNodeSet> nodeSets = new ArrayList<>();
+        for (String nodeSetFilename : new String[]{
+            "Opc.Ua.NodeSet2.xml", "di/Opc.Ua.Di.NodeSet2.xml", "adi/Opc.Ua.Adi.NodeSet2.xml"}) {
+
+            nodeSets.add(UaNodeSet.parse(getClass().getClassLoader().getResourceAsStream(nodeSetFilename)));
+        }
+
+        MergeOptions options = MergeOptions.builder()
+            .setExecutor(ForkJoinPool.commonPool())
+            .setChunkSize(100)
+            .build();
+
+        UaNodeSet merged = UaNodeSetMerger.mergeAll(nodeSets);
+        UaNodeSet mergedInParallel = UaNodeSetMerger.mergeAll(nodeSets, options);
+
+        assertArrayEquals(merged.getNamespaceTable().toArray(), mergedInParallel.getNamespaceTable().toArray());
+        assertEquals(merged.getNodes().keySet(), mergedInParallel.getNodes().keySet());
+        assertEquals(merged.getExplicitReferences(), mergedInParallel.getExplicitReferences());
+        assertEquals(merged.getImplicitReferences(), mergedInParallel.getImplicitReferences());
+        assertEquals(merged.getAliasTable(), mergedInParallel.getAliasTable());
+        assertEquals(merged.getDataTypeDefinitions().keySet(), mergedInParallel.getDataTypeDefinitions().keySet());
+        assertEquals(merged.getRawXmlValues(), mergedInParallel.getRawXmlValues());
+    }
+
+    @Test
+    public void testMergeDoesNotModifyInputs() throws Exception {
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"));
+
+        String[] diNamespaces = di.getNamespaceTable().toArray();
+        List<String> adiDefinitionNames = new ArrayList<>();
+        adi.getDataTypeDefinitions().values().forEach(d -> adiDefinitionNames.add(d.getName()));
+
+        UaNodeSet merged = di.merge(adi);
+
+        assertArrayEquals(diNamespaces, di.getNamespaceTable().toArray());
+
+        List<String> adiDefinitionNamesAfterMerge = new ArrayList<>();
+        adi.getDataTypeDefinitions().values().forEach(d -> adiDefinitionNamesAfterMerge.add(d.getName()));
+        assertEquals(adiDefinitionNames, adiDefinitionNamesAfterMerge);
+
+        // the first node set is shared, not copied
+        di.getNodes().forEach((nodeId, nodeAttributes) -> {
+            if (!adi.getNodes().containsKey(nodeId)) {
+                assertTrue(merged.getNodes().get(nodeId) == nodeAttributes);
+            }
+        });
+    }
+
+    @Test
+    public void testListenerReportsParseAndMerge() throws Exception {
+        NodeSetMetrics metrics = new NodeSetMetrics(5);
+
+        ParseOptions parseOptions = ParseOptions.builder().setListener(metrics).build();
+
+        UaNodeSet di = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"), parseOptions);
+        UaNodeSet adi = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("adi/Opc.Ua.Adi.NodeSet2.xml"), parseOptions);
+
+        UaNodeSetMerger.mergeAll(Arrays.asList(di, adi), MergeOptions.builder().setListener(metrics).build());
+
+        NodeSetMetrics.Summary summary = metrics.getSummary();
+
+        long nodeCount = summary.getNodeCounts().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(di.getNodes().size() + adi.getNodes().size(), nodeCount);
+
+        for (NodeSetListener.Phase phase : NodeSetListener.Phase.values()) {
+            assertTrue(phase.name(), summary.getPhaseTimes().get(phase).toNanos() > 0);
+        }
+
+        assertTrue(summary.getValueCount() > 0);
+        assertEquals(5, summary.getSlowestValues().size());
+        assertTrue(
+            summary.getSlowestValues().get(0).getNanos() >= summary.getSlowestValues().get(4).getNanos()
+        );
+    }
+
+    @Test
+    public void testParseWithNodeFilter() throws Exception {
+        NodeFilter filter = NodeFilter.nodeClasses(
+            NodeClass.ObjectType, NodeClass.VariableType, NodeClass.DataType, NodeClass.ReferenceType);
+
+        UaNodeSet all = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"));
+
+        UaNodeSet dropped = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"),
+            ParseOptions.builder().setNodeFilter(filter).build()
+        );
+
+        UaNodeSet kept = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"),
+            ParseOptions.builder()
+                .setNodeFilter(filter)
+                .setDanglingReferences(ParseOptions.DanglingReferences.KEEP)
+                .build()
+        );
+
+        long typeNodeCount = all.getNodes().values().stream()
+            .filter(attributes -> filter.accept(
+                attributes.getNodeId(), attributes.getNodeClass(), all.getNamespaceTable()))
+            .count();
+
+        assertTrue(typeNodeCount > 0 && typeNodeCount < all.getNodes().size());
+        assertEquals(typeNodeCount, dropped.getNodes().size());
+        assertEquals(dropped.getNodes().keySet(), kept.getNodes().keySet());
+
+        for (Reference reference : dropped.getExplicitReferences().values()) {
+            NodeId targetNodeId = reference.getTargetNodeId().local(dropped.getNamespaceTable()).orElse(null);
+
+            boolean rejected = all.getNodes().containsKey(targetNodeId) &&
+                !dropped.getNodes().containsKey(targetNodeId);
+
+            assertFalse(reference.toString(), rejected);
+        }
+        assertTrue(kept.getExplicitReferences().size() > dropped.getExplicitReferences().size());
+        assertTrue(kept.getImplicitReferences().size() > dropped.getImplicitReferences().size());
+
+        UaNodeSet streamed = UaNodeSet.parseStreaming(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"),
+            ParseOptions.builder().setNodeFilter(filter).build()
+        );
+
+        assertEquals(dropped.getNodes().keySet(), streamed.getNodes().keySet());
+        assertEquals(dropped.getExplicitReferences(), streamed.getExplicitReferences());
+        assertEquals(dropped.getImplicitReferences(), streamed.getImplicitReferences());
+    }
+
+    @Test
+    public void testParseWithNumericRangeFilter() throws Exception {
+        String diNamespaceUri = "http://opcfoundation.org/UA/DI/";
+
+        ParseOptions options = ParseOptions.builder()
+            .setNodeFilter(NodeFilter.numericRange(diNamespaceUri, 1000, 5999))
+            .build();
+
+        UaNodeSet nodeSet = UaNodeSet.parse(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"), options);
+
+        UaNodeSet streamedNodeSet = UaNodeSet.parseStreaming(
+            getClass().getClassLoader().getResourceAsStream("di/Opc.Ua.Di.NodeSet2.xml"), options);
+
+        UShort diNamespaceIndex = nodeSet.getNamespaceTable().getIndex(diNamespaceUri);
+
+        assertFalse(nodeSet.getNodes().isEmpty());
+        for (NodeId nodeId : nodeSet.getNodes().keySet()) {
+            long identifier = ((UInteger) nodeId.getIdentifier()).longValue();
+
+            assertEquals(diNamespaceIndex, nodeId.getNamespaceIndex());
+            assertTrue(nodeId.toString(), identifier >= 1000 && identifier <= 5999);
+        }
+
+        assertEquals(nodeSet.getNodes().keySet(), streamedNodeSet.getNodes().keySet());
+        assertEquals(nodeSet.getExplicitReferences(), streamedNodeSet.getExplicitReferences());
+    }
+
+    @Test
+    public void testFilterRejectsUnresolvableNodeId() throws Exception {
+        String xml = "<UANodeSet xmlns=\"http://opcfoundation.org/UA/2011/03/UANodeSet.xsd\">\n" +
+            "  <NamespaceUris>\n" +
+            "    <Uri>urn:test</Uri>\n" +
+            "  </NamespaceUris>\n" +
+            "  <UAObject NodeId=\"NoSuchAlias\" BrowseName=\"1:Unresolvable\">\n" +
+            "    <DisplayName>Unresolvable</DisplayName>\n" +
+            "  </UAObject>\n" +
+            "  <UAObject NodeId=\"ns=1;i=1\" BrowseName=\"1:A\">\n" +
+            "    <DisplayName>A</DisplayName>\n" +
+            "  </UAObject>\n" +
+            "</UANodeSet>\n";
+
+        for (NodeFilter filter : Arrays.asList(
+            NodeFilter.namespaces("urn:test"),
+            NodeFilter.numericRange("urn:test", 0, 10))) {
+
+            ParseOptions options = ParseOptions.builder().setNodeFilter(filter).build();
+
+            UaNodeSet nodeSet = UaNodeSet.parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), options);
+
+            UaNodeSet streamedNodeSet = UaNodeSet.parseStreaming(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), options);
+
+            assertEquals(Collections.singleton(NodeId.parse("ns=1;i=1")), nodeSet.getNodes().keySet());
+            assertEquals(nodeSet.getNodes().keySet(), streamedNodeSet.getNodes().keySet());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumericRangeFilterRejectsEmptyRange() {
+        NodeFilter.numericRange("http://opcfoundation.org/UA/DI/", 2, 1);
+    }
+
     private void parse(String nodeSetFilename) throws JAXBException {
         InputStream nodeSetXml = getClass().getClassLoader().getResourceAsStream(nodeSetFilename);
 
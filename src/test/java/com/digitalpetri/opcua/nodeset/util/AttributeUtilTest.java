@@ -0,0 +1,72 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AttributeUtilTest {
+
+    private final Map<String, NodeId> aliases = Collections.singletonMap("Foo", new NodeId(1, "Foo"));
+
+    @Test
+    public void testTryParseNodeId() {
+        assertEquals(new NodeId(2, 42), AttributeUtil.tryParseNodeId("ns=2;i=42", aliases));
+        assertEquals(new NodeId(1, "Foo"), AttributeUtil.tryParseNodeId("Foo", aliases));
+        assertEquals(Identifiers.HasComponent, AttributeUtil.tryParseNodeId("HasComponent", aliases));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryParseNodeIdUnresolvable() {
+        AttributeUtil.tryParseNodeId("NotAnIdentifier", aliases);
+    }
+
+    @Test
+    public void testDecodedDomValueRawXml() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        Element element = factory.newDocumentBuilder()
+            .parse(new InputSource(new StringReader(
+                "<Int32 xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\">42</Int32>")))
+            .getDocumentElement();
+
+        RawXmlValues rawXmlValues = new RawXmlValues();
+        NodeId nodeId = new NodeId(1, 1);
+
+        DataValue value = AttributeUtil.parseValue(element, null, nodeId, rawXmlValues);
+
+        assertEquals(42, value.getValue().getValue());
+        assertEquals(1, rawXmlValues.entryCount());
+        assertTrue(rawXmlValues.get(nodeId).contains(">42</Int32>"));
+    }
+
+    @Test
+    public void testResolveNodeIdIsCached() {
+        ParseContext context = new ParseContext(aliases, false);
+
+        assertSame(context.resolveNodeId("ns=2;i=42"), context.resolveNodeId("ns=2;i=42"));
+    }
+
+    @Test
+    public void testResolveNodeIdIsInterned() {
+        ParseContext context = new ParseContext(aliases, false);
+
+        NodeId nodeId = context.resolveNodeId("ns=1;s=Foo");
+
+        assertSame(nodeId, context.resolveNodeId("Foo"));
+        assertSame(nodeId, context.getIdentifierPool().intern(new NodeId(1, "Foo")));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.io.StringReader;
+import java.util.Optional;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class DomValueDecoderTest {
+
+    private static final String TYPES = "xmlns=\"http://opcfoundation.org/UA/2008/02/Types.xsd\"";
+
+    @Test
+    public void testDecodeScalars() throws Exception {
+        assertEquals(42, decode("<Int32 " + TYPES + ">42</Int32>"));
+        assertEquals(uint(7), decode("<UInt32 " + TYPES + ">7</UInt32>"));
+        assertEquals(true, decode("<Boolean " + TYPES + ">true</Boolean>"));
+        assertEquals(Double.POSITIVE_INFINITY, decode("<Double " + TYPES + ">INF</Double>"));
+        assertEquals("foo", decode("<String " + TYPES + ">foo</String>"));
+
+        assertEquals(
+            NodeId.parse("ns=1;i=5"),
+            decode("<NodeId " + TYPES + "><Identifier>ns=1;i=5</Identifier></NodeId>")
+        );
+
+        assertEquals(
+            new QualifiedName(2, "Foo"),
+            decode("<QualifiedName " + TYPES + "><NamespaceIndex>2</NamespaceIndex><Name>Foo</Name></QualifiedName>")
+        );
+
+        assertEquals(
+            new LocalizedText("en", "Foo"),
+            decode("<LocalizedText " + TYPES + "><Locale>en</Locale><Text>Foo</Text></LocalizedText>")
+        );
+    }
+
+    @Test
+    public void testDecodeArrays() throws Exception {
+        assertArrayEquals(
+            new UInteger[]{uint(1), uint(2), uint(3)},
+            (UInteger[]) decode(
+                "<ListOfUInt32 " + TYPES + ">\n" +
+                    "  <UInt32>1</UInt32>\n" +
+                    "  <UInt32>2</UInt32>\n" +
+                    "  <UInt32>3</UInt32>\n" +
+                    "</ListOfUInt32>"
+            )
+        );
+
+        assertArrayEquals(
+            new LocalizedText[]{LocalizedText.english("a"), LocalizedText.english("b")},
+            (LocalizedText[]) decode(
+                "<ListOfLocalizedText " + TYPES + ">" +
+                    "<LocalizedText><Locale>en</Locale><Text>a</Text></LocalizedText>" +
+                    "<LocalizedText><Locale>en</Locale><Text>b</Text></LocalizedText>" +
+                    "</ListOfLocalizedText>"
+            )
+        );
+    }
+
+    @Test
+    public void testUnsupportedTypesAreNotDecoded() throws Exception {
+        assertFalse(decodeOptional(
+            "<ExtensionObject " + TYPES + "><TypeId><Identifier>i=297</Identifier></TypeId></ExtensionObject>"
+        ).isPresent());
+
+        assertFalse(decodeOptional("<Int32>42</Int32>").isPresent());
+    }
+
+    private static Object decode(String xml) throws Exception {
+        return decodeOptional(xml).orElseThrow(AssertionError::new);
+    }
+
+    private static Optional<Object> decodeOptional(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        Element element = factory.newDocumentBuilder()
+            .parse(new InputSource(new StringReader(xml)))
+            .getDocumentElement();
+
+        return DomValueDecoder.decode(element);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.junit.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NamespaceTranslationTest {
+
+    @Test
+    public void testTranslate() {
+        NamespaceTable original = new NamespaceTable();
+        original.addUri("urn:a");
+
+        NamespaceTable target = new NamespaceTable();
+        target.addUri("urn:b");
+        target.addUri("urn:a");
+
+        NamespaceTranslation translation = NamespaceTranslation.create(original, target);
+
+        assertFalse(translation.isIdentity());
+        assertEquals(new NodeId(2, "foo"), translation.translate(new NodeId(1, "foo")));
+        assertEquals(new NodeId(2, 42), translation.translate(new NodeId(1, 42)));
+        assertEquals(new QualifiedName(2, "foo"), translation.translate(new QualifiedName(1, "foo")));
+
+        Reference reference = new Reference(
+            new NodeId(1, "foo"),
+            Identifiers.HasComponent,
+            new NodeId(1, "bar").expanded(),
+            true
+        );
+
+        assertEquals(
+            new Reference(new NodeId(2, "foo"), Identifiers.HasComponent, new NodeId(2, "bar").expanded(), true),
+            translation.translate(reference)
+        );
+
+        NodeId ns0 = new NodeId(0, 85);
+        assertSame(ns0, translation.translate(ns0));
+    }
+
+    @Test
+    public void testIdentity() {
+        NamespaceTable original = new NamespaceTable();
+        original.addUri("urn:a");
+
+        NamespaceTable target = new NamespaceTable();
+        target.addUri("urn:a");
+        target.addUri("urn:b");
+
+        NamespaceTranslation translation = NamespaceTranslation.create(original, target);
+
+        assertTrue(translation.isIdentity());
+
+        NodeId nodeId = new NodeId(1, "foo");
+        assertSame(nodeId, translation.translate(nodeId));
+
+        Reference reference = new Reference(nodeId, Identifiers.HasComponent, new NodeId(1, "bar").expanded(), true);
+        assertSame(reference, translation.translate(reference));
+    }
+
+    @Test
+    public void testAbsoluteTargetsAreKept() {
+        NamespaceTable original = new NamespaceTable();
+        original.addUri("urn:a");
+
+        NamespaceTable target = new NamespaceTable();
+        target.addUri("urn:b");
+        target.addUri("urn:a");
+
+        NamespaceTranslation translation = NamespaceTranslation.create(original, target);
+
+        ExpandedNodeId absolute = new ExpandedNodeId(ushort(0), "urn:a", "bar");
+        assertSame(absolute, translation.translate(absolute));
+
+        Reference reference = new Reference(new NodeId(0, 85), Identifiers.Organizes, absolute, true);
+        assertSame(reference, translation.translate(reference));
+
+        Reference translated = translation.translate(
+            new Reference(new NodeId(1, "foo"), Identifiers.Organizes, absolute, true));
+        assertEquals(new NodeId(2, "foo"), translated.getSourceNodeId());
+        assertSame(absolute, translated.getTargetNodeId());
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.List;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class NodeSetMetricsTest {
+
+    @Test
+    public void testSummary() {
+        NodeSetMetrics metrics = new NodeSetMetrics(2);
+
+        metrics.onPhaseCompleted(NodeSetListener.Phase.UNMARSHAL, 100L);
+        metrics.onPhaseCompleted(NodeSetListener.Phase.UNMARSHAL, 50L);
+
+        metrics.onNodeParsed(new NodeId(1, 1), NodeClass.Variable);
+        metrics.onNodeParsed(new NodeId(1, 2), NodeClass.Variable);
+        metrics.onNodeParsed(new NodeId(1, 3), NodeClass.Object);
+
+        metrics.onValueDecoded(new NodeId(1, 1), "Int32", 10L);
+        metrics.onValueDecodeFailed(new NodeId(1, 2), "ExtensionObject", 30L);
+        metrics.onValueDecoded(new NodeId(1, 4), "String", 20L);
+
+        NodeSetMetrics.Summary summary = metrics.getSummary();
+
+        assertEquals(150L, summary.getPhaseTimes().get(NodeSetListener.Phase.UNMARSHAL).toNanos());
+        assertEquals(0L, summary.getPhaseTimes().get(NodeSetListener.Phase.REINDEX).toNanos());
+
+        assertEquals(Long.valueOf(2L), summary.getNodeCounts().get(NodeClass.Variable));
+        assertEquals(Long.valueOf(1L), summary.getNodeCounts().get(NodeClass.Object));
+        assertFalse(summary.getNodeCounts().containsKey(NodeClass.Method));
+
+        assertEquals(3L, summary.getValueCount());
+        assertEquals(60L, summary.getValueDecodingTime().toNanos());
+        assertEquals(Long.valueOf(1L), summary.getDecodeFailures().get("ExtensionObject"));
+
+        List<NodeSetMetrics.ValueTiming> slowest = summary.getSlowestValues();
+        assertEquals(2, slowest.size());
+        assertEquals(new NodeId(1, 2), slowest.get(0).getNodeId());
+        assertEquals(new NodeId(1, 4), slowest.get(1).getNodeId());
+    }
+
+}
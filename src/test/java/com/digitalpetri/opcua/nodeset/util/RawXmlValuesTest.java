@@ -0,0 +1,76 @@
+package com.digitalpetri.opcua.nodeset.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class RawXmlValuesTest {
+
+    private static final NodeId NODE_1 = new NodeId(1, 1);
+    private static final NodeId NODE_2 = new NodeId(1, 2);
+
+    @Test
+    public void testDeferredEntryIsResolvedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+
+        RawXmlValues values = new RawXmlValues();
+        values.putDeferred(NODE_1, () -> {
+            calls.incrementAndGet();
+            return "<Int32>1</Int32>";
+        });
+
+        assertEquals(0, calls.get());
+        assertEquals(1, values.entryCount());
+
+        assertEquals("<Int32>1</Int32>", values.get(NODE_1));
+        assertEquals("<Int32>1</Int32>", values.get(NODE_1));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testAbsentDeferredEntry() {
+        RawXmlValues values = new RawXmlValues();
+        values.put(NODE_1, "<Int32>1</Int32>");
+        values.putDeferred(NODE_2, () -> null);
+
+        assertEquals(2, values.entryCount());
+        assertEquals(1, values.size());
+        assertFalse(values.containsKey(NODE_2));
+        assertNull(values.get(NODE_2));
+
+        Map<NodeId, String> expected = new HashMap<>();
+        expected.put(NODE_1, "<Int32>1</Int32>");
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void testCopiesStayDeferred() {
+        AtomicInteger calls = new AtomicInteger();
+
+        RawXmlValues values = new RawXmlValues();
+        values.putDeferred(NODE_1, () -> {
+            calls.incrementAndGet();
+            return "<Int32>1</Int32>";
+        });
+
+        RawXmlValues copy = new RawXmlValues();
+        copy.putAll(values);
+
+        RawXmlValues transformed = new RawXmlValues();
+        transformed.putAllTransformed(values, Function.identity(), (nodeId, xml) -> xml.replace("1", "2"));
+
+        assertEquals(0, calls.get());
+        assertEquals("<Int32>1</Int32>", copy.get(NODE_1));
+        assertEquals("<Int32>2</Int32>", transformed.get(NODE_1));
+        assertEquals(1, calls.get());
+    }
+
+}